@@ -0,0 +1,34 @@
+package br.com.acmattos.bankslip.data;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BankSlipIdGenerator Benchmarks (parallel id generation, as done by
+ * concurrent inserts).
+ * @author acmattos
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class BankSlipIdGeneratorBenchmark {
+   private final BankSlipIdGenerator random = new RandomBankSlipIdGenerator();
+   private final BankSlipIdGenerator timeOrdered =
+      new TimeOrderedBankSlipIdGenerator();
+   
+   @Benchmark
+   public UUID random() {
+      return this.random.generate();
+   }
+   
+   @Benchmark
+   public UUID timeOrdered() {
+      return this.timeOrdered.generate();
+   }
+}
@@ -0,0 +1,51 @@
+package br.com.acmattos.bankslip.fine;
+
+import br.com.acmattos.bankslip.data.BankSlip;
+import br.com.acmattos.bankslip.data.BankSlipStatusEnum;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FineCalculator Benchmarks (no fine and both tiers of the default policy).
+ * @author acmattos
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FineCalculatorBenchmark {
+   /** Days overdue of the bank slip (no fine, first and second tiers). */
+   @Param({"0", "5", "30"})
+   private int daysOverdue;
+   
+   private FineCalculator calculator;
+   private BankSlip entity;
+   
+   @Setup
+   public void setUp() {
+      this.calculator = new FineCalculator(
+         new TieredFinePolicy(new FinePolicyProperties().getTiers()));
+      LocalDate dueDate = LocalDate.now().minusDays(this.daysOverdue);
+      this.entity = BankSlip.builder()
+         .id(UUID.randomUUID())
+         .dueDate(Date.from(
+            dueDate.atStartOfDay(ZoneId.systemDefault()).toInstant()))
+         .totalInCents(new BigDecimal("100000"))
+         .customer("Customer")
+         .status(BankSlipStatusEnum.PENDING)
+         .build();
+   }
+   
+   @Benchmark
+   public BigDecimal calculateFine() {
+      return this.calculator.calculateFine(this.entity);
+   }
+}
@@ -0,0 +1,51 @@
+package br.com.acmattos.bankslip.rest;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BankSlipController hot path Benchmarks: id check and response building.
+ * @author acmattos
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BankSlipControllerBenchmark {
+   /** Regular expression used to validate ids before BankSlipIdValidator. */
+   private static final String UUID_PATTERN =
+      "^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[1-57][0-9a-fA-F]{3}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$";
+   
+   private final BankSlipIdValidator idValidator = new BankSlipIdValidator();
+   private UUID id;
+   
+   @Setup
+   public void setUp() {
+      this.id = UUID.randomUUID();
+   }
+   
+   @Benchmark
+   public boolean findById_uuidPatternCheck() {
+      return this.id.toString().matches(UUID_PATTERN);
+   }
+   
+   @Benchmark
+   public boolean findById_idValidatorCheck() {
+      return this.idValidator.isValid(this.id);
+   }
+   
+   @Benchmark
+   public ResponseEntity responseEntityBuilder_build() {
+      return ResponseEntityBuilder.<String>builder()
+         .key("Location")
+         .value("/rest/bankslips/" + this.id)
+         .body("201 : Bankslip created")
+         .CREATED()
+         .build();
+   }
+}
@@ -0,0 +1,91 @@
+package br.com.acmattos.bankslip.rest;
+
+import br.com.acmattos.bankslip.data.BankSlip;
+import br.com.acmattos.bankslip.data.BankSlipStatusEnum;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bank Slip DTOs Benchmarks: validation, conversion and serialization.
+ * @author acmattos
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BankSlipDTOBenchmark {
+   private static final BigDecimal FINE = new BigDecimal("500");
+   
+   /** Number of entities in a list. */
+   @Param({"1000"})
+   private int size;
+   
+   private ObjectMapper mapper;
+   private NewBankSlipDTO newDto;
+   private BankSlip entity;
+   private List<BankSlip> entities;
+   private List<SavedBankSlipDTO> savedDtos;
+   private DetailedBankSlipDTO detailedDto;
+   
+   @Setup
+   public void setUp() {
+      this.mapper = new ObjectMapper();
+      this.newDto = NewBankSlipDTO.builder()
+         .dueDate(new Date())
+         .totalInCents(new BigDecimal("100000"))
+         .customer("Customer")
+         .status(BankSlipStatusEnum.PENDING)
+         .build();
+      this.entities = new ArrayList<>();
+      for (int i = 0; i < this.size; i++) {
+         this.entities.add(BankSlip.builder()
+            .id(UUID.randomUUID())
+            .dueDate(new Date())
+            .totalInCents(new BigDecimal("100000"))
+            .customer("Customer")
+            .status(BankSlipStatusEnum.PENDING)
+            .build());
+      }
+      this.entity = this.entities.get(0);
+      this.savedDtos = SavedBankSlipDTO.toDTOs(this.entities);
+      this.detailedDto = DetailedBankSlipDTO.toDTO(this.entity, FINE);
+   }
+   
+   @Benchmark
+   public Map<String, String> newBankSlipDTO_validateMe() {
+      return this.newDto.validateMe();
+   }
+   
+   @Benchmark
+   public List<SavedBankSlipDTO> savedBankSlipDTO_toDTOs() {
+      return SavedBankSlipDTO.toDTOs(this.entities);
+   }
+   
+   @Benchmark
+   public DetailedBankSlipDTO detailedBankSlipDTO_toDTO() {
+      return DetailedBankSlipDTO.toDTO(this.entity, FINE);
+   }
+   
+   @Benchmark
+   public byte[] savedBankSlipDTO_serializeList()
+      throws JsonProcessingException {
+      return this.mapper.writeValueAsBytes(this.savedDtos);
+   }
+   
+   @Benchmark
+   public byte[] detailedBankSlipDTO_serialize()
+      throws JsonProcessingException {
+      return this.mapper.writeValueAsBytes(this.detailedDto);
+   }
+}
@@ -1,8 +1,11 @@
 package br.com.acmattos.bankslip;
 
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.boot.web.servlet.support.SpringBootServletInitializer;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
 
 /**
  * Bootstraps Bank Slip Application.
@@ -11,6 +14,9 @@ import org.springframework.boot.web.servlet.support.SpringBootServletInitializer
  */
 @SpringBootApplication
 public class BankSlipApplication extends SpringBootServletInitializer {
+   private static final String WEB_APPLICATION_TYPE =
+      "spring.main.web-application-type";
+   
     /**
      * Allows this application to run properly.
      *
@@ -18,6 +24,26 @@ public class BankSlipApplication extends SpringBootServletInitializer {
      * @throws Exception in case of general failure.
      */
    public static void main(String[] args) throws Exception {
-      new SpringApplicationBuilder(BankSlipApplication.class).run(args);
+      new SpringApplicationBuilder(BankSlipApplication.class)
+         .web(getWebApplicationType(args))
+         .run(args);
+   }
+   
+   /**
+    * Gets the web application type given as a command line argument or system
+    * property (servlet by default). It must be known before the environment
+    * is created, otherwise a reactive web application gets a servlet
+    * environment and servlet only beans are created too.
+    *
+    * @param args Command line arguments.
+    * @return Web application type.
+    */
+   private static WebApplicationType getWebApplicationType(String[] args) {
+      StandardEnvironment environment = new StandardEnvironment();
+      environment.getPropertySources()
+         .addFirst(new SimpleCommandLinePropertySource(args));
+      String type = environment.getProperty(WEB_APPLICATION_TYPE,
+         WebApplicationType.SERVLET.name());
+      return WebApplicationType.valueOf(type.trim().toUpperCase());
    }
 }
@@ -0,0 +1,188 @@
+package br.com.acmattos.bankslip.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs bank slip requests asynchronously (bankslip.execution.mode=async):
+ * BankSlipController returns futures, so Tomcat's threads are released
+ * while requests wait for the database, and requests run on an executor
+ * instead.
+ *
+ * When the runtime supports virtual threads (Java 21+), each request runs on
+ * its own virtual thread, which costs nearly nothing while it waits for the
+ * database. They're still bounded: up to bankslip.execution.threads requests
+ * run at once and, beyond that, requests are rejected (503) instead of
+ * overflowing the Mongo connection pool's wait queue. This application is
+ * compiled for Java 8, so they're detected through reflection.
+ * Otherwise, requests run on a bounded pool of platform threads (as many as
+ * Tomcat's default of 200) and, when all of its threads are busy and its
+ * queue is full, requests are rejected (503) instead of piling up.
+ *
+ * The executor is instrumented as bankslip.requests (executor.* metrics).
+ *
+ * @author acmattos
+ */
+@Configuration
+@ConditionalOnProperty(name = "bankslip.execution.mode", havingValue = "async")
+@ConditionalOnWebApplication(type = Type.SERVLET)
+class BankSlipExecutionConfig {
+   private static final Logger LOGGER =
+      LoggerFactory.getLogger(BankSlipExecutionConfig.class);
+   private static final String EXECUTOR_NAME = "bankslip.requests";
+   private static final String THREAD_NAME_PREFIX = "bankslip-request-";
+   private static final int DEFAULT_THREADS = 200;
+   private static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+   /**
+    * Builds the executor of bank slip requests: virtual threads, if
+    * available, or a bounded pool of platform threads.
+    * @param registry Meter registry.
+    * @param threads Number of platform threads, or of requests running at once
+    *                on virtual threads.
+    * @param queueCapacity Maximum number of requests waiting for a platform
+    *                      thread (bounded pool only).
+    * @return Bank slip request executor.
+    */
+   @Bean(destroyMethod = "shutdown")
+   ExecutorService bankSlipRequestExecutor(MeterRegistry registry,
+      @Value("${bankslip.execution.threads:" + DEFAULT_THREADS + "}")
+      int threads,
+      @Value("${bankslip.execution.queue-capacity:"
+         + DEFAULT_QUEUE_CAPACITY + "}")
+      int queueCapacity) {
+      ExecutorService executor = newVirtualThreadPerTaskExecutor();
+      if(null == executor){
+         LOGGER.info("Bank slip requests run on {} platform threads "
+            + "(virtual threads are not available)", threads);
+         executor = new ThreadPoolExecutor(threads, threads,
+            0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+            new CustomizableThreadFactory(THREAD_NAME_PREFIX),
+            new ThreadPoolExecutor.AbortPolicy());
+      } else {
+         LOGGER.info("Bank slip requests run on virtual threads ({} at once)",
+            threads);
+         executor = new BoundedExecutorService(executor, threads);
+      }
+      return ExecutorServiceMetrics.monitor(registry, executor, EXECUTOR_NAME);
+   }
+
+   /**
+    * Creates an executor that runs each task on a new virtual thread
+    * (Executors.newVirtualThreadPerTaskExecutor, Java 21+), through
+    * reflection.
+    * @return Executor, or null if the runtime doesn't support virtual threads.
+    */
+   private static ExecutorService newVirtualThreadPerTaskExecutor() {
+      try {
+         return (ExecutorService) Executors.class
+            .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      } catch (ReflectiveOperationException e) {
+         // Not available (Java 8 to 18), or a preview not enabled (19 and 20).
+         return null;
+      }
+   }
+
+   /**
+    * Executor that runs up to a number of tasks at once on another executor,
+    * rejecting (RejectedExecutionException) the tasks beyond that instead of
+    * queueing them.
+    */
+   private static class BoundedExecutorService extends AbstractExecutorService {
+      private final ExecutorService executor;
+      private final Semaphore permits;
+
+      /**
+       * Builds an instance of this class.
+       * @param executor Executor that runs the tasks.
+       * @param limit Maximum number of tasks running at once.
+       */
+      BoundedExecutorService(ExecutorService executor, int limit) {
+         this.executor = executor;
+         this.permits = new Semaphore(limit);
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @Override
+      public void execute(Runnable command) {
+         if(!permits.tryAcquire()){
+            throw new RejectedExecutionException(
+               "Bank slip requests limit reached");
+         }
+         try {
+            executor.execute(() -> {
+               try {
+                  command.run();
+               } finally {
+                  permits.release();
+               }
+            });
+         } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+         }
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @Override
+      public void shutdown() {
+         executor.shutdown();
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @Override
+      public List<Runnable> shutdownNow() {
+         return executor.shutdownNow();
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @Override
+      public boolean isShutdown() {
+         return executor.isShutdown();
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @Override
+      public boolean isTerminated() {
+         return executor.isTerminated();
+      }
+
+      /**
+       * {@inheritDoc}
+       */
+      @Override
+      public boolean awaitTermination(long timeout, TimeUnit unit)
+         throws InterruptedException {
+         return executor.awaitTermination(timeout, unit);
+      }
+   }
+}
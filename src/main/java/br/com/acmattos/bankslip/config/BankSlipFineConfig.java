@@ -0,0 +1,43 @@
+package br.com.acmattos.bankslip.config;
+
+import br.com.acmattos.bankslip.data.BankSlipFineMaterializer;
+import br.com.acmattos.bankslip.fine.FineCalculator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Stores the current fines of pending bank slips once per business day
+ * (bankslip.fine.materialize-cron), right after the business date changes.
+ * @author acmattos
+ */
+@Configuration
+class BankSlipFineConfig {
+   private static final Logger LOGGER =
+      LoggerFactory.getLogger(BankSlipFineConfig.class);
+   private static final int DEFAULT_CHUNK_SIZE = 1000;
+   
+   @Autowired
+   private MongoOperations operations;
+   
+   @Autowired
+   private FineCalculator fineCalculator;
+   
+   /** Number of bank slips updated by each bulk write. */
+   @Value("${bankslip.bulk.chunk-size:" + DEFAULT_CHUNK_SIZE + "}")
+   private int chunkSize = DEFAULT_CHUNK_SIZE;
+   
+   /**
+    * Stores the current fines of pending bank slips whose fine rate changed.
+    */
+   @Scheduled(cron = "${bankslip.fine.materialize-cron:0 5 0 * * *}")
+   void materializeFines() {
+      long updated = new BankSlipFineMaterializer(operations, chunkSize)
+         .materialize(fineCalculator.getFineRatesByDueDate());
+      LOGGER.info("Bank slip fines stored: {} bank slips updated", updated);
+   }
+}
@@ -0,0 +1,64 @@
+package br.com.acmattos.bankslip.config;
+
+import br.com.acmattos.bankslip.data.BankSlipIdGenerator;
+import br.com.acmattos.bankslip.data.RandomBankSlipIdGenerator;
+import br.com.acmattos.bankslip.data.TimeOrderedBankSlipIdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures how new bank slip identifiers are generated
+ * (bankslip.id.strategy).
+ *
+ * Time-ordered ids only make _id inserts mostly sequential with the compact
+ * storage format (UUIDs stored in their standard byte order): the legacy
+ * format reverses the bytes of each half of a UUID, which scatters them over
+ * the _id index again. So, unless a strategy is configured, ids are
+ * time-ordered with the compact format and random with the legacy one.
+ *
+ * @author acmattos
+ */
+@Configuration
+class BankSlipIdConfig {
+   private static final Logger LOGGER =
+      LoggerFactory.getLogger(BankSlipIdConfig.class);
+   private static final String TIME_ORDERED = "time-ordered";
+   private static final String RANDOM = "random";
+   private static final String LEGACY = "legacy";
+   private static final String COMPACT = "compact";
+   
+   /**
+    * Picks the configured identifier generation strategy.
+    * @param strategy time-ordered (UUID version 7) or random (UUID version 4);
+    *                 if empty, it depends on the storage format.
+    * @param format Storage format (legacy or compact).
+    * @return Bank slip identifier generator.
+    */
+   @Bean
+   BankSlipIdGenerator bankSlipIdGenerator(
+      @Value("${bankslip.id.strategy:}") String strategy,
+      @Value("${bankslip.storage.format:" + LEGACY + "}") String format){
+      boolean compact = COMPACT.equalsIgnoreCase(format.trim());
+      String strategyToUse = strategy.trim().isEmpty()
+         ? (compact ? TIME_ORDERED : RANDOM)
+         : strategy.trim().toLowerCase();
+      switch (strategyToUse) {
+         case TIME_ORDERED:
+            if(!compact){
+               LOGGER.warn("Time-ordered bank slip ids are stored with their "
+                  + "bytes reversed by the {} storage format, so their "
+                  + "inserts are not sequential: use "
+                  + "bankslip.storage.format={}", format, COMPACT);
+            }
+            return new TimeOrderedBankSlipIdGenerator();
+         case RANDOM:
+            return new RandomBankSlipIdGenerator();
+         default:
+            throw new IllegalArgumentException(
+               "Unknown bank slip id strategy: " + strategy);
+      }
+   }
+}
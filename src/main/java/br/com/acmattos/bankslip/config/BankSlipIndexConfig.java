@@ -0,0 +1,71 @@
+package br.com.acmattos.bankslip.config;
+
+import br.com.acmattos.bankslip.data.BankSlipIdempotencyKeys;
+import br.com.acmattos.bankslip.data.BankSlipQueryPlanVerifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import java.util.List;
+
+/**
+ * Creates the bank slip indexes that can't be declared on the entity and
+ * verifies, at startup, that no bank slip query scans the whole collection
+ * or sorts in memory (bankslip.index.plan-check), before requests are served.
+ * @author acmattos
+ */
+@Configuration
+class BankSlipIndexConfig {
+   private static final Logger LOGGER =
+      LoggerFactory.getLogger(BankSlipIndexConfig.class);
+   private static final String WARN = "warn";
+   private static final String FAIL = "fail";
+   private static final String OFF = "off";
+   
+   /**
+    * Creates indexes and verifies the query plans of bank slip queries. This
+    * is done once all beans are created, before the web server accepts
+    * requests, so no request runs without the indexes it needs.
+    * @param operations MongoDB operations.
+    * @param idempotencyKeys Idempotency keys of bank slip creations (TTL
+    *                        index).
+    * @param planCheck What to do if a query isn't served by indexes or
+    *                  can't be explained: warn (default), fail (application
+    *                  doesn't start) or off (query plans aren't verified).
+    * @return Index (and query plan verification) callback.
+    */
+   @Bean
+   SmartInitializingSingleton bankSlipIndexes(MongoOperations operations,
+      BankSlipIdempotencyKeys idempotencyKeys,
+      @Value("${bankslip.index.plan-check:" + WARN + "}") String planCheck){
+      String mode = planCheck.trim().toLowerCase();
+      if(!WARN.equals(mode) && !FAIL.equals(mode) && !OFF.equals(mode)){
+         throw new IllegalArgumentException(
+            "Unknown bank slip query plan check: " + planCheck);
+      }
+      return () -> {
+         BankSlipQueryPlanVerifier verifier =
+            new BankSlipQueryPlanVerifier(operations);
+         verifier.ensureIndexes();
+         idempotencyKeys.ensureIndex();
+         if(OFF.equals(mode)){
+            return;
+         }
+         List<String> unindexed =
+            verifier.findUnindexedPlans(FAIL.equals(mode));
+         if(unindexed.isEmpty()){
+            LOGGER.info("Bank slip queries are served by indexes");
+         } else if(FAIL.equals(mode)){
+            throw new IllegalStateException(
+               "Bank slip queries aren't served by indexes: " + unindexed);
+         } else {
+            LOGGER.warn("Bank slip queries aren't served by indexes: {}",
+               unindexed);
+         }
+      };
+   }
+}
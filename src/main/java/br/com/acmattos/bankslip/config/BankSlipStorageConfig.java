@@ -0,0 +1,89 @@
+package br.com.acmattos.bankslip.config;
+
+import br.com.acmattos.bankslip.data.BankSlipStorageConverters;
+import br.com.acmattos.bankslip.data.BankSlipStorageMigration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.util.Assert;
+
+import java.util.Collections;
+
+/**
+ * Configures how bank slips are stored (bankslip.storage.format) and the
+ * migration of legacy documents (bankslip.storage.migrate), which completes
+ * before requests are served.
+ * @author acmattos
+ */
+@Configuration
+class BankSlipStorageConfig {
+   private static final Logger LOGGER =
+      LoggerFactory.getLogger(BankSlipStorageConfig.class);
+   private static final String LEGACY = "legacy";
+   private static final String COMPACT = "compact";
+   private static final int DEFAULT_CHUNK_SIZE = 1000;
+   
+   /** Storage format: legacy (default) or compact. */
+   @Value("${bankslip.storage.format:" + LEGACY + "}")
+   private String format = LEGACY;
+   
+   /**
+    * Registers the converters of the configured storage format.
+    * @return Custom conversions used by MongoDB converters.
+    */
+   @Bean
+   MongoCustomConversions mongoCustomConversions(){
+      switch (format.trim().toLowerCase()) {
+         case COMPACT:
+            return new MongoCustomConversions(
+               BankSlipStorageConverters.getConvertersToRegister());
+         case LEGACY:
+            return new MongoCustomConversions(Collections.emptyList());
+         default:
+            throw new IllegalArgumentException(
+               "Unknown bank slip storage format: " + format);
+      }
+   }
+   
+   /**
+    * Verifies, with the compact storage format, that no bank slip is stored
+    * in the legacy format anymore, migrating legacy documents first when
+    * bankslip.storage.migrate=true. Queries only match compact documents, so
+    * this is done once all beans are created, before the web server accepts
+    * requests, and startup fails if legacy documents are left.
+    * @param operations MongoDB operations.
+    * @param migrate Whether legacy documents are migrated.
+    * @param chunkSize Number of bank slips migrated by each bulk write.
+    * @return Migration (and verification) callback.
+    */
+   @Bean
+   SmartInitializingSingleton bankSlipStorageMigration(
+      MongoOperations operations,
+      @Value("${bankslip.storage.migrate:false}") boolean migrate,
+      @Value("${bankslip.bulk.chunk-size:" + DEFAULT_CHUNK_SIZE + "}")
+      int chunkSize){
+      boolean compact = COMPACT.equalsIgnoreCase(format.trim());
+      Assert.state(compact || !migrate,
+         "Migration requires bankslip.storage.format=" + COMPACT);
+      return () -> {
+         if(!compact){
+            return;
+         }
+         BankSlipStorageMigration migration =
+            new BankSlipStorageMigration(operations, chunkSize);
+         if(migrate){
+            long migrated = migration.migrate();
+            LOGGER.info("Bank slip storage migration done: {} bank slips "
+               + "migrated", migrated);
+         }
+         Assert.state(!migration.hasLegacyDocuments(), "Bank slips stored "
+            + "in the legacy format can't be found with the compact format: "
+            + "migrate them with bankslip.storage.migrate=true");
+      };
+   }
+}
@@ -0,0 +1,27 @@
+package br.com.acmattos.bankslip.config;
+
+import br.com.acmattos.bankslip.fine.FinePolicy;
+import br.com.acmattos.bankslip.fine.FinePolicyProperties;
+import br.com.acmattos.bankslip.fine.TieredFinePolicy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures the fine policy from the tiers table (bankslip.fine.tiers).
+ * @author acmattos
+ */
+@Configuration
+@EnableConfigurationProperties(FinePolicyProperties.class)
+class FinePolicyConfig {
+   
+   /**
+    * Compiles the configured fine tiers at startup.
+    * @param properties Fine policy configuration.
+    * @return Fine policy.
+    */
+   @Bean
+   FinePolicy finePolicy(FinePolicyProperties properties){
+      return new TieredFinePolicy(properties.getTiers());
+   }
+}
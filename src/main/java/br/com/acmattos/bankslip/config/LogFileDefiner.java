@@ -0,0 +1,26 @@
+package br.com.acmattos.bankslip.config;
+
+import ch.qos.logback.core.PropertyDefinerBase;
+import ch.qos.logback.core.util.OptionHelper;
+
+/**
+ * Tells logback-spring.xml whether a log file is configured (logging.file or
+ * logging.path, which Spring Boot exposes as LOG_FILE): "file" if it is, or
+ * "none" otherwise. Logback can't test properties without Janino, so this
+ * value picks the optional include of the file appender.
+ * @author acmattos
+ */
+public class LogFileDefiner extends PropertyDefinerBase {
+   private static final String LOG_FILE = "LOG_FILE";
+   private static final String FILE = "file";
+   private static final String NONE = "none";
+   
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public String getPropertyValue() {
+      String logFile = OptionHelper.propertyLookup(LOG_FILE, getContext(), null);
+      return null == logFile || logFile.trim().isEmpty() ? NONE : FILE;
+   }
+}
@@ -0,0 +1,28 @@
+package br.com.acmattos.bankslip.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures the reactive web application
+ * (spring.main.web-application-type=reactive).
+ * @author acmattos
+ */
+@Configuration
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+class ReactiveWebConfig {
+   
+   /**
+    * Runs the reactive web application on Netty (a few event loop threads),
+    * instead of Tomcat, which would be picked by default because the
+    * servlet stack is also available.
+    * @return Netty reactive web server factory.
+    */
+   @Bean
+   NettyReactiveWebServerFactory nettyReactiveWebServerFactory(){
+      return new NettyReactiveWebServerFactory();
+   }
+}
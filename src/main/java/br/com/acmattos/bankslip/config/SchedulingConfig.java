@@ -0,0 +1,13 @@
+package br.com.acmattos.bankslip.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled tasks (e.g. business date refresh).
+ * @author acmattos
+ */
+@Configuration
+@EnableScheduling
+class SchedulingConfig {
+}
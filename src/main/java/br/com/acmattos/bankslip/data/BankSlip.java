@@ -2,19 +2,18 @@ package br.com.acmattos.bankslip.data;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 import org.springframework.util.Assert;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
-import java.time.LocalDate;
-import java.time.ZoneId;
 import java.util.Date;
 import java.util.UUID;
 
-import static java.time.temporal.ChronoUnit.DAYS;
-
 /**
  * MongoDB Entity for Bank Slip Document manipulation.
  * @author acmattos
@@ -24,12 +23,14 @@ import static java.time.temporal.ChronoUnit.DAYS;
 @Getter
 @Builder
 @Document(collection = "bankslip")
+@CompoundIndexes({
+   @CompoundIndex(name = "due_date_id", def = "{'due_date': 1, '_id': 1}"),
+   @CompoundIndex(name = "status_due_date_id",
+                  def = "{'status': 1, 'due_date': 1, '_id': 1}"),
+   @CompoundIndex(name = "customer_due_date_id",
+                  def = "{'customer': 1, 'due_date': 1, '_id': 1}")
+})
 public class BankSlip implements Serializable {
-   private static final int FIRST_DAY = 1;
-   private static final int LAST_DAY = 10;
-   private static final String FIRST_PERCENTAGE = "0.005";
-   private static final String SECOND_PERCENTAGE = "0.01";
-   
    /** Identifier of this bank slip. */
    @Id
    private UUID id;
@@ -52,6 +53,14 @@ public class BankSlip implements Serializable {
    @NonNull
    private BankSlipStatusEnum status;
    
+   /**
+    * Version of this bank slip, incremented whenever it changes (e.g. its
+    * status). Bank slips inserted by bulk writes (or before versions existed)
+    * have no version until their first change: they are at version 0.
+    */
+   @Version
+   private Long version;
+   
    /**
     * Changes status for this entity.
     * @param status Status of this bank slip.
@@ -76,48 +85,4 @@ public class BankSlip implements Serializable {
    boolean isNew() {
       return (null == this.id);
    }
-   
-   /**
-    * Calculates a fine for this entity (if it applies).
-    * Rule:
-    * Up to 10 days: 0.5%
-    * After 11th day: 1%
-    *
-    * @return The fine.
-    */
-   public BigDecimal calculateFine(){
-      BigDecimal fine = BigDecimal.ZERO;
-      if(BankSlipStatusEnum.PENDING.equals(this.getStatus())) {
-         BigDecimal percentage = getFinePercentage();
-         fine = this.getTotalInCents().multiply(percentage)
-            .setScale(0, BigDecimal.ROUND_HALF_EVEN);
-      }
-      return fine;
-   }
-   
-   /**
-    * Gets the fine percentage.
-    * @return Fine percentage.
-    */
-   private BigDecimal getFinePercentage() {
-      BigDecimal percentage = BigDecimal.ZERO;
-      long daysBetween = getDaysBetweenDueDateAndToday();
-      if(daysBetween >= FIRST_DAY && daysBetween <= LAST_DAY){
-         percentage = new BigDecimal(FIRST_PERCENTAGE);
-      } else if(daysBetween > LAST_DAY){
-         percentage = new BigDecimal(SECOND_PERCENTAGE);
-      }
-      return percentage;
-   }
-   
-   /**
-    * Get number of days between due date and current date (today).
-    * @return Number of day between.
-    */
-   private long getDaysBetweenDueDateAndToday() {
-      LocalDate now = LocalDate.now();
-      return DAYS.between(
-         this.dueDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate(),
-         now);
-   }
 }
\ No newline at end of file
@@ -0,0 +1,156 @@
+package br.com.acmattos.bankslip.data;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of bank slips by id, evicted by size and by time
+ * to live. Only found bank slips are cached, so creating one never needs to
+ * evict anything. Hit/miss/eviction counters are exposed through JMX.
+ *
+ * Entities are cached (not DTOs), so anything that depends on the current
+ * date (e.g. fines) is still calculated on every request.
+ *
+ * @author acmattos
+ */
+@Component
+@ManagedResource(objectName = "br.com.acmattos.bankslip:type=BankSlipCache",
+   description = "Bank slips read-through cache")
+public class BankSlipCache {
+   /** Bank slips by id. */
+   private final Cache<UUID, BankSlip> cache;
+   
+   /**
+    * Builds an instance of this class.
+    * @param maximumSize Maximum number of cached bank slips.
+    * @param timeToLiveSeconds Seconds a bank slip stays cached after loaded.
+    */
+   public BankSlipCache(
+      @Value("${bankslip.cache.maximum-size:10000}") long maximumSize,
+      @Value("${bankslip.cache.time-to-live-seconds:60}")
+         long timeToLiveSeconds) {
+      Assert.isTrue(maximumSize >= 0, "maximumSize can't be below zero!");
+      Assert.isTrue(timeToLiveSeconds >= 0,
+         "timeToLiveSeconds can't be below zero!");
+      this.cache = Caffeine.newBuilder()
+         .maximumSize(maximumSize)
+         .expireAfterWrite(timeToLiveSeconds, TimeUnit.SECONDS)
+         .recordStats()
+         .build();
+   }
+   
+   /**
+    * Finds a bank slip by its id, loading (and caching) it on a miss.
+    * Concurrent misses of the same id load it only once.
+    *
+    * @param id Bank slip identifier.
+    * @param loader Loads a bank slip by its id (e.g. repository::findById).
+    * @return The bank slip, or empty if it was not found.
+    */
+   public Optional<BankSlip> findById(UUID id,
+                                      Function<UUID, Optional<BankSlip>> loader) {
+      Assert.notNull(id, "id can't be null!");
+      Assert.notNull(loader, "loader can't be null!");
+      return Optional.ofNullable(
+         this.cache.get(id, key -> loader.apply(key).orElse(null)));
+   }
+   
+   /**
+    * Evicts a bank slip (whenever it's written).
+    * @param id Bank slip identifier.
+    */
+   public void invalidate(UUID id) {
+      Assert.notNull(id, "id can't be null!");
+      this.cache.invalidate(id);
+   }
+   
+   /**
+    * Evicts many bank slips (whenever they're written).
+    * @param ids Bank slips identifiers.
+    */
+   public void invalidateAll(Collection<UUID> ids) {
+      Assert.notNull(ids, "ids can't be null!");
+      this.cache.invalidateAll(ids);
+   }
+   
+   /**
+    * Evicts all bank slips.
+    */
+   @ManagedOperation(description = "Evicts all bank slips")
+   public void clear() {
+      this.cache.invalidateAll();
+   }
+   
+   /**
+    * Gets the approximate number of cached bank slips.
+    * @return Number of cached bank slips.
+    */
+   @ManagedAttribute(description = "Approximate number of cached bank slips")
+   public long getSize() {
+      return this.cache.estimatedSize();
+   }
+   
+   /**
+    * Gets the number of lookups that found a cached bank slip.
+    * @return Hit count.
+    */
+   @ManagedAttribute(description = "Lookups that found a cached bank slip")
+   public long getHitCount() {
+      return stats().hitCount();
+   }
+   
+   /**
+    * Gets the number of lookups that had to load a bank slip.
+    * @return Miss count.
+    */
+   @ManagedAttribute(description = "Lookups that had to load a bank slip")
+   public long getMissCount() {
+      return stats().missCount();
+   }
+   
+   /**
+    * Gets the ratio of lookups that found a cached bank slip.
+    * @return Hit rate (1.0 if there was no lookup).
+    */
+   @ManagedAttribute(description = "Ratio of lookups that were hits")
+   public double getHitRate() {
+      return stats().hitRate();
+   }
+   
+   /**
+    * Gets the number of bank slips evicted by size or time to live.
+    * @return Eviction count.
+    */
+   @ManagedAttribute(description = "Bank slips evicted by size or time to live")
+   public long getEvictionCount() {
+      return stats().evictionCount();
+   }
+   
+   /**
+    * Performs pending maintenance (e.g. evictions) right now.
+    */
+   void cleanUp() {
+      this.cache.cleanUp();
+   }
+   
+   /**
+    * Gets a snapshot of this cache statistics.
+    * @return Cache statistics.
+    */
+   private CacheStats stats() {
+      return this.cache.stats();
+   }
+}
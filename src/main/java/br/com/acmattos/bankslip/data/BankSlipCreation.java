@@ -0,0 +1,24 @@
+package br.com.acmattos.bankslip.data;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.UUID;
+
+/**
+ * Outcome of a BankSlip creation with an idempotency key.
+ * @author acmattos
+ */
+@ToString
+@EqualsAndHashCode
+@Getter
+@Builder
+public class BankSlipCreation {
+   /** Outcome of the creation. */
+   private final BankSlipCreationEnum outcome;
+   
+   /** Id of the bank slip created with the key (CREATED only). */
+   private final UUID id;
+}
@@ -0,0 +1,14 @@
+package br.com.acmattos.bankslip.data;
+
+/**
+ * Possible outcomes of a BankSlip creation with an idempotency key.
+ * @author acmattos
+ */
+public enum BankSlipCreationEnum {
+   /** Created (by this creation or by a previous one with the same key). */
+   CREATED,
+   /** A creation with the same key is still in progress. */
+   IN_PROGRESS,
+   /** The key was already used to create a different bank slip. */
+   KEY_REUSED
+}
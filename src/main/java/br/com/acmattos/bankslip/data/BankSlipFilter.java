@@ -0,0 +1,113 @@
+package br.com.acmattos.bankslip.data;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Filter of bank slips by status, customer (exact match or prefix) and due
+ * date range (inclusive). Absent criteria match any bank slip.
+ *
+ * Filtered bank slips are ordered by due date and id. Status and due date are
+ * served by the (status, due_date, _id) index, customer criteria by the
+ * (customer, due_date, _id) index: both of them also serve the order, so it
+ * never needs an in-memory sort.
+ *
+ * @author acmattos
+ */
+@ToString
+@EqualsAndHashCode
+@Getter
+@Builder
+public class BankSlipFilter {
+   private static final String ID = "id";
+   private static final String DUE_DATE = "dueDate";
+   private static final String CUSTOMER = "customer";
+   private static final String STATUS = "status";
+   private static final Pattern REGEX_METACHARACTERS =
+      Pattern.compile("[\\\\^$.|?*+()\\[\\]{}]");
+   
+   /** Status of the bank slips. */
+   private final BankSlipStatusEnum status;
+   
+   /** Customer's name (exact match). */
+   private final String customer;
+   
+   /** Customer's name prefix. */
+   private final String customerPrefix;
+   
+   /** First due date. */
+   private final Date dueDateFrom;
+   
+   /** Last due date. */
+   private final Date dueDateTo;
+   
+   /**
+    * Verifies if this filter has no criteria at all.
+    * @return true if it matches any bank slip, or false otherwise.
+    */
+   public boolean isEmpty() {
+      return null == status && null == customer && null == customerPrefix
+         && null == dueDateFrom && null == dueDateTo;
+   }
+   
+   /**
+    * Builds the query of this filter, ordered by due date and id.
+    * @return Query.
+    */
+   public Query toQuery() {
+      Query query = new Query().with(Sort.by(DUE_DATE, ID));
+      if(null != status){
+         query.addCriteria(Criteria.where(STATUS).is(status));
+      }
+      if(null != customer){
+         query.addCriteria(Criteria.where(CUSTOMER).is(customer));
+      } else if(null != customerPrefix){
+         query.addCriteria(
+            Criteria.where(CUSTOMER).regex(toPrefixRegex(customerPrefix)));
+      }
+      if(null != dueDateFrom || null != dueDateTo){
+         Criteria dueDate = Criteria.where(DUE_DATE);
+         if(null != dueDateFrom){
+            dueDate.gte(dueDateFrom);
+         }
+         if(null != dueDateTo){
+            dueDate.lte(dueDateTo);
+         }
+         query.addCriteria(dueDate);
+      }
+      return query;
+   }
+   
+   /**
+    * Builds the query of this filter, ordered by due date and id, for the bank
+    * slips right after a given one (keyset pagination): later due date, or
+    * same due date and greater id.
+    * @param dueDate Due date of the last bank slip of the previous page.
+    * @param id Id of the last bank slip of the previous page.
+    * @return Query.
+    */
+   public Query toQuery(Date dueDate, UUID id) {
+      return toQuery().addCriteria(new Criteria().orOperator(
+         Criteria.where(DUE_DATE).gt(dueDate),
+         Criteria.where(DUE_DATE).is(dueDate).and(ID).gt(id)));
+   }
+   
+   /**
+    * Builds an anchored regular expression that matches a literal prefix, so
+    * it can be answered by index bounds.
+    * @param prefix Literal prefix.
+    * @return Regular expression.
+    */
+   static String toPrefixRegex(String prefix) {
+      return "^" + REGEX_METACHARACTERS.matcher(prefix).replaceAll("\\\\$0");
+   }
+}
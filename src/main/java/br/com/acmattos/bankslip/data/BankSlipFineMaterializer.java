@@ -0,0 +1,170 @@
+package br.com.acmattos.bankslip.data;
+
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.util.Assert;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Stores the current fine of pending bank slips and the fine rate (tier) it
+ * was calculated with on their documents (fine and fine_rate, both Decimal128
+ * whatever the storage format), so bank slips can be sorted and reported by
+ * fine with index lookups.
+ *
+ * Pending bank slips are streamed by due date range (pending_due_date index)
+ * and only those whose fine rate changed are updated, with one unordered bulk
+ * write per chunk. Fines are rounded HALF_EVEN, just like fines calculated by
+ * the application. Pending bank slips with no fine anymore lose their stored
+ * fine, and paying or canceling a bank slip removes it too.
+ *
+ * @author acmattos
+ */
+public class BankSlipFineMaterializer {
+   /** Field of the current fine of a pending bank slip. */
+   public static final String FINE = "fine";
+   /** Field of the fine rate the current fine was calculated with. */
+   public static final String FINE_RATE = "fine_rate";
+   private static final String ID = "_id";
+   private static final String STATUS = "status";
+   private static final String DUE_DATE = "dueDate";
+   private static final String TOTAL_IN_CENTS = "totalInCents";
+   
+   private final MongoOperations operations;
+   private final int chunkSize;
+   
+   /**
+    * Builds an instance of this class.
+    * @param operations MongoDB operations.
+    * @param chunkSize Number of bank slips updated by each bulk write.
+    */
+   public BankSlipFineMaterializer(MongoOperations operations, int chunkSize) {
+      Assert.notNull(operations, "operations can't be null!");
+      Assert.isTrue(chunkSize > 0, "chunkSize must be above zero!");
+      this.operations = operations;
+      this.chunkSize = chunkSize;
+   }
+   
+   /**
+    * Stores the current fines of pending bank slips.
+    * @param rates Fine rates of pending bank slips by due date range, most
+    *              overdue first (ranges without fine are left out).
+    * @return Number of bank slips updated.
+    */
+   public long materialize(List<BankSlipFineRate> rates) {
+      Assert.notNull(rates, "rates can't be null!");
+      long updated = 0;
+      Date gapFrom = null;
+      for (BankSlipFineRate rate : rates) {
+         if(!Objects.equals(gapFrom, rate.getDueDateFrom())){
+            updated += clear(gapFrom, rate.getDueDateFrom());
+         }
+         updated += store(rate);
+         gapFrom = rate.getDueDateTo();
+      }
+      return updated + clear(gapFrom, null);
+   }
+   
+   /**
+    * Stores the fines of the pending bank slips of a due date range whose
+    * fine rate changed, streaming them chunk by chunk.
+    * @param rate Fine rate of the due date range.
+    * @return Number of bank slips updated.
+    */
+   private long store(BankSlipFineRate rate) {
+      Decimal128 fineRate = new Decimal128(rate.getRate());
+      Query query = Query.query(pending(rate.getDueDateFrom(),
+         rate.getDueDateTo()).and(FINE_RATE).ne(fineRate));
+      query.fields().include(TOTAL_IN_CENTS);
+      long updated = 0;
+      List<BankSlipProjection> chunk = new ArrayList<>(chunkSize);
+      try (CloseableIterator<BankSlipProjection> pending = operations.stream(
+         query, BankSlipProjection.class,
+         operations.getCollectionName(BankSlip.class))) {
+         while (pending.hasNext()) {
+            chunk.add(pending.next());
+            if(chunk.size() == chunkSize){
+               updated += update(chunk, rate.getRate());
+               chunk.clear();
+            }
+         }
+      }
+      return updated + update(chunk, rate.getRate());
+   }
+   
+   /**
+    * Updates the fines of a chunk of pending bank slips with one unordered
+    * bulk write (bank slips paid or canceled meanwhile are left alone).
+    * @param chunk Pending bank slips (id and total in cents).
+    * @param rate Fine rate.
+    * @return Number of bank slips updated.
+    */
+   private long update(List<BankSlipProjection> chunk, BigDecimal rate) {
+      if(chunk.isEmpty()){
+         return 0;
+      }
+      BulkOperations bulk = operations
+         .bulkOps(BulkOperations.BulkMode.UNORDERED, BankSlip.class);
+      Decimal128 fineRate = new Decimal128(rate);
+      for (BankSlipProjection pending : chunk) {
+         BigDecimal fine = pending.getTotalInCents().multiply(rate)
+            .setScale(0, BigDecimal.ROUND_HALF_EVEN);
+         bulk.updateOne(Query.query(Criteria.where(ID).is(pending.getId())
+               .and(STATUS).is(BankSlipStatusEnum.PENDING)),
+            Update.fromDocument(new Document("$set", new Document()
+               .append(FINE, new Decimal128(fine))
+               .append(FINE_RATE, fineRate))));
+      }
+      BulkWriteResult result = bulk.execute();
+      return result.getModifiedCount();
+   }
+   
+   /**
+    * Removes the stored fines of the pending bank slips of a due date range
+    * without fine.
+    * @param dueDateFrom First due date (inclusive, null if unbounded).
+    * @param dueDateTo Due date right after the last one (exclusive, null if
+    *                  unbounded).
+    * @return Number of bank slips updated.
+    */
+   private long clear(Date dueDateFrom, Date dueDateTo) {
+      Query query = Query.query(pending(dueDateFrom, dueDateTo)
+         .and(FINE_RATE).exists(true));
+      return operations.updateMulti(query,
+         new Update().unset(FINE).unset(FINE_RATE), BankSlip.class)
+         .getModifiedCount();
+   }
+   
+   /**
+    * Builds the criteria of the pending bank slips of a due date range.
+    * @param dueDateFrom First due date (inclusive, null if unbounded).
+    * @param dueDateTo Due date right after the last one (exclusive, null if
+    *                  unbounded).
+    * @return Criteria.
+    */
+   static Criteria pending(Date dueDateFrom, Date dueDateTo) {
+      Criteria criteria =
+         Criteria.where(STATUS).is(BankSlipStatusEnum.PENDING);
+      if(null != dueDateFrom || null != dueDateTo){
+         Criteria dueDate = criteria.and(DUE_DATE);
+         if(null != dueDateFrom){
+            dueDate.gte(dueDateFrom);
+         }
+         if(null != dueDateTo){
+            dueDate.lt(dueDateTo);
+         }
+      }
+      return criteria;
+   }
+}
@@ -0,0 +1,42 @@
+package br.com.acmattos.bankslip.data;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.util.Assert;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Fine rate of pending bank slips whose due dates are in a range, as of the
+ * current business date, so fines can be projected by the database.
+ * @author acmattos
+ */
+@ToString
+@EqualsAndHashCode
+@Getter
+public final class BankSlipFineRate {
+   /** First due date (inclusive, null if there's no first due date). */
+   private final Date dueDateFrom;
+   
+   /** Due date right after the last one (exclusive). */
+   private final Date dueDateTo;
+   
+   /** Fine rate (e.g. 0.005 for 0.5%). */
+   private final BigDecimal rate;
+   
+   /**
+    * Builds an instance of this class.
+    * @param dueDateFrom First due date (inclusive, null if unbounded).
+    * @param dueDateTo Due date right after the last one (exclusive).
+    * @param rate Fine rate.
+    */
+   public BankSlipFineRate(Date dueDateFrom, Date dueDateTo, BigDecimal rate) {
+      Assert.notNull(dueDateTo, "dueDateTo can't be null!");
+      Assert.notNull(rate, "rate can't be null!");
+      this.dueDateFrom = dueDateFrom;
+      this.dueDateTo = dueDateTo;
+      this.rate = rate;
+   }
+}
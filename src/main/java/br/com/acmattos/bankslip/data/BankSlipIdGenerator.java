@@ -0,0 +1,18 @@
+package br.com.acmattos.bankslip.data;
+
+import java.util.UUID;
+
+/**
+ * Generates identifiers for new bank slips.
+ * @author acmattos
+ */
+public interface BankSlipIdGenerator {
+   
+   /**
+    * Generates a new bank slip identifier.
+    * Implementations must be thread safe.
+    *
+    * @return A new UUID.
+    */
+   UUID generate();
+}
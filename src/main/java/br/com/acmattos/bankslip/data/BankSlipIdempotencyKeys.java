@@ -0,0 +1,201 @@
+package br.com.acmattos.bankslip.data;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Idempotency keys of bank slip creations (Idempotency-Key header), kept in
+ * their own collection: each key holds the id of the bank slip created with
+ * it, so a client retrying a creation gets the same bank slip back instead of
+ * a new one.
+ *
+ * A key is claimed by inserting it (a single write, no read before it): new
+ * keys, the common case, cost one round-trip; only repeated keys are read, to
+ * find their bank slip. Keys expire (TTL index) after
+ * bankslip.idempotency.ttl-seconds.
+ *
+ * A key is PENDING while its bank slip is being created and COMMITTED once
+ * it's created, so a retry never gets a bank slip that may still fail to be
+ * created. Each key also holds a fingerprint (SHA-256) of its bank slip, so
+ * reusing a key for a different bank slip is detected.
+ *
+ * Documents are written with the driver itself (not mapped), so their dates
+ * stay BSON dates (as required by the TTL index) whatever the storage format.
+ *
+ * @author acmattos
+ */
+@Component
+public class BankSlipIdempotencyKeys {
+   /** Collection of the idempotency keys. */
+   static final String COLLECTION = "bankslip_idempotency_keys";
+   private static final String ID = "_id";
+   private static final String BANK_SLIP_ID = "bank_slip_id";
+   private static final String FINGERPRINT = "fingerprint";
+   private static final String STATE = "state";
+   private static final String PENDING = "PENDING";
+   private static final String COMMITTED = "COMMITTED";
+   private static final String CREATED_AT = "created_at";
+   private static final String CREATED_AT_TTL = "created_at_ttl";
+   private static final long DEFAULT_TTL_SECONDS = 86400;
+
+   private final MongoOperations operations;
+   private final long ttlSeconds;
+
+   /**
+    * Builds an instance of this class.
+    * @param operations MongoDB operations.
+    * @param ttlSeconds How long keys are kept.
+    */
+   public BankSlipIdempotencyKeys(MongoOperations operations,
+      @Value("${bankslip.idempotency.ttl-seconds:" + DEFAULT_TTL_SECONDS + "}")
+      long ttlSeconds) {
+      Assert.notNull(operations, "operations can't be null!");
+      Assert.isTrue(ttlSeconds > 0, "ttlSeconds must be positive!");
+      this.operations = operations;
+      this.ttlSeconds = ttlSeconds;
+   }
+
+   /**
+    * Creates the TTL index that removes expired keys.
+    */
+   public void ensureIndex() {
+      operations.indexOps(COLLECTION).ensureIndex(new Index()
+         .on(CREATED_AT, Sort.Direction.ASC)
+         .named(CREATED_AT_TTL)
+         .expire(ttlSeconds, TimeUnit.SECONDS));
+   }
+
+   /**
+    * Claims an idempotency key for a bank slip about to be created (the key
+    * is PENDING until it's committed).
+    * @param key Idempotency key.
+    * @param entity Bank slip about to be created (with its id).
+    * @return Empty if the key was claimed (the bank slip must be created), or
+    *         the outcome of the creation that claimed the key before.
+    */
+   public Optional<BankSlipCreation> claim(String key, BankSlip entity) {
+      Assert.hasText(key, "key can't be empty!");
+      Assert.notNull(entity, "entity can't be null!");
+      Assert.notNull(entity.getId(), "id can't be null!");
+      String fingerprint = fingerprint(entity);
+      MongoCollection<Document> keys = operations.getCollection(COLLECTION);
+      while (true) {
+         try {
+            keys.insertOne(new Document(ID, key)
+               .append(BANK_SLIP_ID, entity.getId())
+               .append(FINGERPRINT, fingerprint)
+               .append(STATE, PENDING)
+               .append(CREATED_AT, new Date()));
+            return Optional.empty();
+         } catch (MongoWriteException e) {
+            if(ErrorCategory.DUPLICATE_KEY != e.getError().getCategory()){
+               throw e;
+            }
+         }
+         Document claimed = keys.find(Filters.eq(ID, key)).first();
+         // Otherwise, the key has just expired or been released: it's claimed
+         // again.
+         if(null != claimed){
+            return Optional.of(toCreation(claimed, fingerprint));
+         }
+      }
+   }
+
+   /**
+    * Commits an idempotency key whose bank slip was created, so retries get
+    * that bank slip.
+    * @param key Idempotency key.
+    */
+   public void commit(String key) {
+      Assert.hasText(key, "key can't be empty!");
+      operations.getCollection(COLLECTION)
+         .updateOne(Filters.eq(ID, key), Updates.set(STATE, COMMITTED));
+   }
+
+   /**
+    * Releases a pending idempotency key whose bank slip could not be created,
+    * so a retry creates it.
+    * @param key Idempotency key.
+    */
+   public void release(String key) {
+      Assert.hasText(key, "key can't be empty!");
+      operations.getCollection(COLLECTION).deleteOne(
+         Filters.and(Filters.eq(ID, key), Filters.eq(STATE, PENDING)));
+   }
+
+   /**
+    * Gets the outcome of the creation that claimed a key.
+    * A pending key whose bank slip exists is committed (its bank slip was
+    * created, but the key could not be committed).
+    * @param claimed Key claimed.
+    * @param fingerprint Fingerprint of the bank slip about to be created.
+    * @return Outcome of the creation.
+    */
+   private BankSlipCreation toCreation(Document claimed, String fingerprint) {
+      if(!fingerprint.equals(claimed.getString(FINGERPRINT))){
+         return BankSlipCreation.builder()
+            .outcome(BankSlipCreationEnum.KEY_REUSED)
+            .build();
+      }
+      UUID id = claimed.get(BANK_SLIP_ID, UUID.class);
+      if(PENDING.equals(claimed.getString(STATE)) && !operations.exists(
+         Query.query(Criteria.where(ID).is(id)), BankSlip.class)){
+         return BankSlipCreation.builder()
+            .outcome(BankSlipCreationEnum.IN_PROGRESS)
+            .build();
+      }
+      return BankSlipCreation.builder()
+         .outcome(BankSlipCreationEnum.CREATED)
+         .id(id)
+         .build();
+   }
+
+   /**
+    * Builds the fingerprint of a bank slip (all of its fields but the id):
+    * equal bank slips (e.g. same total in cents, whatever its scale) have the
+    * same fingerprint.
+    * @param entity Bank slip.
+    * @return Fingerprint (SHA-256, Base64).
+    */
+   static String fingerprint(BankSlip entity) {
+      BigDecimal totalInCents = entity.getTotalInCents();
+      String fields = String.join("|",
+         null == entity.getDueDate()
+            ? "null" : String.valueOf(entity.getDueDate().getTime()),
+         null == totalInCents
+            ? "null" : totalInCents.stripTrailingZeros().toPlainString(),
+         Objects.toString(entity.getCustomer()),
+         Objects.toString(entity.getStatus()));
+      try {
+         return Base64.getEncoder().encodeToString(MessageDigest
+            .getInstance("SHA-256")
+            .digest(fields.getBytes(StandardCharsets.UTF_8)));
+      } catch (NoSuchAlgorithmException e) {
+         // Every Java platform is required to support SHA-256.
+         throw new IllegalStateException(e);
+      }
+   }
+}
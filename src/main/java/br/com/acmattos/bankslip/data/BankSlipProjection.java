@@ -0,0 +1,37 @@
+package br.com.acmattos.bankslip.data;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Read-only view of a bank slip document read with a projection: properties
+ * that were not read are null.
+ * @author acmattos
+ */
+@ToString
+@Getter
+public class BankSlipProjection {
+   /** Identifier of this bank slip. */
+   @Id
+   private UUID id;
+
+   /** Due date of this bank slip. */
+   @Field("due_date")
+   private Date dueDate;
+
+   /** Total in cents of this bank slip. */
+   @Field("total_in_cents")
+   private BigDecimal totalInCents;
+
+   /** Customer's name of this bank slip. */
+   private String customer;
+
+   /** Status of this bank slip. */
+   private BankSlipStatusEnum status;
+}
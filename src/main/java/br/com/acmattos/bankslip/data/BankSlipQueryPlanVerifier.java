@@ -0,0 +1,324 @@
+package br.com.acmattos.bankslip.data;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.util.Assert;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Creates the bank slip indexes that can't be declared on {@link BankSlip}
+ * and verifies (explain) that every bank slip query is served by an index:
+ * neither its filter scans the whole collection nor its order is sorted in
+ * memory (a blocking sort, limited to 32 MB).
+ *
+ * Indexes declared on {@link BankSlip} are created by Spring Data at startup.
+ * Spring Data 2.0 can't declare partial indexes, so the pending bank slips
+ * indexes (due date and stored fine of pending bank slips only) are created
+ * here.
+ *
+ * Queries of {@link BankSlipRepository} query methods are derived from the
+ * methods themselves (see {@link PartTree}), so they can't drift from the
+ * queries Spring Data issues. Queries that are meant to read the whole
+ * collection (e.g. streamAllBy and findAll) aren't verified.
+ *
+ * @author acmattos
+ */
+public class BankSlipQueryPlanVerifier {
+   private static final Logger LOGGER =
+      LoggerFactory.getLogger(BankSlipQueryPlanVerifier.class);
+   /** Name of the partial index of pending bank slips. */
+   public static final String PENDING_DUE_DATE = "pending_due_date";
+   /** Name of the partial index of the stored fines of pending bank slips. */
+   public static final String PENDING_FINE = "pending_fine";
+   private static final String ID = "_id";
+   private static final String DUE_DATE_FIELD = "due_date";
+   private static final String STATUS = "status";
+   private static final String CUSTOMER = "customer";
+   private static final String COLLSCAN = "COLLSCAN";
+   private static final String SORT = "SORT";
+   private static final String STAGE = "stage";
+   private static final String INPUT_STAGE = "inputStage";
+   private static final String INPUT_STAGES = "inputStages";
+   private static final int PAGE_SIZE = 20;
+   
+   private final MongoOperations operations;
+   private final MongoPersistentEntity<?> entity;
+   private final QueryMapper mapper;
+   private final Map<String, Query> queries;
+   
+   /**
+    * Builds an instance of this class.
+    * @param operations MongoDB operations.
+    */
+   public BankSlipQueryPlanVerifier(MongoOperations operations) {
+      Assert.notNull(operations, "operations can't be null!");
+      this.operations = operations;
+      this.entity = operations.getConverter().getMappingContext()
+         .getRequiredPersistentEntity(BankSlip.class);
+      this.mapper = new QueryMapper(operations.getConverter());
+      this.queries = buildQueries();
+   }
+   
+   /**
+    * Creates the partial indexes of pending bank slips (if they don't exist).
+    */
+   public void ensureIndexes() {
+      operations.indexOps(BankSlip.class).ensureIndex(new Index()
+         .on(DUE_DATE_FIELD, Sort.Direction.ASC)
+         .named(PENDING_DUE_DATE)
+         .partial(PartialIndexFilter.of(Criteria.where(STATUS)
+            .is(BankSlipStatusEnum.PENDING.name()))));
+      operations.indexOps(BankSlip.class).ensureIndex(new Index()
+         .on(BankSlipFineMaterializer.FINE, Sort.Direction.DESC)
+         .named(PENDING_FINE)
+         .partial(PartialIndexFilter.of(Criteria.where(STATUS)
+            .is(BankSlipStatusEnum.PENDING.name()))));
+   }
+   
+   /**
+    * Explains every verified query and finds the ones whose winning plan
+    * isn't served by indexes: it scans the whole collection or sorts in
+    * memory.
+    * @param failOnError true if a query that can't be explained (e.g. the
+    *                    server doesn't support it or the user isn't allowed
+    *                    to) must fail the verification, or false if it's only
+    *                    logged.
+    * @return Names of the queries not served by indexes (empty if none).
+    */
+   public List<String> findUnindexedPlans(boolean failOnError) {
+      List<String> unindexed = new ArrayList<>();
+      queries.forEach((name, query) -> {
+         Document plan;
+         try {
+            plan = explain(query);
+         } catch (RuntimeException e) {
+            if(failOnError){
+               throw e;
+            }
+            LOGGER.warn("Query plan of {} could not be verified: {}", name,
+               e.getMessage());
+            return;
+         }
+         if(null == plan){
+            LOGGER.warn("Query plan of {} is not available", name);
+         } else if(isUnindexed(plan)){
+            unindexed.add(name);
+         }
+      });
+      return unindexed;
+   }
+   
+   /**
+    * Gets the queries verified by this class, by repository method name.
+    * @return Verified queries.
+    */
+   Map<String, Query> getQueries() {
+      return queries;
+   }
+   
+   /**
+    * Verifies if a winning plan (or any of its input stages) is a collection
+    * scan or an in-memory sort.
+    * @param plan Winning plan (queryPlanner.winningPlan).
+    * @return true if the collection is scanned or sorted in memory, or false
+    *         otherwise.
+    */
+   static boolean isUnindexed(Document plan) {
+      if(null == plan){
+         return false;
+      }
+      String stage = plan.getString(STAGE);
+      if(COLLSCAN.equals(stage) || SORT.equals(stage)
+         || isUnindexed(plan.get(INPUT_STAGE, Document.class))){
+         return true;
+      }
+      List<?> stages = plan.get(INPUT_STAGES, List.class);
+      return null != stages && stages.stream().anyMatch(input ->
+         isUnindexed((Document) input));
+   }
+   
+   /**
+    * Explains a query (query planner only: the query isn't executed).
+    * @param query Query to explain.
+    * @return Winning plan (null if the server doesn't report it).
+    */
+   private Document explain(Query query) {
+      Document find = new Document("find",
+         operations.getCollectionName(BankSlip.class))
+         .append("filter",
+            mapper.getMappedObject(query.getQueryObject(), entity))
+         .append("sort", mapper.getMappedSort(query.getSortObject(), entity));
+      if(query.getLimit() > 0){
+         find.append("limit", query.getLimit());
+      }
+      Document result = operations.executeCommand(new Document("explain", find)
+         .append("verbosity", "queryPlanner"));
+      Document planner = result.get("queryPlanner", Document.class);
+      return null == planner ? null : planner.get("winningPlan", Document.class);
+   }
+   
+   /**
+    * Builds the queries issued by bank slip repositories (sample values).
+    * @return Queries by repository method name.
+    */
+   private Map<String, Query> buildQueries() {
+      UUID id = new UUID(0L, 0L);
+      Date dueDate = new Date(0L);
+      Map<String, Query> verified = new LinkedHashMap<>();
+      verified.put("findById",
+         Query.query(Criteria.where(ID).is(id)));
+      Arrays.stream(BankSlipRepository.class.getDeclaredMethods())
+         .filter(method -> !method.isSynthetic() && !method.isDefault()
+            && !Modifier.isStatic(method.getModifiers()))
+         .sorted(Comparator.comparing(Method::getName))
+         .forEach(method -> {
+            Query query = derive(method);
+            if(null != query){
+               verified.put(method.getName(), query);
+            }
+         });
+      verified.put("findAllFiltered(status, dueDate)", BankSlipFilter.builder()
+         .status(BankSlipStatusEnum.PENDING)
+         .dueDateFrom(dueDate).dueDateTo(dueDate).build().toQuery());
+      verified.put("findAllFiltered(customer)", BankSlipFilter.builder()
+         .customer(CUSTOMER).build().toQuery());
+      verified.put("findAllFiltered(customerPrefix, dueDate)",
+         BankSlipFilter.builder()
+            .customerPrefix(CUSTOMER).dueDateFrom(dueDate).build().toQuery());
+      verified.put("findPageFiltered(status)", BankSlipFilter.builder()
+         .status(BankSlipStatusEnum.PENDING).build().toQuery(dueDate, id));
+      verified.put("findPageFiltered(customer)", BankSlipFilter.builder()
+         .customer(CUSTOMER).build().toQuery(dueDate, id));
+      verified.put("updateStatus", BankSlipRepositoryImpl.pendingById(id));
+      verified.put("updateStatus(version)", BankSlipRepositoryImpl
+         .pendingById(id).addCriteria(BankSlipRepositoryImpl.atVersion(1L)));
+      verified.put("findAllStatus",
+         Query.query(Criteria.where(ID).in(Collections.singleton(id))));
+      verified.put("BankSlipSummaryCounters.settled",
+         Query.query(BankSlipRepositoryImpl.settledBy(
+            Collections.singleton(id), new ObjectId(dueDate, 0))));
+      verified.put("BankSlipFineMaterializer.materialize",
+         Query.query(BankSlipFineMaterializer.pending(dueDate, dueDate)
+            .and(BankSlipFineMaterializer.FINE_RATE).ne(BigDecimal.ZERO)));
+      verified.put("pending bank slips by fine",
+         Query.query(Criteria.where(STATUS).is(BankSlipStatusEnum.PENDING))
+            .with(Sort.by(Sort.Direction.DESC, BankSlipFineMaterializer.FINE))
+            .limit(PAGE_SIZE));
+      return verified;
+   }
+   
+   /**
+    * Derives the query of a repository query method from its name, just like
+    * Spring Data does (sample values).
+    * @param method Repository query method.
+    * @return Query (null if the method reads the whole collection).
+    */
+   private static Query derive(Method method) {
+      PartTree tree = new PartTree(method.getName(), BankSlip.class);
+      List<Criteria> branches = new ArrayList<>();
+      tree.forEach(or -> {
+         Criteria branch = null;
+         for(Part part : or){
+            branch = criteria(branch, part);
+         }
+         branches.add(branch);
+      });
+      if(branches.isEmpty() && tree.getSort().isUnsorted()){
+         return null;
+      }
+      Query query = new Query();
+      if(1 == branches.size()){
+         query.addCriteria(branches.get(0));
+      } else if(!branches.isEmpty()){
+         query.addCriteria(new Criteria()
+            .orOperator(branches.toArray(new Criteria[0])));
+      }
+      query.with(tree.getSort());
+      if(Arrays.asList(method.getParameterTypes()).contains(Pageable.class)){
+         query.limit(PAGE_SIZE);
+      } else if(tree.isLimiting()){
+         query.limit(tree.getMaxResults());
+      }
+      return query;
+   }
+   
+   /**
+    * Adds the criteria of a query method part to a criteria chain.
+    * @param chain Criteria chain (null if it's the first part).
+    * @param part Query method part.
+    * @return Criteria chain.
+    */
+   private static Criteria criteria(Criteria chain, Part part) {
+      String property = part.getProperty().toDotPath();
+      Criteria criteria = null == chain
+         ? Criteria.where(property) : chain.and(property);
+      Object value = sample(part.getProperty().getLeafProperty().getType());
+      switch (part.getType()) {
+         case SIMPLE_PROPERTY:
+            return criteria.is(value);
+         case NEGATING_SIMPLE_PROPERTY:
+            return criteria.ne(value);
+         case GREATER_THAN:
+         case AFTER:
+            return criteria.gt(value);
+         case GREATER_THAN_EQUAL:
+            return criteria.gte(value);
+         case LESS_THAN:
+         case BEFORE:
+            return criteria.lt(value);
+         case LESS_THAN_EQUAL:
+            return criteria.lte(value);
+         default:
+            throw new IllegalStateException("Query plan of " + part.getType()
+               + " criteria can't be verified: " + property);
+      }
+   }
+   
+   /**
+    * Gets a sample value of a bank slip property type.
+    * @param type Property type.
+    * @return Sample value.
+    */
+   private static Object sample(Class<?> type) {
+      if(UUID.class.equals(type)){
+         return new UUID(0L, 0L);
+      } else if(Date.class.equals(type)){
+         return new Date(0L);
+      } else if(String.class.equals(type)){
+         return CUSTOMER;
+      } else if(BigDecimal.class.equals(type)){
+         return BigDecimal.ZERO;
+      } else if(Long.class.equals(type)){
+         return 0L;
+      } else if(type.isEnum()){
+         return type.getEnumConstants()[0];
+      }
+      throw new IllegalStateException(
+         "No sample value of " + type.getName());
+   }
+}
@@ -1,12 +1,49 @@
 package br.com.acmattos.bankslip.data;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.Date;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Interface that exposes Bank Slip repository features.
  * @author acmattos
  */
-public interface BankSlipRepository extends MongoRepository<BankSlip, UUID>{
+public interface BankSlipRepository
+   extends MongoRepository<BankSlip, UUID>, BankSlipRepositoryCustom {
+   
+   /**
+    * Streams all bank slips straight from a MongoDB cursor, so the whole
+    * collection is never loaded into memory at once.
+    * IMPORTANT: the returned stream holds an open cursor and must be closed!
+    *
+    * @return A stream of all bank slips.
+    */
+   Stream<BankSlip> streamAllBy();
+   
+   /**
+    * Finds the first page of bank slips, ordered by due date and id (keyset).
+    *
+    * @param pageable Page size (page number must always be zero).
+    * @return First page of bank slips.
+    */
+   List<BankSlip> findAllByOrderByDueDateAscIdAsc(Pageable pageable);
+   
+   /**
+    * Finds the page of bank slips that comes right after the given due date
+    * and id (keyset), seeking on the (due_date, _id) index instead of skipping
+    * documents: every page costs the same as the first one.
+    *
+    * @param dueDate Due date of the last bank slip of the previous page.
+    * @param sameDueDate Same as dueDate (it is used twice by this query).
+    * @param id Identifier of the last bank slip of the previous page.
+    * @param pageable Page size (page number must always be zero).
+    * @return Next page of bank slips.
+    */
+   List<BankSlip>
+      findByDueDateGreaterThanOrDueDateAndIdGreaterThanOrderByDueDateAscIdAsc(
+         Date dueDate, Date sameDueDate, UUID id, Pageable pageable);
 }
@@ -0,0 +1,163 @@
+package br.com.acmattos.bankslip.data;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Interface that exposes Bank Slip repository features that can't be derived
+ * from query methods.
+ * @author acmattos
+ */
+public interface BankSlipRepositoryCustom {
+   
+   /**
+    * Inserts a new bank slip and counts it in the bank slip summary (see
+    * {@link BankSlipSummaryCounters}).
+    *
+    * @param entity Bank slip to be inserted.
+    * @return Inserted bank slip (with its id).
+    */
+   BankSlip create(BankSlip entity);
+   
+   /**
+    * Inserts a new bank slip once per idempotency key (see
+    * {@link BankSlipIdempotencyKeys}): the first call claims the key and
+    * creates the bank slip, and calls repeating that key (e.g. client retries)
+    * create nothing. They get the bank slip created with that key, unless its
+    * creation is still in progress or it's a different bank slip.
+    *
+    * @param entity Bank slip to be inserted.
+    * @param idempotencyKey Idempotency key.
+    * @return Outcome of the creation, with the id of the bank slip created
+    *         with this key (by this call or by a previous one).
+    */
+   BankSlipCreation create(BankSlip entity, String idempotencyKey);
+   
+   /**
+    * Inserts all given bank slips with one unordered bulk write (a single
+    * round-trip). New bank slips get their ids before being inserted, so
+    * successful ones can be identified right after this call.
+    * A failing bank slip does not prevent the others from being inserted.
+    * Inserted bank slips are counted in the bank slip summary.
+    *
+    * @param entities Bank slips to be inserted.
+    * @return Failure cause of each bank slip that could not be inserted,
+    *         indexed by its position in the given list (empty if all of them
+    *         were inserted).
+    */
+   Map<Integer, String> insertAllUnordered(List<BankSlip> entities);
+   
+   /**
+    * Changes the status of a pending bank slip with one atomic conditional
+    * update (a single round-trip), so concurrent status changes can't
+    * overwrite each other. The bank slip, as it was while pending, moves its
+    * counters in the bank slip summary. Only when it was not changed, one more
+    * read finds out why.
+    * Changing a bank slip to the status it already has is reported as
+    * successful (repeating a status change is harmless).
+    *
+    * @param id Bank slip identifier.
+    * @param status New status (PAID or CANCELED).
+    * @return Outcome of the status change.
+    */
+   BankSlipTransitionEnum updateStatus(UUID id, BankSlipStatusEnum status);
+   
+   /**
+    * Changes the status of a pending bank slip, just like
+    * {@link #updateStatus(UUID, BankSlipStatusEnum)}, only if it's still at
+    * the given version (optimistic locking): the version is part of the same
+    * atomic conditional update, so no lock is held between reading a bank
+    * slip and changing it.
+    *
+    * @param id Bank slip identifier.
+    * @param status New status (PAID or CANCELED).
+    * @param version Version of the bank slip read by the client.
+    * @return Outcome of the status change.
+    * @throws OptimisticLockingFailureException if the bank slip is still
+    *         pending, but not at the given version anymore.
+    */
+   BankSlipTransitionEnum updateStatus(UUID id, BankSlipStatusEnum status,
+                                       long version);
+   
+   /**
+    * Changes the status of all given pending bank slips with one unordered
+    * bulk write of conditional updates (a single round-trip). The bank slips
+    * it actually changed move their counters in the bank slip summary
+    * (aggregated by the database). Only when some of them were not changed,
+    * one more read finds out why.
+    * Changing a bank slip to the status it already has is reported as
+    * successful (repeating a status change is harmless). A status change that
+    * fails (write error) is reported as FAILED, and the others are kept.
+    *
+    * @param statuses New status (PAID or CANCELED) of each bank slip, by id.
+    * @return Outcome of each status change, by id.
+    */
+   Map<UUID, BankSlipTransitionEnum> updateAllStatusUnordered(
+      Map<UUID, BankSlipStatusEnum> statuses);
+   
+   /**
+    * Finds bank slips that match a filter, ordered by due date and id.
+    *
+    * @param filter Filter of bank slips.
+    * @return Bank slips found.
+    */
+   List<BankSlip> findAllFiltered(BankSlipFilter filter);
+   
+   /**
+    * Finds one page of the bank slips that match a filter, ordered by due date
+    * and id, seeking right after the last bank slip of the previous page
+    * (keyset pagination).
+    *
+    * @param filter Filter of bank slips.
+    * @param dueDate Due date of the last bank slip of the previous page (null
+    *                on the first page).
+    * @param id Id of the last bank slip of the previous page (null on the
+    *           first page).
+    * @param limit Maximum number of bank slips in this page.
+    * @return Bank slips found.
+    */
+   List<BankSlip> findPageFiltered(BankSlipFilter filter, Date dueDate, UUID id,
+                                   int limit);
+   
+   /**
+    * Streams the bank slips that match a filter, ordered by due date and id,
+    * reading them from a database cursor. The stream must be closed.
+    *
+    * @param filter Filter of bank slips.
+    * @return Bank slips found.
+    */
+   Stream<BankSlip> streamAllFiltered(BankSlipFilter filter);
+   
+   /**
+    * Finds bank slips that match a filter, ordered by due date and id, reading
+    * only the given properties of each of them (a projection): less data is
+    * read and sent by the database.
+    *
+    * @param filter Filter of bank slips.
+    * @param properties Properties to read (id, dueDate, totalInCents,
+    *                   customer or status).
+    * @return Bank slips found (properties not read are null).
+    */
+   List<BankSlipProjection> findAllProjected(BankSlipFilter filter,
+                                             Collection<String> properties);
+   
+   /**
+    * Aggregates totals of the bank slips that match a filter (counts, sums of
+    * totals in cents and projected fines) on the database, grouped by the
+    * given groups: bank slips themselves are never transferred.
+    *
+    * @param filter Filter of bank slips.
+    * @param groups Groups of totals (grand totals if empty).
+    * @param rates Fine rates of pending bank slips by due date range.
+    * @return Totals of each group, ordered by group.
+    */
+   List<BankSlipTotals> aggregateTotals(BankSlipFilter filter,
+                                        Collection<BankSlipTotalsGroupEnum> groups,
+                                        List<BankSlipFineRate> rates);
+}
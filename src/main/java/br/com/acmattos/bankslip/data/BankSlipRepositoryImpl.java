@@ -0,0 +1,421 @@
+package br.com.acmattos.bankslip.data;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.StreamUtils;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implements Bank Slip repository features that can't be derived from query
+ * methods.
+ * @author acmattos
+ */
+class BankSlipRepositoryImpl implements BankSlipRepositoryCustom {
+   private static final Logger LOGGER =
+      LoggerFactory.getLogger(BankSlipRepositoryImpl.class);
+   /**
+    * Field of the bank slips settled by a bulk status change: id of that
+    * change (settlement), so the bank slips it actually changed can be told
+    * apart from those changed concurrently by others. It's removed once they
+    * are counted in the bank slip summary.
+    */
+   static final String SETTLEMENT = "settlement";
+   private static final String ID = "_id";
+   private static final String ID_PROPERTY = "id";
+   private static final String STATUS = "status";
+   private static final String VERSION = "version";
+   private static final String CUSTOMER = "customer";
+   private static final String TOTAL_IN_CENTS = "totalInCents";
+   
+   private final MongoOperations operations;
+   private final BankSlipIdGenerator idGenerator;
+   private final BankSlipSummaryCounters summary;
+   private final BankSlipIdempotencyKeys idempotencyKeys;
+   
+   /**
+    * Builds an instance of this class.
+    * @param operations MongoDB operations.
+    * @param idGenerator Bank slip identifier generator.
+    * @param summary Bank slip summary per customer and status.
+    * @param idempotencyKeys Idempotency keys of bank slip creations.
+    */
+   BankSlipRepositoryImpl(MongoOperations operations,
+                          BankSlipIdGenerator idGenerator,
+                          BankSlipSummaryCounters summary,
+                          BankSlipIdempotencyKeys idempotencyKeys) {
+      this.operations = operations;
+      this.idGenerator = idGenerator;
+      this.summary = summary;
+      this.idempotencyKeys = idempotencyKeys;
+   }
+   
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public BankSlip create(BankSlip entity) {
+      Assert.notNull(entity, "entity can't be null!");
+      operations.insert(entity);
+      summary.created(Collections.singletonList(entity));
+      return entity;
+   }
+   
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public BankSlipCreation create(BankSlip entity, String idempotencyKey) {
+      Assert.notNull(entity, "entity can't be null!");
+      // The id is claimed along with the key, before the bank slip is stored.
+      if (entity.isNew()) {
+         entity.setId(idGenerator.generate());
+      }
+      Optional<BankSlipCreation> claimed =
+         idempotencyKeys.claim(idempotencyKey, entity);
+      if(claimed.isPresent()){
+         return claimed.get();
+      }
+      try {
+         create(entity);
+      } catch (RuntimeException e) {
+         idempotencyKeys.release(idempotencyKey);
+         throw e;
+      }
+      try {
+         idempotencyKeys.commit(idempotencyKey);
+      } catch (RuntimeException e) {
+         // Retries find the bank slip anyway (see BankSlipIdempotencyKeys).
+         LOGGER.warn("Could not commit idempotency key of bank slip {}: {}",
+            entity.getId(), e.getMessage());
+      }
+      return BankSlipCreation.builder()
+         .outcome(BankSlipCreationEnum.CREATED)
+         .id(entity.getId())
+         .build();
+   }
+   
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public Map<Integer, String> insertAllUnordered(List<BankSlip> entities) {
+      Assert.notNull(entities, "entities can't be null!");
+      if(entities.isEmpty()){
+         return Collections.emptyMap();
+      }
+      // Bulk writes do not publish BeforeConvertEvent: ids are set right here.
+      for (BankSlip entity : entities) {
+         if (entity.isNew()) {
+            entity.setId(idGenerator.generate());
+         }
+      }
+      BulkOperations bulk = operations
+         .bulkOps(BulkOperations.BulkMode.UNORDERED, BankSlip.class);
+      bulk.insert(entities);
+      Map<Integer, String> failures = new HashMap<>();
+      try {
+         bulk.execute();
+      } catch (BulkOperationException e) {
+         e.getErrors().forEach(error ->
+            failures.put(error.getIndex(), error.getMessage()));
+      }
+      List<BankSlip> created = new ArrayList<>();
+      for (int i = 0; i < entities.size(); i++) {
+         if(!failures.containsKey(i)){
+            created.add(entities.get(i));
+         }
+      }
+      summary.created(created);
+      return failures;
+   }
+   
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public BankSlipTransitionEnum updateStatus(UUID id,
+                                             BankSlipStatusEnum status) {
+      Assert.notNull(id, "id can't be null!");
+      Assert.notNull(status, "status can't be null!");
+      if(settle(pendingById(id), id, status)){
+         return BankSlipTransitionEnum.of(status);
+      }
+      return toOutcome(status,
+         findAllStatus(Collections.singletonMap(id, status)).get(id));
+   }
+   
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public BankSlipTransitionEnum updateStatus(UUID id,
+                                             BankSlipStatusEnum status,
+                                             long version) {
+      Assert.notNull(id, "id can't be null!");
+      Assert.notNull(status, "status can't be null!");
+      Assert.isTrue(version >= 0, "version can't be negative!");
+      Query query = pendingById(id).addCriteria(atVersion(version));
+      if(settle(query, id, status)){
+         return BankSlipTransitionEnum.of(status);
+      }
+      BankSlipStatusEnum current =
+         findAllStatus(Collections.singletonMap(id, status)).get(id);
+      if(BankSlipStatusEnum.PENDING.equals(current)){
+         throw new OptimisticLockingFailureException("Bank slip " + id
+            + " is not at version " + version + " anymore");
+      }
+      return toOutcome(status, current);
+   }
+   
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public Map<UUID, BankSlipTransitionEnum> updateAllStatusUnordered(
+      Map<UUID, BankSlipStatusEnum> statuses) {
+      Assert.notNull(statuses, "statuses can't be null!");
+      Map<UUID, BankSlipTransitionEnum> outcomes = new LinkedHashMap<>();
+      if(statuses.isEmpty()){
+         return outcomes;
+      }
+      ObjectId settlement = new ObjectId();
+      BulkOperations bulk = operations
+         .bulkOps(BulkOperations.BulkMode.UNORDERED, BankSlip.class);
+      List<UUID> ids = new ArrayList<>(statuses.keySet());
+      ids.forEach(id -> bulk.updateOne(pendingById(id),
+         settle(statuses.get(id)).set(SETTLEMENT, settlement)));
+      int matched;
+      Set<UUID> failed = new HashSet<>();
+      try {
+         matched = bulk.execute().getMatchedCount();
+      } catch (BulkOperationException e) {
+         // The other updates are committed anyway (unordered bulk write).
+         matched = e.getResult().getMatchedCount();
+         e.getErrors().forEach(error -> {
+            UUID id = ids.get(error.getIndex());
+            LOGGER.warn("Could not change status of bank slip {}: {}", id,
+               error.getMessage());
+            failed.add(id);
+         });
+      }
+      if(matched > 0){
+         summary.settled(statuses.keySet(), settlement);
+      }
+      if(matched == statuses.size()){
+         statuses.forEach((id, status) ->
+            outcomes.put(id, BankSlipTransitionEnum.of(status)));
+      } else {
+         Map<UUID, BankSlipStatusEnum> current = findAllStatus(statuses);
+         statuses.forEach((id, status) -> outcomes.put(id, failed.contains(id)
+            ? BankSlipTransitionEnum.FAILED
+            : toOutcome(status, current.get(id))));
+      }
+      return outcomes;
+   }
+   
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public List<BankSlip> findAllFiltered(BankSlipFilter filter) {
+      Assert.notNull(filter, "filter can't be null!");
+      return operations.find(filter.toQuery(), BankSlip.class);
+   }
+   
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public List<BankSlip> findPageFiltered(BankSlipFilter filter, Date dueDate,
+                                          UUID id, int limit) {
+      Assert.notNull(filter, "filter can't be null!");
+      Query query = null == dueDate
+         ? filter.toQuery() : filter.toQuery(dueDate, id);
+      return operations.find(query.limit(limit), BankSlip.class);
+   }
+   
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public Stream<BankSlip> streamAllFiltered(BankSlipFilter filter) {
+      Assert.notNull(filter, "filter can't be null!");
+      return StreamUtils.createStreamFromIterator(
+         operations.stream(filter.toQuery(), BankSlip.class));
+   }
+   
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public List<BankSlipProjection> findAllProjected(
+      BankSlipFilter filter, Collection<String> properties) {
+      Assert.notNull(filter, "filter can't be null!");
+      Assert.notEmpty(properties, "properties can't be empty!");
+      Query query = filter.toQuery();
+      properties.forEach(query.fields()::include);
+      if(!properties.contains(ID_PROPERTY)){
+         query.fields().exclude(ID);
+      }
+      return operations.find(query, BankSlipProjection.class,
+         operations.getCollectionName(BankSlip.class));
+   }
+   
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public List<BankSlipTotals> aggregateTotals(
+      BankSlipFilter filter, Collection<BankSlipTotalsGroupEnum> groups,
+      List<BankSlipFineRate> rates) {
+      Assert.notNull(filter, "filter can't be null!");
+      Assert.notNull(groups, "groups can't be null!");
+      Assert.notNull(rates, "rates can't be null!");
+      Document match = new QueryMapper(operations.getConverter())
+         .getMappedObject(filter.toQuery().getQueryObject(),
+            operations.getConverter().getMappingContext()
+               .getRequiredPersistentEntity(BankSlip.class));
+      List<AggregationOperation> stages =
+         BankSlipTotalsPipeline.build(match, groups, rates).stream()
+            .map(stage -> (AggregationOperation) context -> stage)
+            .collect(Collectors.toList());
+      Aggregation aggregation = Aggregation.newAggregation(stages)
+         .withOptions(Aggregation.newAggregationOptions()
+            .allowDiskUse(true).build());
+      return operations.aggregate(aggregation,
+         operations.getCollectionName(BankSlip.class), Document.class)
+         .getMappedResults().stream()
+         .map(BankSlipTotalsPipeline::toTotals)
+         .collect(Collectors.toList());
+   }
+   
+   /**
+    * Builds a query that matches a bank slip only while it's pending.
+    * @param id Bank slip identifier.
+    * @return Query.
+    */
+   static Query pendingById(UUID id) {
+      return Query.query(Criteria.where(ID).is(id)
+         .and(STATUS).is(BankSlipStatusEnum.PENDING));
+   }
+   
+   /**
+    * Builds the update that settles a pending bank slip: its status changes,
+    * its stored fine (see {@link BankSlipFineMaterializer}) is removed and its
+    * version is incremented.
+    * @param status New status (PAID or CANCELED).
+    * @return Update.
+    */
+   static Update settle(BankSlipStatusEnum status) {
+      return Update.update(STATUS, status)
+         .unset(BankSlipFineMaterializer.FINE)
+         .unset(BankSlipFineMaterializer.FINE_RATE)
+         .inc(VERSION, 1);
+   }
+   
+   /**
+    * Builds the criteria of the bank slips changed by a settlement (see
+    * {@link #SETTLEMENT}).
+    * @param ids Ids of the bank slips of the settlement.
+    * @param settlement Settlement id.
+    * @return Criteria.
+    */
+   static Criteria settledBy(Collection<UUID> ids, ObjectId settlement) {
+      return Criteria.where(ID).in(ids).and(SETTLEMENT).is(settlement);
+   }
+   
+   /**
+    * Builds the criteria of a bank slip at a given version. Bank slips without
+    * a version (see {@link BankSlip#getVersion()}) are at version 0.
+    * @param version Version.
+    * @return Criteria.
+    */
+   static Criteria atVersion(long version) {
+      if(0 == version){
+         return Criteria.where(VERSION).in(0L, null);
+      }
+      return Criteria.where(VERSION).is(version);
+   }
+   
+   /**
+    * Settles the pending bank slip selected by a query, with one atomic
+    * conditional update, and moves its counters in the bank slip summary.
+    * @param query Query selecting the pending bank slip.
+    * @param id Bank slip identifier.
+    * @param status New status (PAID or CANCELED).
+    * @return true if it was settled, or false if the query selected nothing.
+    */
+   private boolean settle(Query query, UUID id, BankSlipStatusEnum status) {
+      query.fields().include(CUSTOMER).include(TOTAL_IN_CENTS);
+      BankSlipProjection pending = operations.findAndModify(query,
+         settle(status), FindAndModifyOptions.options(),
+         BankSlipProjection.class, operations.getCollectionName(BankSlip.class));
+      if(null == pending){
+         return false;
+      }
+      summary.transitioned(Collections.singletonList(pending),
+         Collections.singletonMap(id, status));
+      return true;
+   }
+   
+   /**
+    * Finds the current status of the given bank slips (status only).
+    * @param statuses Bank slips ids.
+    * @return Current status of each bank slip found, by id.
+    */
+   private Map<UUID, BankSlipStatusEnum> findAllStatus(
+      Map<UUID, BankSlipStatusEnum> statuses) {
+      Query query = Query.query(Criteria.where(ID).in(statuses.keySet()));
+      query.fields().include(STATUS);
+      Map<UUID, BankSlipStatusEnum> current = new HashMap<>();
+      operations.find(query, Document.class,
+         operations.getCollectionName(BankSlip.class))
+         .forEach(document -> current.put(document.get(ID, UUID.class),
+            BankSlipStatusEnum.valueOf(document.getString(STATUS))));
+      return current;
+   }
+   
+   /**
+    * Gets the outcome of a status change given the status found afterwards.
+    * @param requested Requested status.
+    * @param current Current status (null if the bank slip doesn't exist).
+    * @return Outcome of the status change.
+    */
+   private BankSlipTransitionEnum toOutcome(BankSlipStatusEnum requested,
+                                            BankSlipStatusEnum current) {
+      if(null == current){
+         return BankSlipTransitionEnum.NOT_FOUND;
+      } else if(requested.equals(current)){
+         return BankSlipTransitionEnum.of(requested);
+      }
+      return BankSlipTransitionEnum.ALREADY_SETTLED;
+   }
+}
@@ -0,0 +1,141 @@
+package br.com.acmattos.bankslip.data;
+
+import org.bson.BsonBinarySubType;
+import org.bson.types.Binary;
+import org.bson.types.Decimal128;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converters of the compact storage format (bankslip.storage.format=compact):
+ * ids are stored as standard binary UUIDs (subtype 4), amounts as Decimal128
+ * and dates as UTC epoch days (Int32).
+ *
+ * Documents stored in the legacy format (legacy binary UUIDs, string amounts
+ * and dates) are still read, so they can be migrated (see
+ * {@link BankSlipStorageMigration}), but queries encode their values in the
+ * compact format and don't match them: legacy documents must be migrated
+ * before requests are served.
+ *
+ * Converters are registered by type, so every UUID, Date and BigDecimal of a
+ * mapped type is converted: bank slips (and their projections) are the only
+ * mapped documents, the other collections (e.g. summary counters and
+ * idempotency keys) are written as driver documents.
+ *
+ * @author acmattos
+ */
+public final class BankSlipStorageConverters {
+   private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+   private static final int UUID_LENGTH = 16;
+
+   private BankSlipStorageConverters() {}
+
+   /**
+    * Gets all converters of the compact storage format, to be registered with
+    * MongoCustomConversions.
+    * @return Converters to register.
+    */
+   public static List<Converter<?, ?>> getConvertersToRegister() {
+      return Arrays.asList(
+         UuidToBinaryConverter.INSTANCE,
+         BigDecimalToDecimal128Converter.INSTANCE,
+         Decimal128ToBigDecimalConverter.INSTANCE,
+         DateToEpochDayConverter.INSTANCE,
+         EpochDayToDateConverter.INSTANCE);
+   }
+
+   /**
+    * Encodes an UUID the way the driver's legacy (Java) representation does:
+    * binary subtype 3, with the bytes of each half reversed.
+    * @param uuid UUID.
+    * @return Legacy binary UUID.
+    */
+   static Binary toLegacyBinary(UUID uuid) {
+      ByteBuffer buffer = ByteBuffer.allocate(UUID_LENGTH)
+         .putLong(Long.reverseBytes(uuid.getMostSignificantBits()))
+         .putLong(Long.reverseBytes(uuid.getLeastSignificantBits()));
+      return new Binary(BsonBinarySubType.UUID_LEGACY, buffer.array());
+   }
+
+   /**
+    * Writes UUIDs as standard binary UUIDs (subtype 4): big endian bytes, so
+    * time-ordered ids are also ordered in the index. They're read back as
+    * UUIDs by the driver.
+    */
+   @WritingConverter
+   enum UuidToBinaryConverter implements Converter<UUID, Binary> {
+      INSTANCE;
+
+      @Override
+      public Binary convert(UUID source) {
+         ByteBuffer buffer = ByteBuffer.allocate(UUID_LENGTH)
+            .putLong(source.getMostSignificantBits())
+            .putLong(source.getLeastSignificantBits());
+         return new Binary(BsonBinarySubType.UUID_STANDARD, buffer.array());
+      }
+   }
+
+   /**
+    * Writes amounts as Decimal128 (numeric, so range queries and sorting work).
+    */
+   @WritingConverter
+   enum BigDecimalToDecimal128Converter
+      implements Converter<BigDecimal, Decimal128> {
+      INSTANCE;
+
+      @Override
+      public Decimal128 convert(BigDecimal source) {
+         return new Decimal128(source);
+      }
+   }
+
+   /**
+    * Reads Decimal128 amounts.
+    */
+   @ReadingConverter
+   enum Decimal128ToBigDecimalConverter
+      implements Converter<Decimal128, BigDecimal> {
+      INSTANCE;
+
+      @Override
+      public BigDecimal convert(Decimal128 source) {
+         return source.bigDecimalValue();
+      }
+   }
+
+   /**
+    * Writes dates as UTC epoch days (due dates have no time of day).
+    */
+   @WritingConverter
+   enum DateToEpochDayConverter implements Converter<Date, Integer> {
+      INSTANCE;
+
+      @Override
+      public Integer convert(Date source) {
+         return Math.toIntExact(
+            Math.floorDiv(source.getTime(), MILLIS_PER_DAY));
+      }
+   }
+
+   /**
+    * Reads dates stored as UTC epoch days.
+    */
+   @ReadingConverter
+   enum EpochDayToDateConverter implements Converter<Integer, Date> {
+      INSTANCE;
+
+      @Override
+      public Date convert(Integer source) {
+         return new Date(source * MILLIS_PER_DAY);
+      }
+   }
+}
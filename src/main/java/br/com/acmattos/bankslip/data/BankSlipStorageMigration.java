@@ -0,0 +1,122 @@
+package br.com.acmattos.bankslip.data;
+
+import com.mongodb.BulkWriteError;
+import com.mongodb.client.result.DeleteResult;
+import org.bson.types.Binary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.Assert;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Migrates bank slips stored in the legacy format (legacy binary UUIDs,
+ * string amounts and dates) to the compact storage format.
+ *
+ * Must run with the compact storage format converters registered (see
+ * {@link BankSlipStorageConverters}), before requests are served: queries
+ * only match compact documents. An _id can't be changed in place, so every
+ * chunk of legacy documents is inserted again in the compact format (one
+ * unordered bulk write) and only then removed. Migration can be stopped and
+ * run again at any time.
+ *
+ * @author acmattos
+ */
+public class BankSlipStorageMigration {
+   private static final Logger LOGGER =
+      LoggerFactory.getLogger(BankSlipStorageMigration.class);
+   private static final String ID = "_id";
+   private static final String DUE_DATE = "dueDate";
+   private static final String TOTAL_IN_CENTS = "totalInCents";
+   private static final int BSON_STRING = 2;
+   private static final int BSON_DATE = 9;
+   private static final int DUPLICATE_KEY = 11000;
+
+   private final MongoOperations operations;
+   private final int chunkSize;
+
+   /**
+    * Builds an instance of this class.
+    * @param operations MongoDB operations (compact storage format).
+    * @param chunkSize Number of bank slips migrated by each bulk write.
+    */
+   public BankSlipStorageMigration(MongoOperations operations, int chunkSize) {
+      Assert.notNull(operations, "operations can't be null!");
+      Assert.isTrue(chunkSize > 0, "chunkSize must be positive!");
+      this.operations = operations;
+      this.chunkSize = chunkSize;
+   }
+
+   /**
+    * Migrates all bank slips stored in the legacy format.
+    * @return Number of bank slips migrated.
+    */
+   public long migrate() {
+      Query legacy = legacy().limit(this.chunkSize);
+      long migrated = 0;
+      List<BankSlip> chunk = operations.find(legacy, BankSlip.class);
+      while (!chunk.isEmpty()) {
+         migrated += migrateChunk(chunk);
+         LOGGER.info("Bank slips migrated to compact storage: {}", migrated);
+         chunk = operations.find(legacy, BankSlip.class);
+      }
+      return migrated;
+   }
+
+   /**
+    * Verifies if any bank slip is still stored in the legacy format. Legacy
+    * documents have BSON date due dates, so the due date index finds them.
+    * @return true if there is a legacy document, or false otherwise.
+    */
+   public boolean hasLegacyDocuments() {
+      return operations.exists(Query.query(Criteria.where(DUE_DATE)
+         .type(BSON_DATE)), BankSlip.class);
+   }
+
+   /**
+    * Builds the query of bank slips stored in the legacy format.
+    * @return Query.
+    */
+   private Query legacy() {
+      return new Query(new Criteria().orOperator(
+         Criteria.where(TOTAL_IN_CENTS).type(BSON_STRING),
+         Criteria.where(DUE_DATE).type(BSON_DATE)));
+   }
+
+   /**
+    * Inserts a chunk of bank slips in the compact format, then removes their
+    * legacy documents.
+    * @param chunk Bank slips read from legacy documents.
+    * @return Number of bank slips migrated.
+    */
+   private long migrateChunk(List<BankSlip> chunk) {
+      BulkOperations bulk = operations
+         .bulkOps(BulkOperations.BulkMode.UNORDERED, BankSlip.class);
+      bulk.insert(chunk);
+      try {
+         bulk.execute();
+      } catch (BulkOperationException e) {
+         // Duplicates were inserted by an interrupted run: they are kept.
+         for (BulkWriteError error : e.getErrors()) {
+            if (DUPLICATE_KEY != error.getCode()) {
+               throw e;
+            }
+         }
+      }
+      List<Binary> legacyIds = chunk.stream()
+         .map(entity ->
+            BankSlipStorageConverters.toLegacyBinary(entity.getId()))
+         .collect(Collectors.toList());
+      DeleteResult result = operations.remove(
+         Query.query(Criteria.where(ID).in(legacyIds)), BankSlip.class);
+      Assert.state(result.getDeletedCount() > 0,
+         "Legacy bank slips could not be removed: migration stopped!");
+      return result.getDeletedCount();
+   }
+}
@@ -0,0 +1,31 @@
+package br.com.acmattos.bankslip.data;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+/**
+ * Number of bank slips of a customer with some status and the sum of their
+ * totals in cents, as kept by {@link BankSlipSummaryCounters}.
+ * @author acmattos
+ */
+@ToString
+@EqualsAndHashCode
+@Getter
+@Builder
+public class BankSlipSummary {
+   /** Customer's name of the bank slips. */
+   private final String customer;
+   
+   /** Status of the bank slips. */
+   private final BankSlipStatusEnum status;
+   
+   /** Number of bank slips. */
+   private final long count;
+   
+   /** Sum of the totals in cents of the bank slips. */
+   private final BigDecimal totalInCents;
+}
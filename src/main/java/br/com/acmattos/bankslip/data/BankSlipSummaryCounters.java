@@ -0,0 +1,297 @@
+package br.com.acmattos.bankslip.data;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Summary of bank slips per customer and status (counts and sums of totals in
+ * cents), kept in its own collection and maintained on write: creating,
+ * paying or canceling bank slips increments ($inc) the counters they affect,
+ * so the summary is read with a few index lookups instead of being aggregated
+ * from every bank slip.
+ *
+ * Counters are incremented right after bank slips are written (not in the
+ * same transaction), so they may drift (e.g. a failure in between).
+ * Reconciling recomputes the whole summary from the bank slips: every night
+ * (bankslip.summary.reconcile-cron) or on demand through JMX.
+ *
+ * @author acmattos
+ */
+@Component
+@ManagedResource(
+   objectName = "br.com.acmattos.bankslip:type=BankSlipSummaryCounters",
+   description = "Bank slip summary per customer and status")
+public class BankSlipSummaryCounters {
+   private static final Logger LOGGER =
+      LoggerFactory.getLogger(BankSlipSummaryCounters.class);
+   /** Collection of the summary. */
+   static final String COLLECTION = "bankslip_summary";
+   private static final String ID = "_id";
+   private static final String CUSTOMER = "customer";
+   private static final String STATUS = "status";
+   private static final String COUNT = "count";
+   private static final String TOTAL_IN_CENTS = "total_in_cents";
+   
+   private final MongoOperations operations;
+   
+   /**
+    * Builds an instance of this class.
+    * @param operations MongoDB operations.
+    */
+   public BankSlipSummaryCounters(MongoOperations operations) {
+      Assert.notNull(operations, "operations can't be null!");
+      this.operations = operations;
+   }
+   
+   /**
+    * Counts bank slips that were just created.
+    * @param entities Bank slips created.
+    */
+   public void created(Collection<BankSlip> entities) {
+      Assert.notNull(entities, "entities can't be null!");
+      Map<Document, BankSlipSummary> deltas = new LinkedHashMap<>();
+      entities.forEach(entity -> add(deltas, entity.getCustomer(),
+         entity.getStatus(), 1L, entity.getTotalInCents()));
+      increment(deltas);
+   }
+   
+   /**
+    * Moves pending bank slips that were just paid or canceled from the
+    * pending counters to the counters of their new status.
+    * @param pending Bank slips as they were while pending (id, customer and
+    *                total in cents).
+    * @param statuses New status of each bank slip, by id.
+    */
+   public void transitioned(Collection<BankSlipProjection> pending,
+                            Map<UUID, BankSlipStatusEnum> statuses) {
+      Assert.notNull(pending, "pending can't be null!");
+      Assert.notNull(statuses, "statuses can't be null!");
+      Map<Document, BankSlipSummary> deltas = new LinkedHashMap<>();
+      for (BankSlipProjection previous : pending) {
+         add(deltas, previous.getCustomer(), BankSlipStatusEnum.PENDING, -1L,
+            previous.getTotalInCents().negate());
+         add(deltas, previous.getCustomer(), statuses.get(previous.getId()),
+            1L, previous.getTotalInCents());
+      }
+      increment(deltas);
+   }
+   
+   /**
+    * Moves the bank slips of a settlement (one bulk status change, see
+    * {@link BankSlipRepositoryImpl#SETTLEMENT}) from the pending counters to
+    * the counters of their new status. The database aggregates only the bank
+    * slips that the settlement actually changed (by customer and new status),
+    * so bank slips settled concurrently by others aren't moved twice. Their
+    * settlement id is removed afterwards (one more round-trip), as it's only
+    * needed until they're counted.
+    * @param ids Ids of the bank slips of the settlement.
+    * @param settlement Settlement id.
+    */
+   public void settled(Collection<UUID> ids, ObjectId settlement) {
+      Assert.notNull(ids, "ids can't be null!");
+      Assert.notNull(settlement, "settlement can't be null!");
+      Map<Document, BankSlipSummary> deltas = new LinkedHashMap<>();
+      try {
+         operations.aggregate(Aggregation.newAggregation(BankSlip.class,
+               Aggregation.match(
+                  BankSlipRepositoryImpl.settledBy(ids, settlement)),
+               groupByCustomerAndStatus()),
+            operations.getCollectionName(BankSlip.class), Document.class)
+            .forEach(document -> {
+               BankSlipSummary settled = toSummary(document);
+               add(deltas, settled.getCustomer(), BankSlipStatusEnum.PENDING,
+                  -settled.getCount(), settled.getTotalInCents().negate());
+               add(deltas, settled.getCustomer(), settled.getStatus(),
+                  settled.getCount(), settled.getTotalInCents());
+            });
+      } catch (DataAccessException e) {
+         LOGGER.error("Could not update bank slip summary (it's fixed when "
+            + "reconciled): {}", e.getMessage(), e);
+         deltas.clear();
+      }
+      increment(deltas);
+      untag(ids, settlement);
+   }
+   
+   /**
+    * Finds the summary of a customer (index lookups by id) or of all
+    * customers, ordered by customer and status.
+    * @param customer Customer's name (null if all customers).
+    * @return Summary of each status of the customers (empty counters are
+    *         left out).
+    */
+   public List<BankSlipSummary> findAll(String customer) {
+      Query query = new Query();
+      if(null != customer){
+         List<Document> ids = Arrays.stream(BankSlipStatusEnum.values())
+            .map(status -> toId(customer, status))
+            .collect(Collectors.toList());
+         query.addCriteria(Criteria.where(ID).in(ids));
+      }
+      query.with(Sort.by(ID));
+      return operations.find(query, Document.class, COLLECTION).stream()
+         .map(this::toSummary)
+         .filter(summary -> summary.getCount() > 0)
+         .collect(Collectors.toList());
+   }
+   
+   /**
+    * Recomputes the whole summary from the bank slips, replacing it at once
+    * ($out). Counters incremented while it runs may be lost or counted twice
+    * until the next reconciliation.
+    */
+   @Scheduled(cron = "${bankslip.summary.reconcile-cron:0 30 0 * * *}")
+   @ManagedOperation(description = "Recomputes the summary from bank slips")
+   public void reconcile() {
+      List<AggregationOperation> stages = new ArrayList<>();
+      stages.add(groupByCustomerAndStatus());
+      stages.add(Aggregation.out(COLLECTION));
+      operations.aggregate(Aggregation.newAggregation(stages)
+            .withOptions(Aggregation.newAggregationOptions()
+               .allowDiskUse(true).build()),
+         operations.getCollectionName(BankSlip.class), Document.class);
+      LOGGER.info("Bank slip summary reconciled: {} counters",
+         operations.getCollection(COLLECTION).count());
+   }
+   
+   /**
+    * Builds the stage that groups bank slips into counters: by customer and
+    * status, counting them and summing their totals in cents ($toDecimal,
+    * MongoDB 4.0+).
+    * @return Group stage.
+    */
+   private AggregationOperation groupByCustomerAndStatus() {
+      return context -> new Document("$group", new Document()
+         .append(ID, new Document(CUSTOMER, "$" + CUSTOMER)
+            .append(STATUS, "$" + STATUS))
+         .append(COUNT, new Document("$sum", 1L))
+         .append(TOTAL_IN_CENTS, new Document("$sum",
+            new Document("$toDecimal", "$" + TOTAL_IN_CENTS))));
+   }
+   
+   /**
+    * Adds a change of a counter to the changes to be made, merging it with
+    * other changes of the same counter.
+    * @param deltas Changes of each counter, by id.
+    * @param customer Customer's name.
+    * @param status Status.
+    * @param count Change of the number of bank slips.
+    * @param totalInCents Change of the sum of totals in cents.
+    */
+   private void add(Map<Document, BankSlipSummary> deltas, String customer,
+                    BankSlipStatusEnum status, long count,
+                    BigDecimal totalInCents) {
+      deltas.merge(toId(customer, status), BankSlipSummary.builder()
+         .customer(customer)
+         .status(status)
+         .count(count)
+         .totalInCents(totalInCents)
+         .build(), (a, b) -> BankSlipSummary.builder()
+            .customer(customer)
+            .status(status)
+            .count(a.getCount() + b.getCount())
+            .totalInCents(a.getTotalInCents().add(b.getTotalInCents()))
+            .build());
+   }
+   
+   /**
+    * Increments counters with one unordered bulk write of upserts (a single
+    * round-trip). A failure is only logged: bank slips were already written,
+    * and the drift is fixed when the summary is reconciled.
+    * @param deltas Changes of each counter, by id.
+    */
+   private void increment(Map<Document, BankSlipSummary> deltas) {
+      deltas.values().removeIf(delta -> 0L == delta.getCount()
+         && 0 == delta.getTotalInCents().signum());
+      if(deltas.isEmpty()){
+         return;
+      }
+      try {
+         BulkOperations bulk = operations
+            .bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+         deltas.forEach((id, delta) -> bulk.upsert(
+            Query.query(Criteria.where(ID).is(id)),
+            Update.fromDocument(new Document("$inc", new Document()
+               .append(COUNT, delta.getCount())
+               .append(TOTAL_IN_CENTS,
+                  new Decimal128(delta.getTotalInCents()))))));
+         bulk.execute();
+      } catch (DataAccessException e) {
+         LOGGER.error("Could not update bank slip summary (it's fixed when "
+            + "reconciled): {}", e.getMessage(), e);
+      }
+   }
+   
+   /**
+    * Removes the settlement id from the bank slips it changed. A failure is
+    * only logged: a settlement id left behind is never read again.
+    * @param ids Ids of the bank slips of the settlement.
+    * @param settlement Settlement id.
+    */
+   private void untag(Collection<UUID> ids, ObjectId settlement) {
+      try {
+         operations.updateMulti(
+            Query.query(BankSlipRepositoryImpl.settledBy(ids, settlement)),
+            new Update().unset(BankSlipRepositoryImpl.SETTLEMENT),
+            BankSlip.class);
+      } catch (DataAccessException e) {
+         LOGGER.warn("Could not remove settlement {} from bank slips: {}",
+            settlement, e.getMessage());
+      }
+   }
+   
+   /**
+    * Builds the id of a counter.
+    * @param customer Customer's name.
+    * @param status Status.
+    * @return Counter id.
+    */
+   private Document toId(String customer, BankSlipStatusEnum status) {
+      return new Document(CUSTOMER, customer).append(STATUS, status.name());
+   }
+   
+   /**
+    * Converts a counter document into a summary.
+    * @param document Counter document.
+    * @return Summary.
+    */
+   private BankSlipSummary toSummary(Document document) {
+      Document id = document.get(ID, Document.class);
+      Object total = document.get(TOTAL_IN_CENTS);
+      return BankSlipSummary.builder()
+         .customer(id.getString(CUSTOMER))
+         .status(BankSlipStatusEnum.valueOf(id.getString(STATUS)))
+         .count(((Number) document.get(COUNT)).longValue())
+         .totalInCents(total instanceof Decimal128
+            ? ((Decimal128) total).bigDecimalValue()
+            : new BigDecimal(String.valueOf(total)))
+         .build();
+   }
+}
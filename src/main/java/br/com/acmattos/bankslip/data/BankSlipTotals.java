@@ -0,0 +1,37 @@
+package br.com.acmattos.bankslip.data;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+/**
+ * Totals of a group of bank slips, aggregated by the database. Keys of groups
+ * that were not requested are null.
+ * @author acmattos
+ */
+@ToString
+@EqualsAndHashCode
+@Getter
+@Builder
+public class BankSlipTotals {
+   /** Status of the bank slips (STATUS group). */
+   private final BankSlipStatusEnum status;
+   
+   /** Customer's name of the bank slips (CUSTOMER group). */
+   private final String customer;
+   
+   /** Due month of the bank slips, yyyy-MM (DUE_MONTH group). */
+   private final String dueMonth;
+   
+   /** Number of bank slips. */
+   private final long count;
+   
+   /** Sum of the totals in cents of the bank slips. */
+   private final BigDecimal totalInCents;
+   
+   /** Sum of the fines projected for the bank slips (today). */
+   private final BigDecimal fine;
+}
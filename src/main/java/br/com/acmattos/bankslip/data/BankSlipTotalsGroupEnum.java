@@ -0,0 +1,44 @@
+package br.com.acmattos.bankslip.data;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Possible groups of bank slip totals.
+ * @author acmattos
+ */
+public enum BankSlipTotalsGroupEnum {
+   STATUS("status"),
+   CUSTOMER("customer"),
+   DUE_MONTH("dueMonth");
+   
+   /** Key of this group (in requests and totals). */
+   private final String key;
+   
+   /**
+    * Builds a group.
+    * @param key Key of this group.
+    */
+   BankSlipTotalsGroupEnum(String key) {
+      this.key = key;
+   }
+   
+   /**
+    * Gets the key of this group.
+    * @return Key of this group.
+    */
+   public String getKey() {
+      return key;
+   }
+   
+   /**
+    * Finds the group of a key.
+    * @param key Key of a group.
+    * @return The group, or empty if there's no group with such key.
+    */
+   public static Optional<BankSlipTotalsGroupEnum> of(String key) {
+      return Arrays.stream(values())
+         .filter(group -> group.key.equals(key))
+         .findFirst();
+   }
+}
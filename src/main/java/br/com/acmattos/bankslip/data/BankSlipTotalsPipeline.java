@@ -0,0 +1,226 @@
+package br.com.acmattos.bankslip.data;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregation pipeline of bank slip totals: counts, sums of totals in cents
+ * and projected fines, grouped by status, customer and/or due month.
+ *
+ * Documents of both storage formats are aggregated (see
+ * {@link BankSlipStorageConverters}): due dates are read as dates or epoch
+ * days and amounts are converted to Decimal128 ($toDecimal, MongoDB 4.0+).
+ * Fines follow the fine rates by due date and are rounded HALF_EVEN per bank
+ * slip, just like fines calculated by the application.
+ *
+ * @author acmattos
+ */
+final class BankSlipTotalsPipeline {
+   private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+   private static final String ID = "_id";
+   private static final String STATUS = "status";
+   private static final String CUSTOMER = "customer";
+   private static final String DUE_DATE = "dueDate";
+   private static final String TOTAL = "total";
+   private static final String FINE = "fine";
+   private static final String COUNT = "count";
+   private static final String TOTAL_IN_CENTS = "totalInCents";
+   private static final String DUE_MONTH_FORMAT = "%Y-%m";
+   private static final Decimal128 ZERO = new Decimal128(BigDecimal.ZERO);
+   private static final Decimal128 ONE = new Decimal128(BigDecimal.ONE);
+   private static final Decimal128 HALF = new Decimal128(new BigDecimal("0.5"));
+   private static final Decimal128 TWO = new Decimal128(new BigDecimal("2"));
+   
+   private BankSlipTotalsPipeline() {}
+   
+   /**
+    * Builds the pipeline.
+    * @param match Mapped query of the bank slips to aggregate (empty if all).
+    * @param groups Groups of totals (grand totals if empty).
+    * @param rates Fine rates by due date range.
+    * @return Pipeline stages.
+    */
+   static List<Document> build(Document match,
+                               Collection<BankSlipTotalsGroupEnum> groups,
+                               List<BankSlipFineRate> rates) {
+      List<Document> pipeline = new ArrayList<>();
+      if(!match.isEmpty()){
+         pipeline.add(new Document("$match", match));
+      }
+      pipeline.add(new Document("$project", new Document()
+         .append(STATUS, 1)
+         .append(CUSTOMER, 1)
+         .append(DUE_DATE, dueDate())
+         .append(TOTAL, new Document("$toDecimal", "$total_in_cents"))));
+      pipeline.add(new Document("$project", new Document()
+         .append(STATUS, 1)
+         .append(CUSTOMER, 1)
+         .append(DUE_DATE, 1)
+         .append(TOTAL, 1)
+         .append(FINE, cond(
+            new Document("$eq", Arrays.asList(
+               "$" + STATUS, BankSlipStatusEnum.PENDING.name())),
+            roundHalfEven(new Document("$multiply",
+               Arrays.asList("$" + TOTAL, rate(rates)))),
+            ZERO))));
+      pipeline.add(new Document("$group", new Document()
+         .append(ID, groupId(groups))
+         .append(COUNT, new Document("$sum", 1))
+         .append(TOTAL_IN_CENTS, new Document("$sum", "$" + TOTAL))
+         .append(FINE, new Document("$sum", "$" + FINE))));
+      pipeline.add(new Document("$sort", new Document(ID, 1)));
+      return pipeline;
+   }
+   
+   /**
+    * Converts a result document into totals.
+    * @param document Result document.
+    * @return Totals.
+    */
+   static BankSlipTotals toTotals(Document document) {
+      Document id = document.get(ID, Document.class);
+      Document keys = null == id ? new Document() : id;
+      String status = keys.getString(STATUS);
+      return BankSlipTotals.builder()
+         .status(null == status ? null : BankSlipStatusEnum.valueOf(status))
+         .customer(keys.getString(CUSTOMER))
+         .dueMonth(keys.getString(BankSlipTotalsGroupEnum.DUE_MONTH.getKey()))
+         .count(((Number) document.get(COUNT)).longValue())
+         .totalInCents(toBigDecimal(document.get(TOTAL_IN_CENTS)))
+         .fine(toBigDecimal(document.get(FINE)))
+         .build();
+   }
+   
+   /**
+    * Due date as a date, whether it's stored as a date (legacy format) or
+    * as an epoch day (compact format).
+    * @return Due date expression.
+    */
+   private static Document dueDate() {
+      return cond(
+         new Document("$eq", Arrays.asList(
+            new Document("$type", "$due_date"), "date")),
+         "$due_date",
+         new Document("$add", Arrays.asList(new Date(0L),
+            new Document("$multiply",
+               Arrays.asList("$due_date", MILLIS_PER_DAY)))));
+   }
+   
+   /**
+    * Fine rate of a bank slip, given its due date.
+    * @param rates Fine rates by due date range.
+    * @return Fine rate expression.
+    */
+   private static Object rate(List<BankSlipFineRate> rates) {
+      if(rates.isEmpty()){
+         return ZERO;
+      }
+      List<Document> branches = new ArrayList<>();
+      for (BankSlipFineRate rate : rates) {
+         List<Document> range = new ArrayList<>();
+         range.add(new Document("$lt",
+            Arrays.asList("$" + DUE_DATE, rate.getDueDateTo())));
+         if(null != rate.getDueDateFrom()){
+            range.add(new Document("$gte",
+               Arrays.asList("$" + DUE_DATE, rate.getDueDateFrom())));
+         }
+         branches.add(new Document("case", new Document("$and", range))
+            .append("then", new Decimal128(rate.getRate())));
+      }
+      return new Document("$switch",
+         new Document("branches", branches).append("default", ZERO));
+   }
+   
+   /**
+    * Rounds a non-negative amount to zero decimal places (HALF_EVEN).
+    * @param amount Amount expression.
+    * @return Rounded amount expression.
+    */
+   private static Document roundHalfEven(Document amount) {
+      Document fraction = new Document("$subtract",
+         Arrays.asList("$$amount", "$$floor"));
+      Document roundUp = new Document("$or", Arrays.asList(
+         new Document("$gt", Arrays.asList(fraction, HALF)),
+         new Document("$and", Arrays.asList(
+            new Document("$eq", Arrays.asList(fraction, HALF)),
+            new Document("$eq", Arrays.asList(
+               new Document("$mod", Arrays.asList("$$floor", TWO)), ONE))))));
+      return let("amount", amount,
+         let("floor", new Document("$floor", "$$amount"),
+            cond(roundUp,
+               new Document("$add", Arrays.asList("$$floor", ONE)),
+               "$$floor")));
+   }
+   
+   /**
+    * Group identifier of the given groups.
+    * @param groups Groups of totals.
+    * @return Group identifier (null for grand totals).
+    */
+   private static Document groupId(Collection<BankSlipTotalsGroupEnum> groups) {
+      if(groups.isEmpty()){
+         return null;
+      }
+      Document id = new Document();
+      for (BankSlipTotalsGroupEnum group : groups) {
+         switch (group) {
+            case STATUS:
+               id.append(STATUS, "$" + STATUS);
+               break;
+            case CUSTOMER:
+               id.append(CUSTOMER, "$" + CUSTOMER);
+               break;
+            default:
+               id.append(group.getKey(), new Document("$dateToString",
+                  new Document("format", DUE_MONTH_FORMAT)
+                     .append("date", "$" + DUE_DATE)));
+         }
+      }
+      return id;
+   }
+   
+   /**
+    * Builds a conditional expression.
+    * @param condition Condition.
+    * @param then Value if condition is true.
+    * @param otherwise Value if condition is false.
+    * @return Conditional expression.
+    */
+   private static Document cond(Object condition, Object then,
+                                Object otherwise) {
+      return new Document("$cond", Arrays.asList(condition, then, otherwise));
+   }
+   
+   /**
+    * Builds a variable binding expression.
+    * @param name Variable name.
+    * @param value Variable value.
+    * @param in Expression that uses the variable.
+    * @return Variable binding expression.
+    */
+   private static Document let(String name, Object value, Object in) {
+      return new Document("$let",
+         new Document("vars", new Document(name, value)).append("in", in));
+   }
+   
+   /**
+    * Converts a sum into a BigDecimal.
+    * @param sum Sum (Decimal128, or a number if nothing was summed).
+    * @return Sum as a BigDecimal.
+    */
+   private static BigDecimal toBigDecimal(Object sum) {
+      if(sum instanceof Decimal128){
+         return ((Decimal128) sum).bigDecimalValue();
+      }
+      return null == sum ? BigDecimal.ZERO
+         : new BigDecimal(sum.toString());
+   }
+}
@@ -0,0 +1,24 @@
+package br.com.acmattos.bankslip.data;
+
+/**
+ * Possible outcomes of a BankSlip status change.
+ * @author acmattos
+ */
+public enum BankSlipTransitionEnum {
+   PAID,
+   CANCELED,
+   NOT_FOUND,
+   ALREADY_SETTLED,
+   /** The status change failed (e.g. a write error in a bulk write). */
+   FAILED;
+
+   /**
+    * Gets the outcome of a bank slip that has (or already had) the given
+    * status.
+    * @param status Status of a bank slip (PAID or CANCELED).
+    * @return PAID or CANCELED.
+    */
+   static BankSlipTransitionEnum of(BankSlipStatusEnum status) {
+      return BankSlipStatusEnum.PAID.equals(status) ? PAID : CANCELED;
+   }
+}
@@ -4,8 +4,6 @@ import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventLis
 import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
 import org.springframework.stereotype.Component;
 
-import java.util.UUID;
-
 /**
  * BeforeConvert's BankSlip entity listener.
  * @author acmattos
@@ -13,6 +11,15 @@ import java.util.UUID;
 @Component
 class BankSlipUUIDGeneratorEventListener
    extends AbstractMongoEventListener<BankSlip> {
+   private final BankSlipIdGenerator idGenerator;
+   
+   /**
+    * Builds an instance of this class.
+    * @param idGenerator Bank slip identifier generator.
+    */
+   BankSlipUUIDGeneratorEventListener(BankSlipIdGenerator idGenerator) {
+      this.idGenerator = idGenerator;
+   }
    
    /**
     * Captures {@link  }, and sets an UUID for new entites.
@@ -22,7 +29,7 @@ class BankSlipUUIDGeneratorEventListener
    public void onBeforeConvert(BeforeConvertEvent<BankSlip> event) {
       BankSlip entity = event.getSource();
       if (entity.isNew()) {
-         entity.setId(UUID.randomUUID());
+         entity.setId(idGenerator.generate());
       }
    }
 }
\ No newline at end of file
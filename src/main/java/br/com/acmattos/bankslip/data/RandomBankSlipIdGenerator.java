@@ -0,0 +1,19 @@
+package br.com.acmattos.bankslip.data;
+
+import java.util.UUID;
+
+/**
+ * Generates random (version 4) bank slip identifiers, from a shared
+ * SecureRandom.
+ * @author acmattos
+ */
+public class RandomBankSlipIdGenerator implements BankSlipIdGenerator {
+   
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public UUID generate() {
+      return UUID.randomUUID();
+   }
+}
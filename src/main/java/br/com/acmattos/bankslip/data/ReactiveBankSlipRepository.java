@@ -0,0 +1,15 @@
+package br.com.acmattos.bankslip.data;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import java.util.UUID;
+
+/**
+ * Non-blocking Repository used to manipulate BankSlip Entities (reactive web
+ * application).
+ * @author acmattos
+ */
+public interface ReactiveBankSlipRepository
+   extends ReactiveMongoRepository<BankSlip, UUID>,
+           ReactiveBankSlipRepositoryCustom {
+}
@@ -0,0 +1,37 @@
+package br.com.acmattos.bankslip.data;
+
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Interface that exposes non-blocking Bank Slip repository features that
+ * can't be derived from query methods.
+ * @author acmattos
+ */
+public interface ReactiveBankSlipRepositoryCustom {
+   
+   /**
+    * Inserts a new bank slip and counts it in the bank slip summary (see
+    * {@link BankSlipSummaryCounters}).
+    *
+    * @param entity Bank slip to be inserted.
+    * @return Inserted bank slip (with its id).
+    */
+   Mono<BankSlip> create(BankSlip entity);
+   
+   /**
+    * Changes the status of a pending bank slip with one atomic conditional
+    * update. The bank slip, as it was while pending, moves its counters in the
+    * bank slip summary. Only when it was not changed, one more read finds out
+    * why.
+    * Changing a bank slip to the status it already has is reported as
+    * successful (repeating a status change is harmless).
+    *
+    * @param id Bank slip identifier.
+    * @param status New status (PAID or CANCELED).
+    * @return Outcome of the status change.
+    */
+   Mono<BankSlipTransitionEnum> updateStatus(UUID id,
+                                             BankSlipStatusEnum status);
+}
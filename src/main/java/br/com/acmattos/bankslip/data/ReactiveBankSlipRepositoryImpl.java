@@ -0,0 +1,100 @@
+package br.com.acmattos.bankslip.data;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Collections;
+import java.util.UUID;
+
+/**
+ * Implements non-blocking Bank Slip repository features that can't be derived
+ * from query methods.
+ *
+ * The bank slip summary (see {@link BankSlipSummaryCounters}) is blocking, so
+ * its counters are incremented on the elastic scheduler, never on the event
+ * loop.
+ *
+ * @author acmattos
+ */
+class ReactiveBankSlipRepositoryImpl
+   implements ReactiveBankSlipRepositoryCustom {
+   private static final String ID = "_id";
+   private static final String STATUS = "status";
+   private static final String CUSTOMER = "customer";
+   private static final String TOTAL_IN_CENTS = "totalInCents";
+   
+   private final ReactiveMongoOperations operations;
+   private final BankSlipSummaryCounters summary;
+   private final String collectionName;
+   
+   /**
+    * Builds an instance of this class.
+    * @param operations Reactive MongoDB operations.
+    * @param summary Bank slip summary per customer and status.
+    */
+   ReactiveBankSlipRepositoryImpl(ReactiveMongoOperations operations,
+                                  BankSlipSummaryCounters summary) {
+      this.operations = operations;
+      this.summary = summary;
+      this.collectionName = operations.getConverter().getMappingContext()
+         .getRequiredPersistentEntity(BankSlip.class).getCollection();
+   }
+   
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public Mono<BankSlip> create(BankSlip entity) {
+      Assert.notNull(entity, "entity can't be null!");
+      return operations.insert(entity)
+         .flatMap(created -> Mono.fromRunnable(() ->
+               summary.created(Collections.singletonList(created)))
+            .subscribeOn(Schedulers.elastic())
+            .then(Mono.just(created)));
+   }
+   
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public Mono<BankSlipTransitionEnum> updateStatus(UUID id,
+                                                    BankSlipStatusEnum status) {
+      Assert.notNull(id, "id can't be null!");
+      Assert.notNull(status, "status can't be null!");
+      Query pending = BankSlipRepositoryImpl.pendingById(id);
+      pending.fields().include(CUSTOMER).include(TOTAL_IN_CENTS);
+      return operations
+         .findAndModify(pending, BankSlipRepositoryImpl.settle(status),
+            FindAndModifyOptions.options(), BankSlipProjection.class,
+            collectionName)
+         .flatMap(previous -> Mono.fromRunnable(() ->
+               summary.transitioned(Collections.singletonList(previous),
+                  Collections.singletonMap(id, status)))
+            .subscribeOn(Schedulers.elastic())
+            .then(Mono.just(BankSlipTransitionEnum.of(status))))
+         .switchIfEmpty(Mono.defer(() -> findStatus(id)
+            .map(current -> status.equals(current)
+               ? BankSlipTransitionEnum.of(status)
+               : BankSlipTransitionEnum.ALREADY_SETTLED)
+            .defaultIfEmpty(BankSlipTransitionEnum.NOT_FOUND)));
+   }
+   
+   /**
+    * Finds the current status of a bank slip (status only).
+    * @param id Bank slip identifier.
+    * @return Current status, or empty if the bank slip doesn't exist.
+    */
+   private Mono<BankSlipStatusEnum> findStatus(UUID id) {
+      Query query = Query.query(Criteria.where(ID).is(id));
+      query.fields().include(STATUS);
+      return operations.findOne(query, Document.class, collectionName)
+         .map(document ->
+            BankSlipStatusEnum.valueOf(document.getString(STATUS)));
+   }
+}
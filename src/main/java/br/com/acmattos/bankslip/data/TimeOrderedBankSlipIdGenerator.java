@@ -0,0 +1,49 @@
+package br.com.acmattos.bankslip.data;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates time-ordered (version 7) bank slip identifiers: a 48 bit Unix
+ * timestamp in milliseconds followed by 74 random bits.
+ *
+ * Identifiers created later sort after earlier ones (in different
+ * milliseconds), so new documents are appended to the end of the _id index
+ * instead of being scattered across it (as long as ids are stored as
+ * standard binary UUIDs: the legacy representation reverses the bytes of
+ * each half). Random bits come from a thread local generator, so parallel
+ * inserts never contend on a shared SecureRandom: identifiers are unique,
+ * but are not meant to be unguessable.
+ *
+ * @author acmattos
+ */
+public class TimeOrderedBankSlipIdGenerator implements BankSlipIdGenerator {
+   private static final long VERSION_7 = 0x7000L;
+   private static final long RANDOM_A_MASK = 0x0FFFL;
+   private static final long VARIANT_RFC_4122 = 0x8000000000000000L;
+   private static final long RANDOM_B_MASK = 0x3FFFFFFFFFFFFFFFL;
+   private static final int TIMESTAMP_SHIFT = 16;
+   
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public UUID generate() {
+      return generate(System.currentTimeMillis());
+   }
+   
+   /**
+    * Generates an identifier for the given instant.
+    * @param epochMillis Unix timestamp in milliseconds.
+    * @return A new UUID.
+    */
+   UUID generate(long epochMillis) {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      long mostSigBits = (epochMillis << TIMESTAMP_SHIFT)
+         | VERSION_7
+         | (random.nextLong() & RANDOM_A_MASK);
+      long leastSigBits = VARIANT_RFC_4122
+         | (random.nextLong() & RANDOM_B_MASK);
+      return new UUID(mostSigBits, leastSigBits);
+   }
+}
@@ -0,0 +1,211 @@
+package br.com.acmattos.bankslip.fine;
+
+import br.com.acmattos.bankslip.data.BankSlip;
+import br.com.acmattos.bankslip.data.BankSlipFineRate;
+import br.com.acmattos.bankslip.data.BankSlipStatusEnum;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Calculates bank slip fines according to a {@link FinePolicy} (by default,
+ * 0.5% up to 10 days overdue and 1% after that), the only place where fines
+ * are calculated, without per-call costs: the current business date is
+ * cached (and refreshed at midnight), rates are precompiled and fines are
+ * computed with long cent arithmetic (HALF_EVEN rounding), falling back to
+ * BigDecimal only for totals that have decimal places or are too large.
+ *
+ * @author acmattos
+ */
+@Component
+public class FineCalculator {
+   private static final long MILLIS_PER_DAY = 24L * 60L * 60L * 1000L;
+   /** Totals up to this precision fit in a long. */
+   private static final int MAX_LONG_PRECISION = 18;
+   
+   /** Policy that defines fine rates. */
+   private final FinePolicy policy;
+   /** Current business date. */
+   private volatile BusinessDate businessDate;
+   
+   /**
+    * Builds an instance of this class, caching the current business date.
+    * @param policy Policy that defines fine rates.
+    */
+   public FineCalculator(FinePolicy policy) {
+      Assert.notNull(policy, "policy can't be null!");
+      this.policy = policy;
+      refreshBusinessDate();
+   }
+   
+   /**
+    * Refreshes the current business date (every midnight).
+    */
+   @Scheduled(cron = "0 0 0 * * *")
+   public void refreshBusinessDate() {
+      this.businessDate = new BusinessDate(System.currentTimeMillis());
+   }
+   
+   /**
+    * Calculates a fine for the given entity (if it applies).
+    *
+    * @param entity Bank slip.
+    * @return The fine.
+    */
+   public BigDecimal calculateFine(BankSlip entity) {
+      FineRate rate = getFineRate(entity);
+      if(rate.isZero()){
+         return BigDecimal.ZERO;
+      }
+      BigDecimal totalInCents = entity.getTotalInCents();
+      if(0 == totalInCents.scale()
+         && totalInCents.precision() <= MAX_LONG_PRECISION){
+         long cents = totalInCents.longValueExact();
+         long product = cents * rate.getUnscaled();
+         if(product / rate.getUnscaled() == cents){
+            return BigDecimal.valueOf(
+               divideHalfEven(product, rate.getDivisor()));
+         }
+      }
+      return totalInCents.multiply(rate.getValue())
+         .setScale(0, BigDecimal.ROUND_HALF_EVEN);
+   }
+   
+   /**
+    * Gets the fine rate (fine tier) of the given entity as of the current
+    * business date.
+    *
+    * @param entity Bank slip.
+    * @return The fine rate (zero if it's not pending or not overdue).
+    */
+   public FineRate getFineRate(BankSlip entity) {
+      Assert.notNull(entity, "entity can't be null!");
+      if(!BankSlipStatusEnum.PENDING.equals(entity.getStatus())){
+         return FineRate.ZERO;
+      }
+      return policy.getRate(getDaysOverdue(entity.getDueDate()));
+   }
+   
+   /**
+    * Gets the fine rates of pending bank slips by due date range, as of the
+    * current business date, most overdue first (ranges without fine are left
+    * out). Due dates are stored at UTC midnight, so range limits are UTC
+    * midnights too, chosen with the same days overdue rule of
+    * {@link #calculateFine(BankSlip)}.
+    *
+    * @return Fine rates by due date range.
+    */
+   public List<BankSlipFineRate> getFineRatesByDueDate() {
+      List<BankSlipFineRate> rates = new ArrayList<>();
+      // Days after the last one share its rate: the first range is unbounded.
+      long fromDay = Math.max(policy.getLastDay() + 1, 0);
+      FineRate rate = policy.getRate(fromDay);
+      Date dueDateFrom = null;
+      while(true){
+         while(fromDay > 0 && rate.equals(policy.getRate(fromDay - 1))){
+            fromDay--;
+         }
+         Date dueDateTo = getFirstDueDateOverdueBelow(fromDay);
+         if(!rate.isZero()){
+            rates.add(new BankSlipFineRate(dueDateFrom, dueDateTo,
+               rate.getValue()));
+         }
+         if(0 == fromDay){
+            return rates;
+         }
+         dueDateFrom = dueDateTo;
+         rate = policy.getRate(--fromDay);
+      }
+   }
+   
+   /**
+    * Gets the earliest due date (UTC midnight) that is less than some days
+    * overdue: due dates before it are at least that many days overdue.
+    * @param days Days overdue.
+    * @return Due date.
+    */
+   Date getFirstDueDateOverdueBelow(long days) {
+      long epochDay = this.businessDate.epochDay - days + 1;
+      while(getDaysOverdue(new Date(epochDay * MILLIS_PER_DAY)) >= days){
+         epochDay++;
+      }
+      while(getDaysOverdue(new Date((epochDay - 1) * MILLIS_PER_DAY)) < days){
+         epochDay--;
+      }
+      return new Date(epochDay * MILLIS_PER_DAY);
+   }
+   
+   /**
+    * Gets number of days between the due date and the current business date.
+    * @param dueDate Due date.
+    * @return Number of days between.
+    */
+   long getDaysOverdue(Date dueDate) {
+      BusinessDate today = this.businessDate;
+      long now = System.currentTimeMillis();
+      if(now >= today.nextMidnight){
+         // The scheduler is late (or not running): refresh right now.
+         today = new BusinessDate(now);
+         this.businessDate = today;
+      }
+      return today.epochDay - today.toEpochDay(dueDate.getTime());
+   }
+   
+   /**
+    * Divides an amount in cents by a power of ten, rounding HALF_EVEN.
+    * @param product Amount in cents multiplied by an unscaled rate.
+    * @param divisor Power of ten that divides the unscaled rate.
+    * @return Rounded amount in cents.
+    */
+   static long divideHalfEven(long product, long divisor) {
+      long quotient = product / divisor;
+      long remainder = Math.abs(product % divisor);
+      long half = divisor - remainder;
+      if(remainder > half || (remainder == half && 0L != (quotient & 1L))){
+         quotient += Long.signum(product);
+      }
+      return quotient;
+   }
+   
+   /**
+    * Immutable snapshot of the current business date.
+    */
+   private static final class BusinessDate {
+      /** Time zone in which dates are compared. */
+      private final TimeZone timeZone;
+      /** Business date, in days since epoch. */
+      private final long epochDay;
+      /** When this business date ends, in milliseconds since epoch. */
+      private final long nextMidnight;
+      
+      /**
+       * Builds the business date of a given instant.
+       * @param now Milliseconds since epoch.
+       */
+      private BusinessDate(long now) {
+         this.timeZone = TimeZone.getDefault();
+         this.epochDay = toEpochDay(now);
+         this.nextMidnight = LocalDate.ofEpochDay(this.epochDay + 1)
+            .atStartOfDay(this.timeZone.toZoneId())
+            .toInstant()
+            .toEpochMilli();
+      }
+      
+      /**
+       * Converts an instant into a local date (days since epoch).
+       * @param millis Milliseconds since epoch.
+       * @return Days since epoch.
+       */
+      private long toEpochDay(long millis) {
+         return Math.floorDiv(millis + this.timeZone.getOffset(millis),
+            MILLIS_PER_DAY);
+      }
+   }
+}
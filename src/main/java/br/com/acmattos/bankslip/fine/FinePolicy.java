@@ -0,0 +1,28 @@
+package br.com.acmattos.bankslip.fine;
+
+/**
+ * Defines which fine rate applies to a bank slip, given how many days it is
+ * overdue.
+ * @author acmattos
+ */
+public interface FinePolicy {
+   
+   /**
+    * Gets the fine rate that applies after some days overdue.
+    * Implementations must not create objects per call.
+    *
+    * @param daysOverdue Days between due date and today (negative if the
+    *                    bank slip is not due yet).
+    * @return Fine rate ({@link FineRate#ZERO} if no fine applies).
+    */
+   FineRate getRate(long daysOverdue);
+   
+   /**
+    * Gets the last day overdue whose rate may differ from the rate of the
+    * following days: every day after it has the same rate.
+    *
+    * @return Last day overdue with a distinct rate (-1 if every day has the
+    *         same rate).
+    */
+   long getLastDay();
+}
@@ -0,0 +1,71 @@
+package br.com.acmattos.bankslip.fine;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fine policy configuration: a table of tiers (day range to rate).
+ * Format:
+ * bankslip.fine.tiers[0].from-day=1
+ * bankslip.fine.tiers[0].to-day=10
+ * bankslip.fine.tiers[0].rate=0.005
+ * bankslip.fine.tiers[1].from-day=11
+ * bankslip.fine.tiers[1].rate=0.01
+ *
+ * @author acmattos
+ */
+@ToString
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "bankslip.fine")
+public class FinePolicyProperties {
+   /** Fine tiers (defaults to 0.5% up to 10 days and 1% after 11th day). */
+   private List<Tier> tiers = new ArrayList<>();
+   
+   /**
+    * Builds an instance of this class with the default tiers.
+    */
+   public FinePolicyProperties() {
+      this.tiers.add(new Tier(1, 10, new BigDecimal("0.005")));
+      this.tiers.add(new Tier(11, null, new BigDecimal("0.01")));
+   }
+   
+   /**
+    * Fine tier: the rate applied from one day overdue to another.
+    */
+   @ToString
+   @Getter
+   @Setter
+   public static class Tier {
+      /** First day overdue of this tier. */
+      private int fromDay;
+      /** Last day overdue of this tier (null means no limit). */
+      private Integer toDay;
+      /** Fine rate of this tier (e.g. 0.005 for 0.5%). */
+      private BigDecimal rate;
+      
+      /**
+       * Builds an instance of this class (configuration binding).
+       */
+      public Tier() {
+      }
+      
+      /**
+       * Builds an instance of this class.
+       * @param fromDay First day overdue of this tier.
+       * @param toDay Last day overdue of this tier (null means no limit).
+       * @param rate Fine rate of this tier.
+       */
+      public Tier(int fromDay, Integer toDay, BigDecimal rate) {
+         this.fromDay = fromDay;
+         this.toDay = toDay;
+         this.rate = rate;
+      }
+   }
+}
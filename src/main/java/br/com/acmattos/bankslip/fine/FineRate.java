@@ -0,0 +1,66 @@
+package br.com.acmattos.bankslip.fine;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.util.Assert;
+
+import java.math.BigDecimal;
+
+/**
+ * Fine rate (e.g. 0.005 for 0.5%), also kept as an unscaled long and a power
+ * of ten divisor, so fines can be computed with long arithmetic.
+ * Instances are built once (when a policy is compiled) and shared.
+ * @author acmattos
+ */
+@ToString(of = "value")
+@EqualsAndHashCode(of = "value")
+@Getter
+public final class FineRate {
+   private static final int MAX_SCALE = 18;
+   
+   /** No fine. */
+   public static final FineRate ZERO = of(BigDecimal.ZERO);
+   
+   /** Rate. */
+   private final BigDecimal value;
+   /** Rate without its decimal point (value = unscaled / divisor). */
+   private final long unscaled;
+   /** Power of ten that divides the unscaled rate. */
+   private final long divisor;
+   
+   /**
+    * Keep it private (use factory method)!
+    * @param value Rate.
+    * @param unscaled Rate without its decimal point.
+    * @param divisor Power of ten that divides the unscaled rate.
+    */
+   private FineRate(BigDecimal value, long unscaled, long divisor) {
+      this.value = value;
+      this.unscaled = unscaled;
+      this.divisor = divisor;
+   }
+   
+   /**
+    * Builds a fine rate.
+    * @param value Rate (zero or positive, up to 18 decimal places).
+    * @return A fine rate.
+    */
+   public static FineRate of(BigDecimal value) {
+      Assert.notNull(value, "value can't be null!");
+      Assert.isTrue(value.signum() >= 0, "value can't be below zero!");
+      BigDecimal rate = value.scale() < 0 ? value.setScale(0) : value;
+      Assert.isTrue(rate.scale() <= MAX_SCALE,
+         "value can't have more than " + MAX_SCALE + " decimal places!");
+      return new FineRate(value, rate.unscaledValue().longValueExact(),
+         BigDecimal.TEN.pow(rate.scale()).longValueExact());
+   }
+   
+   /**
+    * Verifies if there is no fine at this rate.
+    * @return true if this rate is zero, or false otherwise.
+    */
+   public boolean isZero() {
+      return 0L == this.unscaled;
+   }
+}
@@ -0,0 +1,94 @@
+package br.com.acmattos.bankslip.fine;
+
+import org.springframework.util.Assert;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fine policy built from a table of tiers (day range to rate), compiled into
+ * a lookup array indexed by days overdue, so every lookup is O(1).
+ * @author acmattos
+ */
+public class TieredFinePolicy implements FinePolicy {
+   private static final int MAX_DAY = 36500;
+   
+   /** Fine rate by days overdue, up to the last bounded day. */
+   private final FineRate[] rates;
+   /** Fine rate after the last bounded day. */
+   private final FineRate beyond;
+   
+   /**
+    * Builds an instance of this class, compiling the given tiers.
+    * @param tiers Fine tiers (they can't overlap and only the last one may
+    *              have no limit).
+    */
+   public TieredFinePolicy(List<FinePolicyProperties.Tier> tiers) {
+      Assert.notNull(tiers, "tiers can't be null!");
+      int lastDay = -1;
+      FinePolicyProperties.Tier unbounded = null;
+      for (FinePolicyProperties.Tier tier : tiers) {
+         Assert.notNull(tier.getRate(), "tier rate can't be null!");
+         Assert.isTrue(tier.getFromDay() >= 0 && tier.getFromDay() <= MAX_DAY,
+            "tier from day must be between 0 and " + MAX_DAY + "!");
+         if(null == tier.getToDay()){
+            Assert.isNull(unbounded, "only one tier can have no limit!");
+            unbounded = tier;
+            lastDay = Math.max(lastDay, tier.getFromDay() - 1);
+         } else {
+            Assert.isTrue(tier.getToDay() >= tier.getFromDay()
+               && tier.getToDay() <= MAX_DAY,
+               "tier to day must be between from day and " + MAX_DAY + "!");
+            lastDay = Math.max(lastDay, tier.getToDay());
+         }
+      }
+      this.rates = new FineRate[lastDay + 1];
+      Arrays.fill(this.rates, FineRate.ZERO);
+      for (FinePolicyProperties.Tier tier : tiers) {
+         if(tier != unbounded){
+            fill(tier.getFromDay(), tier.getToDay(), FineRate.of(tier.getRate()));
+         }
+      }
+      if(null == unbounded){
+         this.beyond = FineRate.ZERO;
+      } else {
+         this.beyond = FineRate.of(unbounded.getRate());
+         fill(unbounded.getFromDay(), lastDay, this.beyond);
+      }
+   }
+   
+   /**
+    * Sets the rate of a range of days, checking tiers don't overlap.
+    * @param fromDay First day.
+    * @param toDay Last day.
+    * @param rate Fine rate.
+    */
+   private void fill(int fromDay, int toDay, FineRate rate) {
+      for (int day = fromDay; day <= toDay; day++) {
+         Assert.isTrue(FineRate.ZERO == this.rates[day],
+            "tiers can't overlap (day " + day + ")!");
+         this.rates[day] = rate;
+      }
+   }
+   
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public FineRate getRate(long daysOverdue) {
+      if(daysOverdue < 0){
+         return FineRate.ZERO;
+      } else if(daysOverdue < this.rates.length){
+         return this.rates[(int) daysOverdue];
+      }
+      return this.beyond;
+   }
+   
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public long getLastDay() {
+      return this.rates.length - 1;
+   }
+}
@@ -1,21 +1,53 @@
 package br.com.acmattos.bankslip.rest;
 
 import br.com.acmattos.bankslip.data.BankSlip;
+import br.com.acmattos.bankslip.data.BankSlipCache;
+import br.com.acmattos.bankslip.data.BankSlipCreation;
+import br.com.acmattos.bankslip.data.BankSlipCreationEnum;
+import br.com.acmattos.bankslip.data.BankSlipFilter;
+import br.com.acmattos.bankslip.data.BankSlipProjection;
 import br.com.acmattos.bankslip.data.BankSlipRepository;
 import br.com.acmattos.bankslip.data.BankSlipStatusEnum;
+import br.com.acmattos.bankslip.data.BankSlipSummary;
+import br.com.acmattos.bankslip.data.BankSlipSummaryCounters;
+import br.com.acmattos.bankslip.data.BankSlipTotals;
+import br.com.acmattos.bankslip.data.BankSlipTotalsGroupEnum;
+import br.com.acmattos.bankslip.data.BankSlipTransitionEnum;
+import br.com.acmattos.bankslip.fine.FineCalculator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.swagger.annotations.*;
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.UUID;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * REST Controller that exposes all endpoints available for this API.
@@ -23,11 +55,10 @@ import java.util.UUID;
  */
 @RestController
 @RequestMapping("/bankslips")
+@ConditionalOnWebApplication(type = Type.SERVLET)
 class BankSlipController {
-   private static final Log LOGGER =
-      LogFactory.getLog(BankSlipController.class);
-   private static final String UUID_PATTERN =
-      "^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[1-5][0-9a-fA-F]{3}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$";
+   private static final Logger LOGGER =
+      LoggerFactory.getLogger(BankSlipController.class);
    private static final String PAY_OR_CANCEL_ISERROR_MESSAGE =
       "Could not pay or cancel this particular bank slip: ";
    private static final String ISERROR = "iserror";
@@ -35,6 +66,13 @@ class BankSlipController {
    private static final String BANKSLIP_PAID = "200 : Bankslip paid";
    private static final String BANKSLIP_NOT_FOUND_WITH_THE_SPECIFIED_ID =
       "404 : Bankslip not found with the specified id";
+   private static final String BANKSLIP_ALREADY_SETTLED =
+      "409 : Bankslip already settled with a different status";
+   private static final String BANKSLIP_CHANGED_CONCURRENTLY =
+      "409 : Bankslip changed since it was read - get it again and retry";
+   private static final String INVALID_IF_MATCH_PROVIDED =
+      "400 : Invalid If-Match provided - it must be * or a single bankslip "
+         + "ETag";
    private static final String INVALID_BANKSLIP_STATUS_PROVIDED =
       "422 : Invalid bankslip status provided (PENDING)";
    private static final String INVALID_ID_PROVIDED_IT_MUST_BE_A_VALID_UUID =
@@ -46,15 +84,106 @@ class BankSlipController {
    private static final String CREATE_ISERROR_MESSAGE =
       "Could not create new bank slip: ";
    private static final String TICKET_FORMAT = "[Ticket-%s] - ";
+   private static final String BANKSLIP_SERVICE_UNAVAILABLE =
+      "503 : Too many bank slip requests, try again later";
+   private static final String ERROR_TICKETS = "bankslip.error.tickets";
+   private static final String EXCEPTION = "exception";
    private static final String
       INVALID_BANKSLIP_PROVIDED_CHECK_HEADERS_FOR_MORE_INFORMATION =
       "422 : Invalid bankslip provided. Check HEADERS for more information!";
    private static final String BANKSLIP_CREATED = "201 : Bankslip created";
    private static final String REST_BANKSLIPS_PATH = "/rest/bankslips/";
    private static final String LOCATION = "Location";
+   private static final String NOT_MODIFIED = "Not Modified";
+   private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+   private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+   private static final String INVALID_IDEMPOTENCY_KEY_PROVIDED =
+      "400 : Invalid Idempotency-Key provided - it must have 1 to "
+         + MAX_IDEMPOTENCY_KEY_LENGTH + " characters";
+   private static final String IDEMPOTENCY_KEY_IN_PROGRESS =
+      "409 : Bankslip creation with this Idempotency-Key is in progress - "
+         + "retry later";
+   private static final String IDEMPOTENCY_KEY_REUSED =
+      "422 : Idempotency-Key already used for a different bankslip";
+   private static final String STREAM_PARAM = "stream=true";
+   private static final String LIMIT_PARAM = "limit";
+   private static final int MAX_PAGE_LIMIT = 1000;
+   private static final String NEXT_CURSOR = "Next-Cursor";
+   private static final String INVALID_PAGE_LIMIT_PROVIDED =
+      "400 : Invalid page limit provided - it must be between 1 and "
+         + MAX_PAGE_LIMIT;
+   private static final String INVALID_PAGE_CURSOR_PROVIDED =
+      "400 : Invalid page cursor provided";
+   private static final String FIND_PAGE_ISERROR_MESSAGE =
+      "Could not find this page of bank slips: ";
+   private static final String APPLICATION_NDJSON_VALUE =
+      "application/x-ndjson";
+   private static final int DEFAULT_BULK_CHUNK_SIZE = 1000;
+   private static final String BANKSLIPS_NOT_PROVIDED_IN_THE_REQUEST_BODY =
+      "400 : Bankslips not provided in the request body";
+   private static final String CREATE_ALL_ISERROR_MESSAGE =
+      "Could not create new bank slips: ";
+   private static final String BODY = "body";
+   private static final String DUE_DATE = "dueDate";
+   private static final String DATE_FORMAT_ACCEPTED_YYYY_MM_DD =
+      "Date format accepted: (yyyy-MM-dd)";
+   private static final String INVALID_VALUE_PROVIDED =
+      "Invalid value provided!";
+   private static final String
+      BANKSLIP_STATUSES_NOT_PROVIDED_IN_THE_REQUEST_BODY =
+      "400 : Bankslip statuses not provided in the request body";
+   private static final String INVALID_BANKSLIP_STATUSES_PROVIDED =
+      "422 : Invalid bankslip statuses provided (id and PAID or CANCELED required)";
+   private static final String PAY_OR_CANCEL_ALL_ISERROR_MESSAGE =
+      "Could not pay or cancel these bank slips: ";
+   private static final String INVALID_FILTER_PROVIDED =
+      "400 : Invalid filter provided - customer and customerPrefix can't be "
+         + "combined and dueDateFrom can't be after dueDateTo";
+   private static final String INVALID_FIELDS_PROVIDED =
+      "400 : Invalid fields provided - they must be some of: ";
+   private static final String FIELDS_NOT_SUPPORTED =
+      "400 : Invalid fields provided - they can't be selected with stream or "
+         + "limit";
+   private static final String INVALID_GROUP_BY_PROVIDED =
+      "400 : Invalid groupBy provided - it must be some of: ";
+   private static final List<String> GROUP_BY_KEYS = Collections.unmodifiableList(
+      Arrays.asList(BankSlipTotalsGroupEnum.STATUS.getKey(),
+         BankSlipTotalsGroupEnum.CUSTOMER.getKey(),
+         BankSlipTotalsGroupEnum.DUE_MONTH.getKey()));
+   private static final String AGGREGATE_TOTALS_ISERROR_MESSAGE =
+      "Could not aggregate bank slip totals: ";
+   private static final String FIND_SUMMARY_ISERROR_MESSAGE =
+      "Could not find bank slip summary: ";
    
    @Autowired
    private BankSlipRepository repository;
+   
+   @Autowired
+   private ObjectMapper objectMapper;
+   
+   @Autowired
+   private FineCalculator fineCalculator;
+   
+   @Autowired
+   private BankSlipCache cache;
+   
+   @Autowired
+   private BankSlipIdValidator idValidator;
+   
+   @Autowired
+   private BankSlipSummaryCounters summary;
+   
+   @Autowired
+   private MeterRegistry registry;
+   
+   /** Executor of requests (null if they run on the request thread). */
+   @Autowired(required = false)
+   @Qualifier("bankSlipRequestExecutor")
+   private ExecutorService executor;
+   
+   /** Number of bank slips inserted by each bulk write. */
+   @Value("${bankslip.bulk.chunk-size:" + DEFAULT_BULK_CHUNK_SIZE + "}")
+   private int bulkChunkSize = DEFAULT_BULK_CHUNK_SIZE;
 
    /**
     * Endpoint: POST http://address:port/rest/bankslips
@@ -66,7 +195,12 @@ class BankSlipController {
     *    "customer" : "ACME Company" ,
     *    "status" : "PENDING"
     * }
+    * Retries sending the same Idempotency-Key header get the bank slip
+    * created by the first request (same Location), instead of a new one, or
+    * 409 while the first request is still creating it. Reusing a key for a
+    * different bank slip is answered with 422.
     * @param newBankSlipDTO New bank slip to be created.
+    * @param idempotencyKey Idempotency key (optional).
     * @return See Swagger configuration bellow.
     */
    @ApiOperation(value = "Creates a valid bank slip.")
@@ -85,6 +219,11 @@ class BankSlipController {
          message = "400 : Bankslip not provided in the request body",
          response = String.class
       ),
+      @ApiResponse(
+         code = 409,
+         message = IDEMPOTENCY_KEY_IN_PROGRESS,
+         response = String.class
+      ),
       @ApiResponse(
          code = 422,
          message = INVALID_BANKSLIP_PROVIDED_CHECK_HEADERS_FOR_MORE_INFORMATION,
@@ -123,37 +262,63 @@ class BankSlipController {
    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE,
                 produces = MediaType.TEXT_PLAIN_VALUE)
    @ResponseStatus(value = HttpStatus.CREATED)
-   ResponseEntity create(
+   Object create(
       @ApiParam(value = "Valid bank slip data.", required = true)
       @RequestBody
-      NewBankSlipDTO newBankSlipDTO){
-      LOGGER.info("New bank slip creation: " + newBankSlipDTO.toString());
-      ResponseEntityBuilder<String> builder = ResponseEntityBuilder.builder();
-      try {
-         doCreate(newBankSlipDTO, builder);
-      } catch (Exception e) {
-         processErrorResponse(builder, e, CREATE_ISERROR_MESSAGE);
+      NewBankSlipDTO newBankSlipDTO,
+      @ApiParam(value = "Unique key of this creation (retries with the same "
+         + "key get the bank slip already created).")
+      @RequestHeader(value = IDEMPOTENCY_KEY, required = false)
+      String idempotencyKey){
+      if(LOGGER.isDebugEnabled()){
+         LOGGER.debug("New bank slip creation: dueDate={} totalInCents={} "
+            + "customer={}", newBankSlipDTO.getDueDate(),
+            newBankSlipDTO.getTotalInCents(),
+            BankSlipRequestLog.redact(newBankSlipDTO.getCustomer()));
       }
-      return builder.build();
+      return execute(() -> {
+         ResponseEntityBuilder<String> builder =
+            ResponseEntityBuilder.builder();
+         try {
+            doCreate(newBankSlipDTO, idempotencyKey, builder);
+         } catch (Exception e) {
+            processErrorResponse(builder, e, CREATE_ISERROR_MESSAGE);
+         }
+         return builder.build();
+      });
    }
    
    /**
     * Creates a valid bank slip.
     * @param newBankSlipDTO New bank slip to be created.
+    * @param idempotencyKey Idempotency key (null if not provided).
     * @param builder Response entity builder.
     */
-   private void doCreate(NewBankSlipDTO newBankSlipDTO,
+   private void doCreate(NewBankSlipDTO newBankSlipDTO, String idempotencyKey,
                          ResponseEntityBuilder<String> builder) {
       Map<String, String> errorMap = newBankSlipDTO.validateMe();
-      if(errorMap.isEmpty()){
-         LOGGER.info("Response: CREATED");
-         BankSlip entity = repository.save(newBankSlipDTO.toEntity());
-         builder.key(LOCATION)
-            .value(REST_BANKSLIPS_PATH + entity.getId())
-            .body(BANKSLIP_CREATED)
-            .CREATED();
+      if(null != idempotencyKey && (idempotencyKey.trim().isEmpty()
+         || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)){
+         LOGGER.debug("Response: BAD_REQUEST");
+         builder.body(INVALID_IDEMPOTENCY_KEY_PROVIDED).BAD_REQUEST();
+      } else if(errorMap.isEmpty() && null == idempotencyKey){
+         toCreatedResponse(
+            repository.create(newBankSlipDTO.toEntity()).getId(), builder);
+      } else if(errorMap.isEmpty()){
+         BankSlipCreation creation =
+            repository.create(newBankSlipDTO.toEntity(), idempotencyKey);
+         if(BankSlipCreationEnum.IN_PROGRESS.equals(creation.getOutcome())){
+            LOGGER.debug("Response: CONFLICT");
+            builder.body(IDEMPOTENCY_KEY_IN_PROGRESS).CONFLICT();
+         } else if(BankSlipCreationEnum.KEY_REUSED
+            .equals(creation.getOutcome())){
+            LOGGER.debug("Response: UNPROCESSABLE_ENTITY");
+            builder.body(IDEMPOTENCY_KEY_REUSED).UNPROCESSABLE_ENTITY();
+         } else {
+            toCreatedResponse(creation.getId(), builder);
+         }
       } else {
-         LOGGER.info("Response: UNPROCESSABLE_ENTITY");
+         LOGGER.debug("Response: UNPROCESSABLE_ENTITY");
          for (String key : errorMap.keySet()) {
             builder.key(key).value(errorMap.get(key));
          }
@@ -163,19 +328,232 @@ class BankSlipController {
       }
    }
    
+   /**
+    * Prepares the response of a created bank slip.
+    * @param id Id of the created bank slip.
+    * @param builder Response entity builder.
+    */
+   private void toCreatedResponse(UUID id,
+                                  ResponseEntityBuilder<String> builder) {
+      LOGGER.debug("Response: CREATED");
+      cache.invalidate(id);
+      builder.key(LOCATION)
+         .value(REST_BANKSLIPS_PATH + id)
+         .body(BANKSLIP_CREATED)
+         .CREATED();
+   }
+   
+   /**
+    * Endpoint: POST http://address:port/rest/bankslips/bulk
+    * Creates many bank slips at once. The request body is a JSON array or a
+    * NDJSON stream (one bank slip per line) of bank slips, each one in the
+    * same format accepted by the single creation endpoint.
+    * Bank slips are read and validated one at a time and inserted in chunks
+    * (one unordered bulk write each), so an invalid bank slip never prevents
+    * the others from being created.
+    *
+    * @param body Request body.
+    * @return See Swagger configuration bellow.
+    */
+   @SuppressWarnings("unchecked")
+   @ApiOperation(value = "Creates many bank slips at once.")
+   @ApiImplicitParams(
+      @ApiImplicitParam(name = BODY, paramType = BODY, required = true,
+         dataType = "NewBankSlipDTO", allowMultiple = true,
+         value = "JSON array or NDJSON stream of valid bank slips data.")
+   )
+   @ApiResponses(value = {
+      @ApiResponse(
+         code = 200,
+         message = "Ok",
+         response = BulkBankSlipResultDTO.class,
+         responseContainer = "List"
+      ),
+      @ApiResponse(
+         code = 400,
+         message = BANKSLIPS_NOT_PROVIDED_IN_THE_REQUEST_BODY,
+         response = String.class
+      ),
+      @ApiResponse(
+         code = 500,
+         message = "Internal Server Error",
+         response = String.class,
+         responseHeaders = {
+            @ResponseHeader(
+               name = ISERROR,
+               description = "Could not create new bank slips: CAUSE_MESSAGE",
+               response = String.class)
+         }
+      )
+   })
+   @PostMapping(path = "/bulk",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE},
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.TEXT_PLAIN_VALUE})
+   Object createAll(@ApiParam(hidden = true) InputStream body) {
+      LOGGER.debug("Bulk bank slip creation requested");
+      return execute(() -> {
+         ResponseEntityBuilder builder = ResponseEntityBuilder.builder();
+         try {
+            doCreateAll(body, builder);
+         } catch (Exception e) {
+            processErrorResponse(builder, e, CREATE_ALL_ISERROR_MESSAGE);
+         }
+         return builder.build();
+      });
+   }
+   
+   /**
+    * Creates many bank slips at once.
+    * @param body Request body.
+    * @param builder Response entity builder.
+    * @throws IOException in case of reading failure.
+    */
+   @SuppressWarnings("unchecked")
+   private void doCreateAll(InputStream body, ResponseEntityBuilder builder)
+      throws IOException {
+      List<BulkBankSlipResultDTO> results = new ArrayList<>();
+      Map<Integer, BankSlip> chunk = new LinkedHashMap<>();
+      int index = 0;
+      try (MappingIterator<NewBankSlipDTO> items = objectMapper
+              .readerFor(NewBankSlipDTO.class).readValues(body)) {
+         boolean readable = true;
+         while (readable) {
+            try {
+               readable = items.hasNextValue();
+               if (readable) {
+                  validateAndAdd(index, items.nextValue(), chunk, results);
+                  index++;
+               }
+            } catch (JsonMappingException e) {
+               // Only this bank slip is skipped: the iterator resyncs itself.
+               results.add(BulkBankSlipResultDTO.failed(index++,
+                  toErrorMap(e)));
+            } catch (JsonProcessingException e) {
+               // Malformed body: nothing else can be read.
+               results.add(BulkBankSlipResultDTO.failed(index++,
+                  Collections.singletonMap(BODY, e.getOriginalMessage())));
+               readable = false;
+            }
+            if (chunk.size() >= bulkChunkSize || !readable) {
+               insertChunk(chunk, results);
+            }
+         }
+      }
+      if(results.isEmpty()){
+         LOGGER.debug("Response: BAD_REQUEST");
+         builder.body(BANKSLIPS_NOT_PROVIDED_IN_THE_REQUEST_BODY)
+            .BAD_REQUEST();
+      } else {
+         results.sort(Comparator.comparingInt(BulkBankSlipResultDTO::getIndex));
+         LOGGER.debug("Response: OK - {} bank slips", results.size());
+         builder.body(results);
+      }
+   }
+   
+   /**
+    * Validates a bank slip, adding it to the chunk to be inserted if it's
+    * valid, or its errors to the results otherwise.
+    * @param index Position of the bank slip in the request body.
+    * @param newBankSlipDTO New bank slip to be created.
+    * @param chunk Bank slips to be inserted, by position.
+    * @param results Bulk creation results.
+    */
+   private void validateAndAdd(int index, NewBankSlipDTO newBankSlipDTO,
+                               Map<Integer, BankSlip> chunk,
+                               List<BulkBankSlipResultDTO> results) {
+      Map<String, String> errorMap = newBankSlipDTO.validateMe();
+      if(errorMap.isEmpty()){
+         chunk.put(index, newBankSlipDTO.toEntity());
+      } else {
+         results.add(BulkBankSlipResultDTO.failed(index, errorMap));
+      }
+   }
+   
+   /**
+    * Inserts a chunk of bank slips with one bulk write, adding its results.
+    * @param chunk Bank slips to be inserted, by position.
+    * @param results Bulk creation results.
+    */
+   private void insertChunk(Map<Integer, BankSlip> chunk,
+                            List<BulkBankSlipResultDTO> results) {
+      if(!chunk.isEmpty()){
+         List<Integer> indexes = new ArrayList<>(chunk.keySet());
+         List<BankSlip> entities = new ArrayList<>(chunk.values());
+         Map<Integer, String> failures =
+            repository.insertAllUnordered(entities);
+         for (int i = 0; i < entities.size(); i++) {
+            if(failures.containsKey(i)){
+               results.add(BulkBankSlipResultDTO.failed(indexes.get(i),
+                  Collections.singletonMap(ISERROR, failures.get(i))));
+            } else {
+               results.add(BulkBankSlipResultDTO.created(indexes.get(i),
+                  entities.get(i).getId()));
+            }
+         }
+         chunk.clear();
+      }
+   }
+   
+   /**
+    * Converts a bank slip mapping failure into an error map.
+    * @param e Mapping failure.
+    * @return Error Map.
+    */
+   private Map<String, String> toErrorMap(JsonMappingException e) {
+      List<JsonMappingException.Reference> path = e.getPath();
+      String field = path.isEmpty()
+         ? null : path.get(path.size() - 1).getFieldName();
+      if(null == field){
+         return Collections.singletonMap(BODY, e.getOriginalMessage());
+      } else if(DUE_DATE.equals(field)){
+         return Collections.singletonMap(field, DATE_FORMAT_ACCEPTED_YYYY_MM_DD);
+      }
+      return Collections.singletonMap(field, INVALID_VALUE_PROVIDED);
+   }
+   
    /**
     * Endpoint: GET http://address:port/rest/bankslips
-    * Lists all available bank slips created.
+    * Lists all available bank slips created, optionally filtered by status,
+    * customer (exact match or prefix) and due date range (inclusive):
+    * GET http://address:port/rest/bankslips?status=PENDING&customer=ACME
+    *    &dueDateFrom=2018-01-01&dueDateTo=2018-01-31
+    * Filtered bank slips are ordered by due date and id. Only some properties
+    * of each bank slip are read and sent if they are selected:
+    * GET http://address:port/rest/bankslips?fields=id,totalInCents
+    * Whole bank slips are sent with an ETag (from their ids and versions): if
+    * it matches If-None-Match, 304 is sent without building the list.
     *
+    * @param status Status of the bank slips.
+    * @param customer Customer's name (exact match).
+    * @param customerPrefix Customer's name prefix.
+    * @param dueDateFrom First due date (yyyy-MM-dd).
+    * @param dueDateTo Last due date (yyyy-MM-dd).
+    * @param fields Selected properties of each bank slip (comma separated).
+    * @param ifNoneMatch ETag of the list already held by the client.
     * @return See Swagger configuration bellow.
     */
+   @SuppressWarnings("unchecked")
    @ApiOperation(value = "Lists all available bank slips created.")
    @ApiResponses(value = {
       @ApiResponse(
          code = 200,
          message = "Ok",
          response = SavedBankSlipDTO.class,
-         responseContainer = "List"
+         responseContainer = "List",
+         responseHeaders = @ResponseHeader(
+            name = HttpHeaders.ETAG,
+            description = "Entity tag of the list (whole bank slips only)",
+            response = String.class)
+      ),
+      @ApiResponse(
+         code = 304,
+         message = NOT_MODIFIED
+      ),
+      @ApiResponse(
+         code = 400,
+         message = INVALID_FILTER_PROVIDED + " | " + INVALID_FIELDS_PROVIDED
+            + "FIELDS | 400 : Invalid value provided for parameter: PARAMETER",
+         response = String.class
       ),
       @ApiResponse(
          code = 404,
@@ -196,24 +574,601 @@ class BankSlipController {
    })
    @GetMapping(
       produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.TEXT_PLAIN_VALUE})
-   ResponseEntity findAll() {
-      LOGGER.info("Find all bank slip requested" );
-      ResponseEntityBuilder<List<SavedBankSlipDTO>> builder =
+   Object findAll(
+      @ApiParam(value = "Status of the bank slips.")
+      @RequestParam(required = false) BankSlipStatusEnum status,
+      @ApiParam(value = "Customer's name (exact match).")
+      @RequestParam(required = false) String customer,
+      @ApiParam(value = "Customer's name prefix.")
+      @RequestParam(required = false) String customerPrefix,
+      @ApiParam(value = "First due date (yyyy-MM-dd).")
+      @RequestParam(required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueDateFrom,
+      @ApiParam(value = "Last due date (yyyy-MM-dd).")
+      @RequestParam(required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueDateTo,
+      @ApiParam(value = "Properties of each bank slip (e.g. id,totalInCents).")
+      @RequestParam(required = false) String fields,
+      @ApiParam(value = "ETag of the list already held by the client.")
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+      String ifNoneMatch) {
+      LOGGER.debug("Find all bank slip requested");
+      return execute(() -> {
+         ResponseEntityBuilder builder = ResponseEntityBuilder.builder();
+         try{
+            BankSlipFilter filter = toFilter(status, customer, customerPrefix,
+               dueDateFrom, dueDateTo);
+            doFindAll(filter, fields, ifNoneMatch, builder);
+         } catch (Exception e) {
+            processErrorResponse(builder, e, FIND_ALL_ISERROR_MESSAGE);
+         }
+         return builder.build();
+      });
+   }
+   
+   /**
+    * Lists bank slips that match a filter, reading only the selected
+    * properties of them (if any was selected).
+    * @param filter Filter of bank slips.
+    * @param fields Selected properties (null if all of them).
+    * @param ifNoneMatch ETag of the list already held by the client.
+    * @param builder Response entity builder.
+    */
+   @SuppressWarnings("unchecked")
+   private void doFindAll(BankSlipFilter filter, String fields,
+                          String ifNoneMatch, ResponseEntityBuilder builder) {
+      Optional<Set<String>> properties = null == fields ? Optional.empty()
+         : BankSlipFields.parse(fields, BankSlipFields.SAVED);
+      if(null != fields && !properties.isPresent()){
+         LOGGER.debug("Response: BAD_REQUEST");
+         builder.body(INVALID_FIELDS_PROVIDED + BankSlipFields.SAVED)
+            .BAD_REQUEST();
+      } else if(!isValid(filter)){
+         LOGGER.debug("Response: BAD_REQUEST");
+         builder.body(INVALID_FILTER_PROVIDED).BAD_REQUEST();
+      } else if(properties.isPresent()){
+         List<BankSlipProjection> projections =
+            repository.findAllProjected(filter, properties.get());
+         LOGGER.debug("Response: {}", projections.isEmpty() ? "NOT_FOUND" : "OK");
+         builder.body(BankSlipFields.toViews(projections, properties.get()));
+      } else {
+         List<BankSlip> entities = filter.isEmpty()
+            ? repository.findAll() : repository.findAllFiltered(filter);
+         String etag = BankSlipETags.of(entities);
+         if(BankSlipETags.matches(ifNoneMatch, etag)){
+            LOGGER.debug("Response: NOT_MODIFIED");
+            builder.key(HttpHeaders.ETAG).value(etag).NOT_MODIFIED();
+         } else if(entities.isEmpty()){
+            builder.body(SavedBankSlipDTO.toDTOs(entities));
+         } else {
+            builder.key(HttpHeaders.ETAG).value(etag)
+               .body(SavedBankSlipDTO.toDTOs(entities));
+         }
+      }
+   }
+   
+   /**
+    * Endpoint: GET http://address:port/rest/bankslips/totals
+    * Aggregates receivables totals on the database: number of bank slips, sum
+    * of their totals in cents and of their fines (projected for today, by the
+    * fine policy), grouped by status, customer and/or due month (yyyy-MM):
+    * GET http://address:port/rest/bankslips/totals?groupBy=dueMonth,customer
+    *    &status=PENDING
+    * Bank slips can be filtered just like they are when listed.
+    *
+    * @param groupBy Groups of totals (comma separated; grand totals if absent).
+    * @param status Status of the bank slips.
+    * @param customer Customer's name (exact match).
+    * @param customerPrefix Customer's name prefix.
+    * @param dueDateFrom First due date (yyyy-MM-dd).
+    * @param dueDateTo Last due date (yyyy-MM-dd).
+    * @return See Swagger configuration bellow.
+    */
+   @ApiOperation(value = "Aggregates receivables totals of bank slips.")
+   @ApiResponses(value = {
+      @ApiResponse(
+         code = 200,
+         message = "Ok",
+         response = BankSlipTotalsDTO.class,
+         responseContainer = "List"
+      ),
+      @ApiResponse(
+         code = 400,
+         message = INVALID_GROUP_BY_PROVIDED + "GROUPS | "
+            + INVALID_FILTER_PROVIDED + " | "
+            + "400 : Invalid value provided for parameter: PARAMETER",
+         response = String.class
+      ),
+      @ApiResponse(
+         code = 404,
+         message = "No bank slip found",
+         response = String.class
+      ),
+      @ApiResponse(
+         code = 500,
+         message = "Internal Server Error",
+         response = String.class,
+         responseHeaders = {
+            @ResponseHeader(
+               name = ISERROR,
+               description = "Could not aggregate bank slip totals: CAUSE_MESSAGE",
+               response = String.class)
+         }
+      )
+   })
+   @GetMapping(path = "/totals",
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.TEXT_PLAIN_VALUE})
+   Object aggregateTotals(
+      @ApiParam(value = "Groups of totals (status, customer and/or dueMonth).")
+      @RequestParam(required = false) String groupBy,
+      @ApiParam(value = "Status of the bank slips.")
+      @RequestParam(required = false) BankSlipStatusEnum status,
+      @ApiParam(value = "Customer's name (exact match).")
+      @RequestParam(required = false) String customer,
+      @ApiParam(value = "Customer's name prefix.")
+      @RequestParam(required = false) String customerPrefix,
+      @ApiParam(value = "First due date (yyyy-MM-dd).")
+      @RequestParam(required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueDateFrom,
+      @ApiParam(value = "Last due date (yyyy-MM-dd).")
+      @RequestParam(required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueDateTo) {
+      LOGGER.debug("Bank slip totals requested: {}", groupBy);
+      return execute(() -> {
+         ResponseEntityBuilder builder = ResponseEntityBuilder.builder();
+         try{
+            BankSlipFilter filter = toFilter(status, customer, customerPrefix,
+               dueDateFrom, dueDateTo);
+            doAggregateTotals(groupBy, filter, builder);
+         } catch (Exception e) {
+            processErrorResponse(builder, e, AGGREGATE_TOTALS_ISERROR_MESSAGE);
+         }
+         return builder.build();
+      });
+   }
+   
+   /**
+    * Aggregates totals of the bank slips that match a filter.
+    * @param groupBy Groups of totals (comma separated, null if none).
+    * @param filter Filter of bank slips.
+    * @param builder Response entity builder.
+    */
+   @SuppressWarnings("unchecked")
+   private void doAggregateTotals(String groupBy, BankSlipFilter filter,
+                                  ResponseEntityBuilder builder) {
+      Optional<Set<BankSlipTotalsGroupEnum>> groups = parseGroups(groupBy);
+      if(!groups.isPresent()){
+         LOGGER.debug("Response: BAD_REQUEST");
+         builder.body(INVALID_GROUP_BY_PROVIDED + GROUP_BY_KEYS).BAD_REQUEST();
+      } else if(!isValid(filter)){
+         LOGGER.debug("Response: BAD_REQUEST");
+         builder.body(INVALID_FILTER_PROVIDED).BAD_REQUEST();
+      } else {
+         List<BankSlipTotals> totals = repository.aggregateTotals(filter,
+            groups.get(), fineCalculator.getFineRatesByDueDate());
+         LOGGER.debug("Response: {}", totals.isEmpty() ? "NOT_FOUND" : "OK");
+         builder.body(BankSlipTotalsDTO.toDTOs(totals));
+      }
+   }
+   
+   /**
+    * Endpoint: GET http://address:port/rest/bankslips/summary
+    * Finds the summary of bank slips per customer and status (number of bank
+    * slips and sum of their totals in cents), maintained whenever bank slips
+    * are created, paid or canceled, so it's read in O(1):
+    * GET http://address:port/rest/bankslips/summary?customer=ACME%20Company
+    *
+    * @param customer Customer's name (all customers if absent).
+    * @return See Swagger configuration bellow.
+    */
+   @ApiOperation(value = "Finds the summary of bank slips per customer and status.")
+   @ApiResponses(value = {
+      @ApiResponse(
+         code = 200,
+         message = "Ok",
+         response = BankSlipSummaryDTO.class,
+         responseContainer = "List"
+      ),
+      @ApiResponse(
+         code = 404,
+         message = "No bank slip found",
+         response = String.class
+      ),
+      @ApiResponse(
+         code = 500,
+         message = "Internal Server Error",
+         response = String.class,
+         responseHeaders = {
+            @ResponseHeader(
+               name = ISERROR,
+               description = "Could not find bank slip summary: CAUSE_MESSAGE",
+               response = String.class)
+         }
+      )
+   })
+   @GetMapping(path = "/summary",
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.TEXT_PLAIN_VALUE})
+   Object findSummary(
+      @ApiParam(value = "Customer's name (exact match).")
+      @RequestParam(required = false) String customer) {
+      if(LOGGER.isDebugEnabled()){
+         LOGGER.debug("Bank slip summary requested: {}",
+            BankSlipRequestLog.redact(customer));
+      }
+      return execute(() -> {
+         ResponseEntityBuilder builder = ResponseEntityBuilder.builder();
+         try{
+            doFindSummary(customer, builder);
+         } catch (Exception e) {
+            processErrorResponse(builder, e, FIND_SUMMARY_ISERROR_MESSAGE);
+         }
+         return builder.build();
+      });
+   }
+   
+   /**
+    * Finds the summary of bank slips of a customer (or of all customers).
+    * @param customer Customer's name (null if all customers).
+    * @param builder Response entity builder.
+    */
+   @SuppressWarnings("unchecked")
+   private void doFindSummary(String customer, ResponseEntityBuilder builder) {
+      List<BankSlipSummary> summaries = summary.findAll(customer);
+      LOGGER.debug("Response: {}", summaries.isEmpty() ? "NOT_FOUND" : "OK");
+      builder.body(BankSlipSummaryDTO.toDTOs(summaries));
+   }
+   
+   /**
+    * Parses groups of totals (comma separated).
+    * @param groupBy Groups of totals (null if none).
+    * @return Groups, or empty if any of them is unknown.
+    */
+   private Optional<Set<BankSlipTotalsGroupEnum>> parseGroups(String groupBy) {
+      Set<BankSlipTotalsGroupEnum> groups =
+         EnumSet.noneOf(BankSlipTotalsGroupEnum.class);
+      if(null == groupBy){
+         return Optional.of(groups);
+      }
+      for (String key : groupBy.split(",")) {
+         Optional<BankSlipTotalsGroupEnum> group =
+            BankSlipTotalsGroupEnum.of(key.trim());
+         if(!group.isPresent()){
+            return Optional.empty();
+         }
+         groups.add(group.get());
+      }
+      return Optional.of(groups);
+   }
+   
+   /**
+    * Builds a filter of bank slips out of request parameters.
+    * @param status Status of the bank slips.
+    * @param customer Customer's name (exact match).
+    * @param customerPrefix Customer's name prefix.
+    * @param dueDateFrom First due date.
+    * @param dueDateTo Last due date.
+    * @return Filter of bank slips.
+    */
+   private BankSlipFilter toFilter(BankSlipStatusEnum status, String customer,
+                                   String customerPrefix, LocalDate dueDateFrom,
+                                   LocalDate dueDateTo) {
+      return BankSlipFilter.builder()
+         .status(status)
+         .customer(customer)
+         .customerPrefix(customerPrefix)
+         .dueDateFrom(toDate(dueDateFrom))
+         .dueDateTo(toDate(dueDateTo))
+         .build();
+   }
+   
+   /**
+    * Verifies if a filter can be applied: customer and its prefix can't be
+    * combined and due date range can't be reversed.
+    * @param filter Filter of bank slips.
+    * @return true if it's valid, or false otherwise.
+    */
+   private boolean isValid(BankSlipFilter filter) {
+      return !(null != filter.getCustomer()
+            && null != filter.getCustomerPrefix())
+         && !(null != filter.getCustomerPrefix()
+            && filter.getCustomerPrefix().isEmpty())
+         && !(null != filter.getDueDateFrom() && null != filter.getDueDateTo()
+            && filter.getDueDateFrom().after(filter.getDueDateTo()));
+   }
+   
+   /**
+    * Verifies if a filter can be applied to a stream or a page of bank slips,
+    * where fields can't be selected.
+    * @param filter Filter of bank slips.
+    * @param fields Selected properties (null if all of them).
+    * @return Bad request message, or empty if it's valid.
+    */
+   private Optional<String> toBadRequest(BankSlipFilter filter, String fields) {
+      if(null != fields){
+         return Optional.of(FIELDS_NOT_SUPPORTED);
+      } else if(!isValid(filter)){
+         return Optional.of(INVALID_FILTER_PROVIDED);
+      }
+      return Optional.empty();
+   }
+   
+   /**
+    * Converts a date to the instant due dates are stored at (UTC midnight).
+    * @param date Date.
+    * @return Date at UTC midnight (null if date is null).
+    */
+   private Date toDate(LocalDate date) {
+      return null == date
+         ? null : Date.from(date.atStartOfDay(ZoneOffset.UTC).toInstant());
+   }
+
+   /**
+    * Endpoint: GET http://address:port/rest/bankslips?stream=true
+    * Lists all available bank slips created, reading them from a database
+    * cursor and writing them to the response one at a time. They can be
+    * filtered just like they are when listed (fields can't be selected).
+    *
+    * @param status Status of the bank slips.
+    * @param customer Customer's name (exact match).
+    * @param customerPrefix Customer's name prefix.
+    * @param dueDateFrom First due date (yyyy-MM-dd).
+    * @param dueDateTo Last due date (yyyy-MM-dd).
+    * @param fields Selected properties (not supported).
+    * @return See Swagger configuration bellow.
+    */
+   @SuppressWarnings("unchecked")
+   @ApiOperation(value = "Streams all available bank slips created.")
+   @ApiResponses(value = {
+      @ApiResponse(
+         code = 200,
+         message = "Ok",
+         response = SavedBankSlipDTO.class,
+         responseContainer = "List"
+      ),
+      @ApiResponse(
+         code = 400,
+         message = INVALID_FILTER_PROVIDED + " | " + FIELDS_NOT_SUPPORTED,
+         response = String.class
+      ),
+      @ApiResponse(
+         code = 404,
+         message = "No bank slip found",
+         response = String.class
+      ),
+      @ApiResponse(
+         code = 500,
+         message = "Internal Server Error",
+         response = String.class,
+         responseHeaders = {
+            @ResponseHeader(
+               name = ISERROR,
+               description = "Could not find all bank slips: CAUSE_MESSAGE",
+               response = String.class)
+         }
+      )
+   })
+   @GetMapping(params = STREAM_PARAM, produces = MediaType.APPLICATION_JSON_VALUE)
+   ResponseEntity<StreamingResponseBody> streamAll(
+      @ApiParam(value = "Status of the bank slips.")
+      @RequestParam(required = false) BankSlipStatusEnum status,
+      @ApiParam(value = "Customer's name (exact match).")
+      @RequestParam(required = false) String customer,
+      @ApiParam(value = "Customer's name prefix.")
+      @RequestParam(required = false) String customerPrefix,
+      @ApiParam(value = "First due date (yyyy-MM-dd).")
+      @RequestParam(required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueDateFrom,
+      @ApiParam(value = "Last due date (yyyy-MM-dd).")
+      @RequestParam(required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueDateTo,
+      @ApiParam(value = "Not supported (400 if present).")
+      @RequestParam(required = false) String fields) {
+      LOGGER.debug("Stream all bank slips requested");
+      ResponseEntityBuilder<StreamingResponseBody> builder =
          ResponseEntityBuilder.builder();
       try{
-         List<BankSlip> entities = repository.findAll();
-         builder.body(SavedBankSlipDTO.toDTOs(entities));
+         BankSlipFilter filter = toFilter(status, customer, customerPrefix,
+            dueDateFrom, dueDateTo);
+         Optional<String> badRequest = toBadRequest(filter, fields);
+         if(badRequest.isPresent()){
+            LOGGER.debug("Response: BAD_REQUEST");
+            builder.body(out -> out.write(
+               badRequest.get().getBytes(StandardCharsets.UTF_8)))
+               .BAD_REQUEST();
+         } else {
+            doStreamAll(filter, builder);
+         }
       } catch (Exception e) {
          processErrorResponse(builder, e, FIND_ALL_ISERROR_MESSAGE);
       }
       return builder.build();
    }
+   
+   /**
+    * Streams all available bank slips created that match a filter.
+    * @param filter Filter of bank slips.
+    * @param builder Response entity builder.
+    */
+   private void doStreamAll(BankSlipFilter filter,
+                            ResponseEntityBuilder<StreamingResponseBody> builder) {
+      Stream<BankSlip> entities = filter.isEmpty()
+         ? repository.streamAllBy() : repository.streamAllFiltered(filter);
+      JsonArrayStreamingResponseBody<SavedBankSlipDTO> body =
+         new JsonArrayStreamingResponseBody<>(
+            objectMapper.writerFor(SavedBankSlipDTO.class),
+            entities.map(SavedBankSlipDTO::toDTO));
+      builder.body(body);
+      if(body.isEmpty()){
+         LOGGER.debug("Response: NOT_FOUND");
+         builder.NOT_FOUND();
+      } else {
+         LOGGER.debug("Response: OK");
+      }
+   }
+
+   /**
+    * Endpoint: GET http://address:port/rest/bankslips?limit=N&after=CURSOR
+    * Lists one page of bank slips, ordered by due date and id. Pages are
+    * found by seeking right after the cursor (keyset pagination), so every
+    * page costs the same as the first one. They can be filtered just like
+    * they are when listed (fields can't be selected).
+    *
+    * @param limit Maximum number of bank slips in this page.
+    * @param after Cursor returned with the previous page (NEXT-CURSOR header).
+    * @param status Status of the bank slips.
+    * @param customer Customer's name (exact match).
+    * @param customerPrefix Customer's name prefix.
+    * @param dueDateFrom First due date (yyyy-MM-dd).
+    * @param dueDateTo Last due date (yyyy-MM-dd).
+    * @param fields Selected properties (not supported).
+    * @return See Swagger configuration bellow.
+    */
+   @SuppressWarnings("unchecked")
+   @ApiOperation(value = "Lists one page of bank slips created.")
+   @ApiResponses(value = {
+      @ApiResponse(
+         code = 200,
+         message = "Ok",
+         response = SavedBankSlipDTO.class,
+         responseContainer = "List",
+         responseHeaders = @ResponseHeader(
+            name = NEXT_CURSOR,
+            description = "Cursor of the next page (absent on last page)",
+            response = String.class)
+      ),
+      @ApiResponse(
+         code = 400,
+         message = INVALID_PAGE_LIMIT_PROVIDED + " | "
+            + INVALID_PAGE_CURSOR_PROVIDED + " | " + INVALID_FILTER_PROVIDED
+            + " | " + FIELDS_NOT_SUPPORTED,
+         response = String.class
+      ),
+      @ApiResponse(
+         code = 404,
+         message = "No bank slip found",
+         response = String.class
+      ),
+      @ApiResponse(
+         code = 500,
+         message = "Internal Server Error",
+         response = String.class,
+         responseHeaders = {
+            @ResponseHeader(
+               name = ISERROR,
+               description = "Could not find this page of bank slips: CAUSE_MESSAGE",
+               response = String.class)
+         }
+      )
+   })
+   @GetMapping(params = LIMIT_PARAM,
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.TEXT_PLAIN_VALUE})
+   Object findPage(
+      @ApiParam(value = "Maximum number of bank slips in this page.",
+         required = true)
+      @RequestParam int limit,
+      @ApiParam(value = "Cursor returned with the previous page.")
+      @RequestParam(required = false) String after,
+      @ApiParam(value = "Status of the bank slips.")
+      @RequestParam(required = false) BankSlipStatusEnum status,
+      @ApiParam(value = "Customer's name (exact match).")
+      @RequestParam(required = false) String customer,
+      @ApiParam(value = "Customer's name prefix.")
+      @RequestParam(required = false) String customerPrefix,
+      @ApiParam(value = "First due date (yyyy-MM-dd).")
+      @RequestParam(required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueDateFrom,
+      @ApiParam(value = "Last due date (yyyy-MM-dd).")
+      @RequestParam(required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueDateTo,
+      @ApiParam(value = "Not supported (400 if present).")
+      @RequestParam(required = false) String fields) {
+      LOGGER.debug("Page of bank slips requested: {} after {}", limit, after);
+      return execute(() -> {
+         ResponseEntityBuilder builder = ResponseEntityBuilder.builder();
+         try{
+            BankSlipFilter filter = toFilter(status, customer, customerPrefix,
+               dueDateFrom, dueDateTo);
+            Optional<String> badRequest = toBadRequest(filter, fields);
+            if(badRequest.isPresent()){
+               LOGGER.debug("Response: BAD_REQUEST");
+               builder.body(badRequest.get()).BAD_REQUEST();
+            } else {
+               doFindPage(limit, after, filter, builder);
+            }
+         } catch (Exception e) {
+            processErrorResponse(builder, e, FIND_PAGE_ISERROR_MESSAGE);
+         }
+         return builder.build();
+      });
+   }
+   
+   /**
+    * Lists one page of bank slips that match a filter, ordered by due date
+    * and id.
+    * @param limit Maximum number of bank slips in this page.
+    * @param after Cursor returned with the previous page.
+    * @param filter Filter of bank slips.
+    * @param builder Response entity builder.
+    */
+   @SuppressWarnings("unchecked")
+   private void doFindPage(int limit, String after, BankSlipFilter filter,
+                           ResponseEntityBuilder builder) {
+      Optional<BankSlipPageCursor> cursor = decodeCursor(after);
+      if(limit < 1 || limit > MAX_PAGE_LIMIT){
+         LOGGER.debug("Response: BAD_REQUEST");
+         builder.body(INVALID_PAGE_LIMIT_PROVIDED).BAD_REQUEST();
+      } else if(null != after && !cursor.isPresent()){
+         LOGGER.debug("Response: BAD_REQUEST");
+         builder.body(INVALID_PAGE_CURSOR_PROVIDED).BAD_REQUEST();
+      } else {
+         // One extra bank slip tells whether there is a next page.
+         PageRequest pageable = PageRequest.of(0, limit + 1);
+         List<BankSlip> entities;
+         if(filter.isEmpty()){
+            entities = cursor
+               .map(c -> repository
+                  .findByDueDateGreaterThanOrDueDateAndIdGreaterThanOrderByDueDateAscIdAsc(
+                     c.getDueDate(), c.getDueDate(), c.getId(), pageable))
+               .orElseGet(() -> repository.findAllByOrderByDueDateAscIdAsc(pageable));
+         } else {
+            entities = repository.findPageFiltered(filter,
+               cursor.map(BankSlipPageCursor::getDueDate).orElse(null),
+               cursor.map(BankSlipPageCursor::getId).orElse(null), limit + 1);
+         }
+         if(entities.size() > limit){
+            entities = entities.subList(0, limit);
+            builder.key(NEXT_CURSOR)
+               .value(BankSlipPageCursor.of(entities.get(limit - 1)).encode());
+         }
+         LOGGER.debug("Response: {}", entities.isEmpty() ? "NOT_FOUND" : "OK");
+         builder.body(SavedBankSlipDTO.toDTOs(entities));
+      }
+   }
+   
+   /**
+    * Decodes a page cursor.
+    * @param after Cursor returned with the previous page.
+    * @return The cursor, or empty if it was not provided or is invalid.
+    */
+   private Optional<BankSlipPageCursor> decodeCursor(String after) {
+      try {
+         return Optional.ofNullable(after).map(BankSlipPageCursor::decode);
+      } catch (IllegalArgumentException e) {
+         return Optional.empty();
+      }
+   }
 
    /**
     * Endpoint: GET http://address:port/rest/bankslips/{id}
     * Finds one bank slip defined by an ID and calculates fine in case of delays.
+    * Only some properties are sent if they are selected (fields=id,fine). The
+    * bank slip is still read whole, so it's served by the bank slip cache.
+    * It's sent with an ETag (from its version and current fine tier): if it
+    * matches If-None-Match, 304 is sent without building the bank slip.
     *
     * @param id Bank slip identifier.
+    * @param fields Selected properties of the bank slip (comma separated).
+    * @param ifNoneMatch ETag of the bank slip already held by the client.
     * @return See Swagger configuration bellow.
     */
    @SuppressWarnings("unchecked")
@@ -222,11 +1177,20 @@ class BankSlipController {
       @ApiResponse(
          code = 200,
          message = "Ok",
-         response = DetailedBankSlipDTO.class
+         response = DetailedBankSlipDTO.class,
+         responseHeaders = @ResponseHeader(
+            name = HttpHeaders.ETAG,
+            description = "Entity tag of the bank slip",
+            response = String.class)
+      ),
+      @ApiResponse(
+         code = 304,
+         message = NOT_MODIFIED
       ),
       @ApiResponse(
          code = 400,
-         message = INVALID_ID_PROVIDED_IT_MUST_BE_A_VALID_UUID,
+         message = INVALID_ID_PROVIDED_IT_MUST_BE_A_VALID_UUID + " | "
+            + INVALID_FIELDS_PROVIDED + "FIELDS",
          response = String.class
       ),
       @ApiResponse(
@@ -248,38 +1212,68 @@ class BankSlipController {
    })
    @GetMapping(path = "/{id}",
       produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.TEXT_PLAIN_VALUE})
-   ResponseEntity<DetailedBankSlipDTO> findById(
+   Object findById(
       @ApiParam(value = "Valid bank slip identifier.", required = true)
-      @PathVariable UUID id) {
-      LOGGER.info("Detailed bank slip requested: " + id);
-      ResponseEntityBuilder builder = ResponseEntityBuilder.builder();
-      try{
-         doFindById(id, builder);
-      } catch (Exception e) {
-         processErrorResponse(builder, e, FIND_ONE_ISERROR_MESSAGE);
-      }
-      return builder.build();
+      @PathVariable UUID id,
+      @ApiParam(value = "Properties of the bank slip (e.g. id,fine).")
+      @RequestParam(required = false) String fields,
+      @ApiParam(value = "ETag of the bank slip already held by the client.")
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+      String ifNoneMatch) {
+      LOGGER.debug("Detailed bank slip requested: {}", id);
+      return execute(() -> {
+         ResponseEntityBuilder builder = ResponseEntityBuilder.builder();
+         try{
+            doFindById(id, fields, ifNoneMatch, builder);
+         } catch (Exception e) {
+            processErrorResponse(builder, e, FIND_ONE_ISERROR_MESSAGE);
+         }
+         return builder.build();
+      });
    }
    
    /**
     * Finds one bank slip defined by an ID and calculates fine in case of delays.
     * @param id Bank slip identifier.
+    * @param fields Selected properties (null if all of them).
+    * @param ifNoneMatch ETag of the bank slip already held by the client.
     * @param builder Response entity builder.
     */
    @SuppressWarnings("unchecked")
-   private void doFindById(UUID id, ResponseEntityBuilder builder) {
-      if(!id.toString().matches(UUID_PATTERN)){
-         LOGGER.info("Response: BAD_REQUEST");
+   private void doFindById(UUID id, String fields, String ifNoneMatch,
+                           ResponseEntityBuilder builder) {
+      Optional<Set<String>> properties = null == fields ? Optional.empty()
+         : BankSlipFields.parse(fields, BankSlipFields.DETAILED);
+      if(!idValidator.isValid(id)){
+         LOGGER.debug("Response: BAD_REQUEST");
          builder.body(INVALID_ID_PROVIDED_IT_MUST_BE_A_VALID_UUID)
             .BAD_REQUEST();
+      } else if(null != fields && !properties.isPresent()){
+         LOGGER.debug("Response: BAD_REQUEST");
+         builder.body(INVALID_FIELDS_PROVIDED + BankSlipFields.DETAILED)
+            .BAD_REQUEST();
       } else {
-         Optional<BankSlip> optional = repository.findById(id);
+         Optional<BankSlip> optional =
+            cache.findById(id, repository::findById);
          if(optional.isPresent()){
-            LOGGER.info("Response: OK");
-            DetailedBankSlipDTO dto = DetailedBankSlipDTO.toDTO(optional.get());
-            builder.body(dto);
+            BankSlip entity = optional.get();
+            String etag = BankSlipETags.of(entity,
+               fineCalculator.getFineRate(entity));
+            builder.key(HttpHeaders.ETAG).value(etag);
+            if(BankSlipETags.matches(ifNoneMatch, etag)){
+               LOGGER.debug("Response: NOT_MODIFIED");
+               builder.NOT_MODIFIED();
+            } else {
+               LOGGER.debug("Response: OK");
+               DetailedBankSlipDTO dto = DetailedBankSlipDTO.toDTO(entity,
+                  fineCalculator.calculateFine(entity));
+               builder.body(properties
+                  .map(selected ->
+                     (Object) BankSlipFields.toView(dto, selected))
+                  .orElse(dto));
+            }
          } else {
-            LOGGER.info("Response: NOT_FOUND");
+            LOGGER.debug("Response: NOT_FOUND");
             builder.body(BANKSLIP_NOT_FOUND_WITH_THE_SPECIFIED_ID)
                .NOT_FOUND();
          }
@@ -288,7 +1282,11 @@ class BankSlipController {
    
    /**
     * Endpoint : PUT http://address:port/rest/bankslips/{id}
-    * Pays or Cancels a bank slip defined by an ID.
+    * Pays or Cancels a pending bank slip defined by an ID, with one atomic
+    * conditional update. With an If-Match header (its ETag), it's changed only
+    * if it's still at the version read by the client (optimistic locking),
+    * otherwise a conflict (409) is answered by
+    * {@link BankSlipExceptionHandlerAdvice}.
     * Format:
     * {
     *    "status" : "PAID"
@@ -300,6 +1298,7 @@ class BankSlipController {
     *
     * @param id Bank slip identifier.
     * @param status Bank slip status.
+    * @param ifMatch ETag of the bank slip read by the client.
     * @return See Swagger configuration bellow.
     */
    @ApiOperation(value = "Pays or Cancels a bank slip defined by an ID.")
@@ -320,6 +1319,17 @@ class BankSlipController {
                response = String.class),
          }
       ),
+      @ApiResponse(
+         code = 400,
+         message = INVALID_IF_MATCH_PROVIDED,
+         response = String.class
+      ),
+      @ApiResponse(
+         code = 409,
+         message = BANKSLIP_ALREADY_SETTLED + " | "
+            + BANKSLIP_CHANGED_CONCURRENTLY,
+         response = String.class
+      ),
       @ApiResponse(
          code = 422,
          message = "422 : Invalid bankslip status provided (PENDING)",
@@ -339,58 +1349,192 @@ class BankSlipController {
    })
    @PutMapping(path = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE,
       produces = MediaType.TEXT_PLAIN_VALUE)
-   ResponseEntity payOrCancelOne(
+   Object payOrCancelOne(
       @ApiParam(value = "Valid bank slip identifier.", required = true)
       @PathVariable
       UUID id,
       @ApiParam(value = "Valid bank slip status type (PAID or CANCELED).",
          required = true)
       @RequestBody
-      UpdatedBankSlipStatusDTO status) {
-      LOGGER.info("Pay or cancel bank slip requested: " + id);
-      ResponseEntityBuilder<String> builder = ResponseEntityBuilder.builder();
-      try{
-         doPayOrCancelOne(id, status, builder);
-      } catch (Exception e) {
-         processErrorResponse(builder, e, PAY_OR_CANCEL_ISERROR_MESSAGE);
-      }
-      return builder.build();
+      UpdatedBankSlipStatusDTO status,
+      @ApiParam(value = "ETag of the bank slip read before (it's changed "
+         + "only if it's still the same).")
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+      String ifMatch) {
+      LOGGER.debug("Pay or cancel bank slip requested: {}", id);
+      return execute(() -> {
+         ResponseEntityBuilder<String> builder =
+            ResponseEntityBuilder.builder();
+         try{
+            doPayOrCancelOne(id, status, ifMatch, builder);
+         } catch (OptimisticLockingFailureException e) {
+            throw e;
+         } catch (Exception e) {
+            processErrorResponse(builder, e, PAY_OR_CANCEL_ISERROR_MESSAGE);
+         }
+         return builder.build();
+      });
    }
    
    /**
     * Pays or Cancels a bank slip defined by an ID.
     * @param id Bank slip identifier.
     * @param status Bank slip status.
+    * @param ifMatch If-Match header (null if not provided).
     * @param builder Response entity builder.
     */
    private void doPayOrCancelOne(UUID id,
                                  UpdatedBankSlipStatusDTO status,
+                                 String ifMatch,
                                  ResponseEntityBuilder<String> builder) {
-      if(BankSlipStatusEnum.PENDING.equals(status.getStatus())){
-         LOGGER.info("Response: UNPROCESSABLE_ENTITY");
+      if(!BankSlipETags.isValidIfMatch(ifMatch)){
+         LOGGER.debug("Response: BAD_REQUEST");
+         builder.body(INVALID_IF_MATCH_PROVIDED).BAD_REQUEST();
+      } else if(BankSlipStatusEnum.PENDING.equals(status.getStatus())){
+         LOGGER.debug("Response: UNPROCESSABLE_ENTITY");
          builder.body(INVALID_BANKSLIP_STATUS_PROVIDED)
             .UNPROCESSABLE_ENTITY();
       } else {
-         Optional<BankSlip> optional = repository.findById(id);
-         if (!optional.isPresent()) {
-            LOGGER.info("Response: NOT_FOUND");
+         Long version = BankSlipETags.versionOf(ifMatch);
+         BankSlipTransitionEnum outcome = null == version
+            ? repository.updateStatus(id, status.getStatus())
+            : repository.updateStatus(id, status.getStatus(), version);
+         cache.invalidate(id);
+         if (BankSlipTransitionEnum.NOT_FOUND.equals(outcome)) {
+            LOGGER.debug("Response: NOT_FOUND");
             builder.body(BANKSLIP_NOT_FOUND_WITH_THE_SPECIFIED_ID)
                .NOT_FOUND();
+         } else if (BankSlipTransitionEnum.ALREADY_SETTLED.equals(outcome)) {
+            LOGGER.debug("Response: CONFLICT");
+            builder.body(BANKSLIP_ALREADY_SETTLED).CONFLICT();
+         } else if (BankSlipTransitionEnum.PAID.equals(outcome)) {
+            LOGGER.debug("Response: OK - PAID");
+            builder.body(BANKSLIP_PAID);
          } else {
-            BankSlip entity = optional.get();
-            entity.setStatus(status.getStatus());
-            repository.save(entity);
-            if(BankSlipStatusEnum.PAID.equals(status.getStatus())){
-               LOGGER.info("Response: OK - PAID");
-               builder.body(BANKSLIP_PAID);
-            } else {
-               LOGGER.info("Response: OK - CANCELED");
-               builder.body(BANKSLIP_CANCELED);
-            }
+            LOGGER.debug("Response: OK - CANCELED");
+            builder.body(BANKSLIP_CANCELED);
          }
       }
    }
    
+   /**
+    * Endpoint : PUT http://address:port/rest/bankslips/bulk
+    * Pays or Cancels many bank slips at once, with a single bulk write.
+    * Format:
+    * [
+    *    { "id" : "84e8adbf-1a14-403b-ad73-d78ae19b59bf", "status" : "PAID" },
+    *    { "id" : "3f1cbd3c-3dd2-4d8e-a2a4-4e1a6ebd5d31", "status" : "CANCELED" }
+    * ]
+    *
+    * @param statuses Bank slips statuses.
+    * @return See Swagger configuration bellow.
+    */
+   @SuppressWarnings("unchecked")
+   @ApiOperation(value = "Pays or Cancels many bank slips at once.")
+   @ApiResponses(value = {
+      @ApiResponse(
+         code = 200,
+         message = "Ok",
+         response = BulkBankSlipStatusResultDTO.class,
+         responseContainer = "List"
+      ),
+      @ApiResponse(
+         code = 400,
+         message = BANKSLIP_STATUSES_NOT_PROVIDED_IN_THE_REQUEST_BODY,
+         response = String.class
+      ),
+      @ApiResponse(
+         code = 422,
+         message = INVALID_BANKSLIP_STATUSES_PROVIDED,
+         response = String.class
+      ),
+      @ApiResponse(
+         code = 500,
+         message = "Internal Server Error",
+         response = String.class,
+         responseHeaders = {
+            @ResponseHeader(
+               name = ISERROR,
+               description = "Could not pay or cancel these bank slips: CAUSE_MESSAGE",
+               response = String.class)
+         }
+      )
+   })
+   @PutMapping(path = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.TEXT_PLAIN_VALUE})
+   Object payOrCancelAll(
+      @ApiParam(value = "Valid bank slips identifiers and statuses (PAID or CANCELED).",
+         required = true)
+      @RequestBody
+      List<BulkUpdatedBankSlipStatusDTO> statuses) {
+      LOGGER.debug("Pay or cancel bank slips requested: {}", statuses.size());
+      return execute(() -> {
+         ResponseEntityBuilder builder = ResponseEntityBuilder.builder();
+         try{
+            doPayOrCancelAll(statuses, builder);
+         } catch (Exception e) {
+            processErrorResponse(builder, e, PAY_OR_CANCEL_ALL_ISERROR_MESSAGE);
+         }
+         return builder.build();
+      });
+   }
+   
+   /**
+    * Pays or Cancels many bank slips at once.
+    * @param statuses Bank slips statuses.
+    * @param builder Response entity builder.
+    */
+   @SuppressWarnings("unchecked")
+   private void doPayOrCancelAll(List<BulkUpdatedBankSlipStatusDTO> statuses,
+                                 ResponseEntityBuilder builder) {
+      if(statuses.isEmpty()){
+         LOGGER.debug("Response: BAD_REQUEST");
+         builder.body(BANKSLIP_STATUSES_NOT_PROVIDED_IN_THE_REQUEST_BODY)
+            .BAD_REQUEST();
+      } else if(!statuses.stream().allMatch(
+         BulkUpdatedBankSlipStatusDTO::isValid)){
+         LOGGER.debug("Response: UNPROCESSABLE_ENTITY");
+         builder.body(INVALID_BANKSLIP_STATUSES_PROVIDED)
+            .UNPROCESSABLE_ENTITY();
+      } else {
+         // The last status sent for a repeated id prevails.
+         Map<UUID, BankSlipStatusEnum> statusById = new LinkedHashMap<>();
+         statuses.forEach(dto -> statusById.put(dto.getId(), dto.getStatus()));
+         Map<UUID, BankSlipTransitionEnum> outcomes;
+         try {
+            outcomes = repository.updateAllStatusUnordered(statusById);
+         } finally {
+            // Even if it failed, some of them may have been changed.
+            cache.invalidateAll(statusById.keySet());
+         }
+         LOGGER.debug("Response: OK - {} bank slips", outcomes.size());
+         builder.body(BulkBankSlipStatusResultDTO.toDTOs(outcomes));
+      }
+   }
+   
+   /**
+    * Runs a request on the bank slip request executor, when requests are
+    * asynchronous (bankslip.execution.mode=async), so Tomcat's thread is
+    * released while the request waits for the database. Otherwise, it runs
+    * on the request thread.
+    * @param request Request to run.
+    * @return Response entity, or its future (asynchronous requests).
+    */
+   private Object execute(Supplier<ResponseEntity> request) {
+      if(null == executor){
+         return request.get();
+      }
+      try {
+         return CompletableFuture.supplyAsync(request, executor);
+      } catch (RejectedExecutionException e) {
+         LOGGER.warn("Bank slip request rejected: executor is saturated");
+         return ResponseEntityBuilder.<String>builder()
+            .body(BANKSLIP_SERVICE_UNAVAILABLE)
+            .SERVICE_UNAVAILABLE()
+            .build();
+      }
+   }
+   
    /**
     * Processes error responses.
     * @param builder Response entity builder.
@@ -403,6 +1547,8 @@ class BankSlipController {
       String ticket = generateErrorTicket();
       String message = errorMessage + ticket + e.getMessage();
       LOGGER.error(message, e);
+      registry.counter(ERROR_TICKETS, EXCEPTION, e.getClass().getSimpleName())
+         .increment();
       builder.key(ISERROR).value(message).INTERNAL_SERVER_ERROR();
    }
    
@@ -0,0 +1,132 @@
+package br.com.acmattos.bankslip.rest;
+
+import br.com.acmattos.bankslip.data.BankSlip;
+import br.com.acmattos.bankslip.fine.FineRate;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Entity tags (ETag header) of bank slips, built from their versions and
+ * current fine rates (fine tiers): a bank slip's representation only changes
+ * when it changes (new version) or when its fine moves to another tier, so
+ * conditional requests (If-None-Match) are answered without building it.
+ * @author acmattos
+ */
+final class BankSlipETags {
+   private static final String QUOTE = "\"";
+   private static final String SEPARATOR = "-";
+   private static final String WEAK_PREFIX = "W/";
+   private static final String ANY = "*";
+   private static final String LIST_SEPARATOR = ",";
+   private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+   private static final long FNV_PRIME = 0x100000001b3L;
+   private static final Pattern ENTITY_TAG =
+      Pattern.compile("\"(\\d{1,18})" + SEPARATOR + "[^\"]*\"");
+
+   private BankSlipETags() {}
+
+   /**
+    * Builds the entity tag of a bank slip.
+    * @param entity Bank slip.
+    * @param rate Its current fine rate.
+    * @return Entity tag (quoted).
+    */
+   static String of(BankSlip entity, FineRate rate) {
+      return QUOTE + getVersion(entity) + SEPARATOR
+         + rate.getValue().toPlainString() + QUOTE;
+   }
+
+   /**
+    * Builds the entity tag of a list of bank slips (without fines), hashing
+    * the id and version of each one of them, in order.
+    * @param entities Bank slips.
+    * @return Entity tag (quoted).
+    */
+   static String of(List<BankSlip> entities) {
+      long hash = mix(FNV_OFFSET_BASIS, entities.size());
+      for (BankSlip entity : entities) {
+         hash = mix(hash, entity.getId().getMostSignificantBits());
+         hash = mix(hash, entity.getId().getLeastSignificantBits());
+         hash = mix(hash, getVersion(entity));
+      }
+      return QUOTE + Long.toHexString(hash) + QUOTE;
+   }
+
+   /**
+    * Verifies if an If-None-Match header matches an entity tag (weak
+    * comparison, as required for If-None-Match).
+    * @param ifNoneMatch If-None-Match header (null if not sent).
+    * @param etag Current entity tag.
+    * @return true if the client's representation is current (304), or false
+    *         otherwise.
+    */
+   static boolean matches(String ifNoneMatch, String etag) {
+      if(null == ifNoneMatch){
+         return false;
+      }
+      for (String tag : ifNoneMatch.split(LIST_SEPARATOR)) {
+         String trimmed = tag.trim();
+         if(ANY.equals(trimmed)){
+            return true;
+         }
+         if(trimmed.startsWith(WEAK_PREFIX)){
+            trimmed = trimmed.substring(WEAK_PREFIX.length());
+         }
+         if(etag.equals(trimmed)){
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Verifies if an If-Match header is valid: absent, any (*) or a single
+    * entity tag of a bank slip (weak tags never match, as required for
+    * If-Match).
+    * @param ifMatch If-Match header (null if not sent).
+    * @return true if it's valid, or false otherwise.
+    */
+   static boolean isValidIfMatch(String ifMatch) {
+      return null == ifMatch || ANY.equals(ifMatch.trim())
+         || ENTITY_TAG.matcher(ifMatch.trim()).matches();
+   }
+   
+   /**
+    * Gets the version of a bank slip required by a valid If-Match header.
+    * Only the version is required: fine rates change by themselves, as days
+    * go by, not by requests.
+    * @param ifMatch If-Match header (null if not sent).
+    * @return Version required, or null if any version is accepted.
+    */
+   static Long versionOf(String ifMatch) {
+      if(null == ifMatch || ANY.equals(ifMatch.trim())){
+         return null;
+      }
+      Matcher matcher = ENTITY_TAG.matcher(ifMatch.trim());
+      if(!matcher.matches()){
+         throw new IllegalArgumentException("Invalid If-Match: " + ifMatch);
+      }
+      return Long.valueOf(matcher.group(1));
+   }
+   
+   /**
+    * Gets the version of a bank slip (0 if it has none yet).
+    * @param entity Bank slip.
+    * @return Version.
+    */
+   private static long getVersion(BankSlip entity) {
+      return null == entity.getVersion() ? 0L : entity.getVersion();
+   }
+
+   /**
+    * Mixes a value into a hash (FNV-1a, one long at a time).
+    * @param hash Current hash.
+    * @param value Value.
+    * @return New hash.
+    */
+   private static long mix(long hash, long value) {
+      return (hash ^ value) * FNV_PRIME;
+   }
+}
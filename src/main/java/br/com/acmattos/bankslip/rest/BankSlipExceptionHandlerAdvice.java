@@ -1,7 +1,10 @@
 package br.com.acmattos.bankslip.rest;
 
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -13,11 +16,15 @@ import org.springframework.web.method.annotation.MethodArgumentTypeMismatchExcep
  * @author acmattos
  */
 @ControllerAdvice
+@ConditionalOnWebApplication(type = Type.SERVLET)
 class BankSlipExceptionHandlerAdvice {
-   private static final Log LOGGER =
-      LogFactory.getLog(BankSlipExceptionHandlerAdvice.class);
+   private static final Logger LOGGER =
+      LoggerFactory.getLogger(BankSlipExceptionHandlerAdvice.class);
    private static final String INVALID_ID_PROVIDED_IT_MUST_BE_A_VALID_UUID =
       "400 : Invalid id provided - it must be a valid UUID";
+   private static final String INVALID_PARAMETER_PROVIDED =
+      "400 : Invalid value provided for parameter: ";
+   private static final String ID = "id";
    private static final String BANKSLIP_NOT_PROVIDED_IN_THE_REQUEST_BODY =
       "400 : Bankslip not provided in the request body";
    private static final String
@@ -28,6 +35,8 @@ class BankSlipExceptionHandlerAdvice {
    private static final String DUE_DATE = "dueDate";
    private static final String NEW_BANK_SLIP_DTO_DUE_DATE =
       "NewBankSlipDTO[\"dueDate\"]";
+   private static final String BANKSLIP_CHANGED_CONCURRENTLY =
+      "409 : Bankslip changed since it was read - get it again and retry";
    
    /**
     * Handle HttpMessageNotReadableException.
@@ -42,14 +51,14 @@ class BankSlipExceptionHandlerAdvice {
       boolean handleUnprocessableEntity =
          ex.getMessage().contains(NEW_BANK_SLIP_DTO_DUE_DATE);
       if(handleUnprocessableEntity){
-         LOGGER.info("Response: UNPROCESSABLE_ENTITY");
+         LOGGER.debug("Response: UNPROCESSABLE_ENTITY");
          builder.key(DUE_DATE).value(DATE_FORMAT_ACCEPTED_YYYY_MM_DD);
          builder
             .body(INVALID_BANKSLIP_PROVIDED_CHECK_HEADERS_FOR_MORE_INFORMATION)
             .UNPROCESSABLE_ENTITY();
       } else {
          // if(ex.getMessage().contains("Required request body is missing"))
-         LOGGER.info("Response: BAD_REQUEST");
+         LOGGER.debug("Response: BAD_REQUEST");
          builder
             .body(BANKSLIP_NOT_PROVIDED_IN_THE_REQUEST_BODY)
             .BAD_REQUEST();
@@ -65,9 +74,30 @@ class BankSlipExceptionHandlerAdvice {
    @ExceptionHandler({MethodArgumentTypeMismatchException.class})
    public ResponseEntity handleMethodArgumentTypeMismatchException(
       MethodArgumentTypeMismatchException ex) {
-      LOGGER.info("Response: BAD_REQUEST");
+      LOGGER.debug("Response: BAD_REQUEST");
       ResponseEntityBuilder<String> builder = ResponseEntityBuilder.builder();
-      builder.body(INVALID_ID_PROVIDED_IT_MUST_BE_A_VALID_UUID).BAD_REQUEST();
+      if(null == ex.getName() || ID.equals(ex.getName())){
+         builder.body(INVALID_ID_PROVIDED_IT_MUST_BE_A_VALID_UUID);
+      } else {
+         builder.body(INVALID_PARAMETER_PROVIDED + ex.getName());
+      }
+      builder.BAD_REQUEST();
+      return builder.build();
+   }
+   
+   /**
+    * Handle OptimisticLockingFailureException: a bank slip was changed by
+    * another request (possibly on another node) since the client read it.
+    * The client reads it again (new ETag) and retries.
+    * @param ex OptimisticLockingFailureException
+    * @return CONFLICT.
+    */
+   @ExceptionHandler({OptimisticLockingFailureException.class})
+   public ResponseEntity handleOptimisticLockingFailure(
+      OptimisticLockingFailureException ex) {
+      LOGGER.debug("Response: CONFLICT - {}", ex.getMessage());
+      ResponseEntityBuilder<String> builder = ResponseEntityBuilder.builder();
+      builder.body(BANKSLIP_CHANGED_CONCURRENTLY).CONFLICT();
       return builder.build();
    }
 }
@@ -0,0 +1,117 @@
+package br.com.acmattos.bankslip.rest;
+
+import br.com.acmattos.bankslip.data.BankSlipProjection;
+import org.springframework.util.Assert;
+
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Bank slip properties selected by clients (fields=id,totalInCents), and the
+ * views that hold only them. Views are serialized just like the DTOs they
+ * stand for (same names, same formats).
+ * @author acmattos
+ */
+final class BankSlipFields {
+   private static final String ID = "id";
+   private static final String DUE_DATE = "dueDate";
+   private static final String TOTAL_IN_CENTS = "totalInCents";
+   private static final String CUSTOMER = "customer";
+   private static final String FINE = "fine";
+   private static final String STATUS = "status";
+   private static final String SEPARATOR = ",";
+   private static final DateTimeFormatter DATE_FORMAT =
+      DateTimeFormatter.ISO_LOCAL_DATE.withZone(ZoneOffset.UTC);
+   
+   /** Properties of SavedBankSlipDTO. */
+   static final List<String> SAVED = Collections.unmodifiableList(
+      Arrays.asList(ID, DUE_DATE, TOTAL_IN_CENTS, CUSTOMER));
+   
+   /** Properties of DetailedBankSlipDTO. */
+   static final List<String> DETAILED = Collections.unmodifiableList(
+      Arrays.asList(ID, DUE_DATE, TOTAL_IN_CENTS, CUSTOMER, FINE, STATUS));
+   
+   private BankSlipFields() {}
+   
+   /**
+    * Parses the properties selected by a client (comma separated).
+    * @param fields Selected properties.
+    * @param available Properties that can be selected.
+    * @return Selected properties, in the order of the available ones, or
+    *         empty if any of them is not available (or none was selected).
+    */
+   static Optional<Set<String>> parse(String fields, List<String> available) {
+      Assert.notNull(fields, "fields can't be null!");
+      Set<String> selected = new LinkedHashSet<>();
+      for (String field : fields.split(SEPARATOR)) {
+         selected.add(field.trim());
+      }
+      if(!available.containsAll(selected)){
+         return Optional.empty();
+      }
+      Set<String> ordered = new LinkedHashSet<>(available);
+      ordered.retainAll(selected);
+      return Optional.of(ordered);
+   }
+   
+   /**
+    * Converts bank slips read with a projection into views.
+    * @param projections Bank slips (selected properties only).
+    * @param fields Selected properties.
+    * @return Views of the given bank slips.
+    */
+   static List<Map<String, Object>> toViews(
+      List<BankSlipProjection> projections, Set<String> fields) {
+      Assert.notNull(projections, "projections can't be null!");
+      List<Map<String, Object>> views = new ArrayList<>();
+      projections.forEach(projection -> {
+         Map<String, Object> view = new LinkedHashMap<>();
+         view.put(ID, projection.getId());
+         view.put(DUE_DATE, format(projection.getDueDate()));
+         view.put(TOTAL_IN_CENTS, projection.getTotalInCents());
+         view.put(CUSTOMER, projection.getCustomer());
+         view.keySet().retainAll(fields);
+         views.add(view);
+      });
+      return views;
+   }
+   
+   /**
+    * Converts a detailed bank slip into a view.
+    * @param dto Detailed bank slip.
+    * @param fields Selected properties.
+    * @return View of the given bank slip.
+    */
+   static Map<String, Object> toView(DetailedBankSlipDTO dto,
+                                     Set<String> fields) {
+      Assert.notNull(dto, "dto can't be null!");
+      Map<String, Object> view = new LinkedHashMap<>();
+      view.put(ID, dto.getId());
+      view.put(DUE_DATE, format(dto.getDueDate()));
+      view.put(TOTAL_IN_CENTS, dto.getTotalInCents());
+      view.put(CUSTOMER, dto.getCustomer());
+      view.put(FINE, dto.getFine());
+      view.put(STATUS, dto.getStatus());
+      view.keySet().retainAll(fields);
+      return view;
+   }
+   
+   /**
+    * Formats a date as DTOs do (yyyy-MM-dd).
+    * @param date Date.
+    * @return Formatted date (null if date is null).
+    */
+   private static String format(Date date) {
+      return null == date ? null : DATE_FORMAT.format(date.toInstant());
+   }
+}
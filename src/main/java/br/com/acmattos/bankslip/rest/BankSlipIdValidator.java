@@ -0,0 +1,40 @@
+package br.com.acmattos.bankslip.rest;
+
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Validates bank slip identifiers already parsed into UUIDs, by checking
+ * their version and variant bits (no string, regex or matcher is created).
+ *
+ * Valid identifiers have version 1 to 5 or 7 (time-ordered), and any variant
+ * but the one reserved for future definition (111).
+ *
+ * @author acmattos
+ */
+@Component
+class BankSlipIdValidator {
+   /** One bit set per valid version: 1, 2, 3, 4, 5 and 7. */
+   private static final int VALID_VERSIONS = 0b1011_1110;
+   private static final int VERSION_SHIFT = 12;
+   private static final long VERSION_MASK = 0xFL;
+   private static final int VARIANT_SHIFT = 61;
+   private static final long RESERVED_VARIANT = 0b111L;
+   
+   /**
+    * Verifies if a bank slip identifier is valid.
+    * @param id Bank slip identifier.
+    * @return true if it's valid, or false otherwise.
+    */
+   boolean isValid(UUID id) {
+      if(null == id){
+         return false;
+      }
+      int version = (int)
+         ((id.getMostSignificantBits() >>> VERSION_SHIFT) & VERSION_MASK);
+      long variant = id.getLeastSignificantBits() >>> VARIANT_SHIFT;
+      return (VALID_VERSIONS & (1 << version)) != 0
+         && RESERVED_VARIANT != variant;
+   }
+}
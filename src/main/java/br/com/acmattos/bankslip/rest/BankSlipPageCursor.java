@@ -0,0 +1,77 @@
+package br.com.acmattos.bankslip.rest;
+
+import br.com.acmattos.bankslip.data.BankSlip;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.util.Assert;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Opaque keyset pagination cursor: holds the due date and the id of the last
+ * bank slip of a page, so the next page can seek right after it.
+ * @author acmattos
+ */
+@ToString
+@EqualsAndHashCode
+@Getter
+class BankSlipPageCursor {
+   private static final int TOKEN_LENGTH = Long.BYTES * 3;
+
+   /** Due date of the last bank slip of a page. */
+   private final Date dueDate;
+   /** Identifier of the last bank slip of a page. */
+   private final UUID id;
+
+   /**
+    * Keep it private (use factory methods)!
+    * @param dueDate Due date of the last bank slip of a page.
+    * @param id Identifier of the last bank slip of a page.
+    */
+   private BankSlipPageCursor(Date dueDate, UUID id) {
+      this.dueDate = dueDate;
+      this.id = id;
+   }
+
+   /**
+    * Builds a cursor that points right after the given entity.
+    * @param entity Last bank slip of a page.
+    * @return A cursor.
+    */
+   static BankSlipPageCursor of(BankSlip entity) {
+      Assert.notNull(entity, "entity can't be null!");
+      return new BankSlipPageCursor(entity.getDueDate(), entity.getId());
+   }
+
+   /**
+    * Decodes a token previously generated by {@link #encode()}.
+    * @param token Opaque cursor token.
+    * @return A cursor.
+    * @throws IllegalArgumentException if the token is invalid.
+    */
+   static BankSlipPageCursor decode(String token) {
+      Assert.hasLength(token, "token can't be null or empty!");
+      byte[] bytes = Base64.getUrlDecoder().decode(token);
+      Assert.isTrue(TOKEN_LENGTH == bytes.length, "token is invalid!");
+      ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      return new BankSlipPageCursor(new Date(buffer.getLong()),
+         new UUID(buffer.getLong(), buffer.getLong()));
+   }
+
+   /**
+    * Encodes this cursor as an opaque (URL safe) token.
+    * @return Opaque cursor token.
+    */
+   String encode() {
+      ByteBuffer buffer = ByteBuffer.allocate(TOKEN_LENGTH)
+         .putLong(this.dueDate.getTime())
+         .putLong(this.id.getMostSignificantBits())
+         .putLong(this.id.getLeastSignificantBits());
+      return Base64.getUrlEncoder().withoutPadding()
+         .encodeToString(buffer.array());
+   }
+}
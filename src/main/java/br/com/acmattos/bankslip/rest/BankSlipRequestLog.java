@@ -0,0 +1,54 @@
+package br.com.acmattos.bankslip.rest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Structured log of bank slip requests: one line per request, with its
+ * endpoint, bank slip id (if any), outcome (response status) and latency.
+ *
+ * Messages are parameterized, so nothing is formatted unless INFO is
+ * enabled, and they're written by an asynchronous appender (see
+ * logback-spring.xml), so request threads never wait for the console.
+ *
+ * @author acmattos
+ */
+final class BankSlipRequestLog {
+   private static final Logger LOGGER =
+      LoggerFactory.getLogger(BankSlipRequestLog.class);
+   private static final String REDACTED = "***";
+
+   private BankSlipRequestLog() {}
+
+   /**
+    * Logs a completed request.
+    * @param method HTTP method.
+    * @param pattern Endpoint path pattern (e.g. /bankslips/{id}).
+    * @param id Bank slip id (null if the endpoint has none).
+    * @param status Response status.
+    * @param startNanos Start of this request (System.nanoTime()).
+    */
+   static void log(String method, Object pattern, Object id, int status,
+                   long startNanos) {
+      if(LOGGER.isInfoEnabled()) {
+         LOGGER.info("endpoint={} {} id={} outcome={} latencyMicros={}",
+            method, pattern, id, status,
+            TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+      }
+   }
+
+   /**
+    * Redacts a customer's name, keeping its first character only, so log
+    * lines can still be told apart without exposing who the customer is.
+    * @param customer Customer's name.
+    * @return Redacted customer's name (null if there's none).
+    */
+   static String redact(String customer) {
+      if(null == customer || customer.isEmpty()) {
+         return customer;
+      }
+      return customer.charAt(0) + REDACTED;
+   }
+}
@@ -0,0 +1,59 @@
+package br.com.acmattos.bankslip.rest;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+
+/**
+ * Logs every request served by {@link BankSlipController} once it's
+ * completed (see {@link BankSlipRequestLog}).
+ * @author acmattos
+ */
+@Component
+@ConditionalOnWebApplication(type = Type.SERVLET)
+class BankSlipRequestLogInterceptor extends HandlerInterceptorAdapter
+   implements WebMvcConfigurer {
+   private static final String START =
+      BankSlipRequestLogInterceptor.class.getName() + ".START";
+   private static final String BANKSLIPS_PATTERN = "/bankslips/**";
+   private static final String ID = "id";
+
+   @Override
+   public void addInterceptors(InterceptorRegistry registry) {
+      registry.addInterceptor(this).addPathPatterns(BANKSLIPS_PATTERN);
+   }
+
+   @Override
+   public boolean preHandle(HttpServletRequest request,
+                            HttpServletResponse response, Object handler) {
+      // Streamed responses are dispatched again: keep the first start.
+      if(null == request.getAttribute(START)) {
+         request.setAttribute(START, System.nanoTime());
+      }
+      return true;
+   }
+
+   @Override
+   @SuppressWarnings("unchecked")
+   public void afterCompletion(HttpServletRequest request,
+                               HttpServletResponse response, Object handler,
+                               Exception e) {
+      Object start = request.getAttribute(START);
+      if(start instanceof Long) {
+         Map<String, String> variables = (Map<String, String>) request
+            .getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+         BankSlipRequestLog.log(request.getMethod(),
+            request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE),
+            null == variables ? null : variables.get(ID),
+            response.getStatus(), (Long) start);
+      }
+   }
+}
@@ -0,0 +1,68 @@
+package br.com.acmattos.bankslip.rest;
+
+import br.com.acmattos.bankslip.data.BankSlipStatusEnum;
+import br.com.acmattos.bankslip.data.BankSlipSummary;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.util.Assert;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary of the bank slips of a customer with some status whenever a client
+ * requests for the bank slip summary.
+ * @author acmattos
+ */
+@ApiModel(
+   value="BankSlipSummaryDTO",
+   description="Summary of the bank slips of a customer with some status")
+@ToString
+@Getter
+@Builder
+class BankSlipSummaryDTO implements Serializable {
+   /** Customer's name of the bank slips. */
+   @ApiModelProperty(example="ACME Company", position = 1, required = true,
+      readOnly = true)
+   private final String customer;
+   
+   /** Status of the bank slips. */
+   @ApiModelProperty(example="PENDING, PAID or CANCELED", position = 2,
+      required = true, readOnly = true)
+   private final BankSlipStatusEnum status;
+   
+   /** Number of bank slips. */
+   @ApiModelProperty(example="10", position = 3, required = true,
+      readOnly = true)
+   private final long count;
+   
+   /** Sum of the totals in cents of the bank slips. */
+   @ApiModelProperty(example="1000000", position = 4, required = true,
+      readOnly = true)
+   private final BigDecimal totalInCents;
+   
+   /**
+    * Converts a list of summaries into a list of DTOs.
+    *
+    * @param summaries Summaries of bank slips.
+    * @return A list of DTOs equivalent to the given summaries.
+    */
+   static List<BankSlipSummaryDTO> toDTOs(List<BankSlipSummary> summaries){
+      Assert.notNull(summaries, "summaries can't be null!");
+      
+      List<BankSlipSummaryDTO> dtos = new ArrayList<>();
+      summaries.forEach(summary -> dtos.add(BankSlipSummaryDTO.builder()
+         .customer(summary.getCustomer())
+         .status(summary.getStatus())
+         .count(summary.getCount())
+         .totalInCents(summary.getTotalInCents())
+         .build()));
+      
+      return dtos;
+   }
+}
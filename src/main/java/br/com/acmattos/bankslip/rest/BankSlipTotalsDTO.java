@@ -0,0 +1,81 @@
+package br.com.acmattos.bankslip.rest;
+
+import br.com.acmattos.bankslip.data.BankSlipStatusEnum;
+import br.com.acmattos.bankslip.data.BankSlipTotals;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.util.Assert;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Totals of a group of bank slips whenever a client requests for receivables
+ * totals. Keys of groups that were not requested are not sent.
+ * @author acmattos
+ */
+@ApiModel(
+   value="BankSlipTotalsDTO",
+   description="Totals of a group of bank slips")
+@ToString
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+class BankSlipTotalsDTO implements Serializable {
+   /** Status of the bank slips. */
+   @ApiModelProperty(example="PENDING, PAID or CANCELED", position = 1,
+      readOnly = true)
+   private final BankSlipStatusEnum status;
+   
+   /** Customer's name of the bank slips. */
+   @ApiModelProperty(example="ACME Company", position = 2, readOnly = true)
+   private final String customer;
+   
+   /** Due month of the bank slips. */
+   @ApiModelProperty(example="Month (format: yyyy-MM)", position = 3,
+      readOnly = true)
+   private final String dueMonth;
+   
+   /** Number of bank slips. */
+   @ApiModelProperty(example="10", position = 4, required = true,
+      readOnly = true)
+   private final long count;
+   
+   /** Sum of the totals in cents of the bank slips. */
+   @ApiModelProperty(example="1000000", position = 5, required = true,
+      readOnly = true)
+   private final BigDecimal totalInCents;
+   
+   /** Sum of the fines projected for the bank slips (today). */
+   @ApiModelProperty(example="5000", position = 6, required = true,
+      readOnly = true)
+   private final BigDecimal fine;
+   
+   /**
+    * Converts a list of totals into a list of DTOs.
+    *
+    * @param totals Totals of groups of bank slips.
+    * @return A list of DTOs equivalent to the given totals.
+    */
+   static List<BankSlipTotalsDTO> toDTOs(List<BankSlipTotals> totals){
+      Assert.notNull(totals, "totals can't be null!");
+      
+      List<BankSlipTotalsDTO> dtos = new ArrayList<>();
+      totals.forEach(total -> dtos.add(BankSlipTotalsDTO.builder()
+         .status(total.getStatus())
+         .customer(total.getCustomer())
+         .dueMonth(total.getDueMonth())
+         .count(total.getCount())
+         .totalInCents(total.getTotalInCents())
+         .fine(total.getFine())
+         .build()));
+      
+      return dtos;
+   }
+}
@@ -0,0 +1,72 @@
+package br.com.acmattos.bankslip.rest;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.*;
+import org.springframework.util.Assert;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bank Slip bulk creation result, one for each bank slip sent by a client.
+ * @author acmattos
+ */
+@ApiModel(
+   value="BulkBankSlipResultDTO",
+   description="Result of one bank slip of a bulk creation")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@ToString
+@EqualsAndHashCode
+@Getter
+class BulkBankSlipResultDTO implements Serializable {
+   /** Position of the bank slip in the request body (zero based). */
+   @ApiModelProperty(example="0", position = 1, required = true,
+      readOnly = true)
+   private final int index;
+   /** Identifier of the created bank slip (absent if it failed). */
+   @ApiModelProperty(example="84e8adbf-1a14-403b-ad73-d78ae19b59bf",
+      position = 2, readOnly = true)
+   private final UUID id;
+   /** Reasons why the bank slip was not created (absent if it succeeded). */
+   @ApiModelProperty(example="{\"customer\": \"Can't be null or empty!\"}",
+      position = 3, readOnly = true)
+   private final Map<String, String> errors;
+
+   /**
+    * Keep it private (use factory methods)!
+    * @param index Position of the bank slip in the request body.
+    * @param id Identifier of the created bank slip.
+    * @param errors Reasons why the bank slip was not created.
+    */
+   private BulkBankSlipResultDTO(int index, UUID id,
+                                 Map<String, String> errors) {
+      this.index = index;
+      this.id = id;
+      this.errors = errors;
+   }
+
+   /**
+    * Builds the result of a created bank slip.
+    * @param index Position of the bank slip in the request body.
+    * @param id Identifier of the created bank slip.
+    * @return A DTO.
+    */
+   static BulkBankSlipResultDTO created(int index, UUID id) {
+      Assert.notNull(id, "id can't be null!");
+      return new BulkBankSlipResultDTO(index, id, null);
+   }
+
+   /**
+    * Builds the result of a bank slip that could not be created.
+    * @param index Position of the bank slip in the request body.
+    * @param errors Reasons why the bank slip was not created.
+    * @return A DTO.
+    */
+   static BulkBankSlipResultDTO failed(int index, Map<String, String> errors) {
+      Assert.notEmpty(errors, "errors can't be null or empty!");
+      return new BulkBankSlipResultDTO(index, null, errors);
+   }
+}
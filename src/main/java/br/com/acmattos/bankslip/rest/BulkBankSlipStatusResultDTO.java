@@ -0,0 +1,63 @@
+package br.com.acmattos.bankslip.rest;
+
+import br.com.acmattos.bankslip.data.BankSlipTransitionEnum;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.*;
+import org.springframework.util.Assert;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bank Slip bulk pay or cancel result, one for each bank slip sent by a
+ * client.
+ * @author acmattos
+ */
+@ApiModel(
+   value="BulkBankSlipStatusResultDTO",
+   description="Result of one bank slip of a bulk pay or cancel")
+@ToString
+@EqualsAndHashCode
+@Getter
+class BulkBankSlipStatusResultDTO implements Serializable {
+   /** Identifier of this bank slip. */
+   @ApiModelProperty(example="84e8adbf-1a14-403b-ad73-d78ae19b59bf",
+      position = 1, required = true, readOnly = true)
+   private final UUID id;
+   /** Outcome of the status change. */
+   @ApiModelProperty(example="PAID, CANCELED, NOT_FOUND, ALREADY_SETTLED or FAILED",
+      position = 2, required = true, readOnly = true)
+   private final BankSlipTransitionEnum outcome;
+
+   /**
+    * Keep it private (use factory methods)!
+    * @param id Identifier of this bank slip.
+    * @param outcome Outcome of the status change.
+    */
+   private BulkBankSlipStatusResultDTO(UUID id,
+                                       BankSlipTransitionEnum outcome) {
+      this.id = id;
+      this.outcome = outcome;
+   }
+
+   /**
+    * Converts outcomes into a list of DTOs.
+    *
+    * @param outcomes Outcome of each status change, by id.
+    * @return A list of DTOs equivalent to the given outcomes.
+    */
+   static List<BulkBankSlipStatusResultDTO> toDTOs(
+      Map<UUID, BankSlipTransitionEnum> outcomes) {
+      Assert.notNull(outcomes, "outcomes can't be null!");
+
+      List<BulkBankSlipStatusResultDTO> dtos = new ArrayList<>();
+      outcomes.forEach((id, outcome) ->
+         dtos.add(new BulkBankSlipStatusResultDTO(id, outcome)));
+
+      return dtos;
+   }
+}
@@ -0,0 +1,44 @@
+package br.com.acmattos.bankslip.rest;
+
+import br.com.acmattos.bankslip.data.BankSlipStatusEnum;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Bank Slip Status view whenever a client requests for a bulk pay or cancel
+ * operation (one for each bank slip).
+ * @author acmattos
+ */
+@ApiModel(
+   value="BulkUpdatedBankSlipStatusDTO",
+   description="Bank slip's status change of a bulk pay or cancel")
+@ToString
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+class BulkUpdatedBankSlipStatusDTO implements Serializable {
+   /** Identifier of this bank slip. */
+   @ApiModelProperty(example="84e8adbf-1a14-403b-ad73-d78ae19b59bf",
+      position = 1, required = true)
+   @NonNull
+   private UUID id;
+   /** Status of this bank slip. */
+   @ApiModelProperty(example="PAID or CANCELED", position = 2, required = true)
+   @NonNull
+   private BankSlipStatusEnum status;
+   
+   /**
+    * Verifies if this status change can be requested.
+    * @return true if it has an id and a PAID or CANCELED status, or false
+    *         otherwise.
+    */
+   boolean isValid() {
+      return null != this.id && null != this.status
+         && !BankSlipStatusEnum.PENDING.equals(this.status);
+   }
+}
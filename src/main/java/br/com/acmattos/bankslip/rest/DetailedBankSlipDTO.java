@@ -57,12 +57,13 @@ class DetailedBankSlipDTO extends AbstractBankSlipDTO {
    }
 
    /**
-    * Converts an entity into a DTO, calculating fine.
+    * Converts an entity into a DTO, with a fine already calculated.
     *
     * @param entity Bank slip.
+    * @param fine Fine of this bank slip.
     * @return A DTO equivalent to the given entity.
     */
-   static DetailedBankSlipDTO toDTO(BankSlip entity){
+   static DetailedBankSlipDTO toDTO(BankSlip entity, BigDecimal fine){
       if(null == entity){
          return null;
       }
@@ -72,7 +73,7 @@ class DetailedBankSlipDTO extends AbstractBankSlipDTO {
          .dueDate(entity.getDueDate())
          .totalInCents(entity.getTotalInCents())
          .customer(entity.getCustomer())
-         .fine(entity.calculateFine())
+         .fine(fine)
          .status(entity.getStatus())
          .build();
    }
@@ -0,0 +1,81 @@
+package br.com.acmattos.bankslip.rest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.util.Assert;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes a stream of DTOs to the response as a JSON array, one element at a
+ * time, so the whole result set is never held in memory.
+ *
+ * The given stream is always closed (releasing its database cursor) once the
+ * body is written.
+ *
+ * @author acmattos
+ */
+class JsonArrayStreamingResponseBody<T> implements StreamingResponseBody {
+   /** Writer used to serialize every element. */
+   private final ObjectWriter writer;
+   /** Stream of elements to be written. */
+   private final Stream<T> stream;
+   /** Iterator over the stream of elements. */
+   private final Iterator<T> iterator;
+   /** Whether there is no element to be written. */
+   private final boolean empty;
+
+   /**
+    * Builds an instance of this class, checking right away if there is any
+    * element to be written.
+    *
+    * @param writer Writer used to serialize every element.
+    * @param stream Stream of elements to be written.
+    */
+   JsonArrayStreamingResponseBody(ObjectWriter writer, Stream<T> stream) {
+      Assert.notNull(writer, "writer can't be null!");
+      Assert.notNull(stream, "stream can't be null!");
+      this.writer = writer
+         .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+         .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+      this.stream = stream;
+      try {
+         this.iterator = stream.iterator();
+         this.empty = !this.iterator.hasNext();
+      } catch (RuntimeException e) {
+         stream.close();
+         throw e;
+      }
+   }
+
+   /**
+    * Verifies if there is no element to be written.
+    * @return true if the stream has no elements, or false otherwise.
+    */
+   boolean isEmpty() {
+      return this.empty;
+   }
+
+   /**
+    * Writes all elements as a JSON array.
+    * @param outputStream Response output stream.
+    * @throws IOException in case of writing failure.
+    */
+   @Override
+   public void writeTo(OutputStream outputStream) throws IOException {
+      try (SequenceWriter sequence =
+              this.writer.writeValuesAsArray(outputStream)) {
+         while (this.iterator.hasNext()) {
+            sequence.write(this.iterator.next());
+         }
+      } finally {
+         this.stream.close();
+      }
+   }
+}
@@ -0,0 +1,473 @@
+package br.com.acmattos.bankslip.rest;
+
+import br.com.acmattos.bankslip.data.BankSlipStatusEnum;
+import br.com.acmattos.bankslip.data.BankSlipTransitionEnum;
+import br.com.acmattos.bankslip.data.ReactiveBankSlipRepository;
+import br.com.acmattos.bankslip.fine.FineCalculator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.swagger.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Non-blocking REST Controller that exposes the bank slip endpoints on
+ * WebFlux, when the application runs as a reactive web application
+ * (spring.main.web-application-type=reactive).
+ *
+ * Responses have the same status codes, headers and bodies sent by
+ * {@link BankSlipController}.
+ *
+ * @author acmattos
+ */
+@RestController
+@RequestMapping("/rest/bankslips")
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+class ReactiveBankSlipController {
+   private static final Logger LOGGER =
+      LoggerFactory.getLogger(ReactiveBankSlipController.class);
+   private static final String PAY_OR_CANCEL_ISERROR_MESSAGE =
+      "Could not pay or cancel this particular bank slip: ";
+   private static final String ISERROR = "iserror";
+   private static final String BANKSLIP_CANCELED = "200 : Bankslip canceled";
+   private static final String BANKSLIP_PAID = "200 : Bankslip paid";
+   private static final String BANKSLIP_NOT_FOUND_WITH_THE_SPECIFIED_ID =
+      "404 : Bankslip not found with the specified id";
+   private static final String BANKSLIP_ALREADY_SETTLED =
+      "409 : Bankslip already settled with a different status";
+   private static final String INVALID_BANKSLIP_STATUS_PROVIDED =
+      "422 : Invalid bankslip status provided (PENDING)";
+   private static final String INVALID_ID_PROVIDED_IT_MUST_BE_A_VALID_UUID =
+      "400 : Invalid id provided - it must be a valid UUID";
+   private static final String FIND_ONE_ISERROR_MESSAGE =
+      "Could not find this particular bank slip: ";
+   private static final String FIND_ALL_ISERROR_MESSAGE =
+      "Could not find all bank slips: ";
+   private static final String CREATE_ISERROR_MESSAGE =
+      "Could not create new bank slip: ";
+   private static final String TICKET_FORMAT = "[Ticket-%s] - ";
+   private static final String ERROR_TICKETS = "bankslip.error.tickets";
+   private static final String EXCEPTION = "exception";
+   private static final String
+      INVALID_BANKSLIP_PROVIDED_CHECK_HEADERS_FOR_MORE_INFORMATION =
+      "422 : Invalid bankslip provided. Check HEADERS for more information!";
+   private static final String BANKSLIP_CREATED = "201 : Bankslip created";
+   private static final String REST_BANKSLIPS_PATH = "/rest/bankslips/";
+   private static final String LOCATION = "Location";
+
+   private final ReactiveBankSlipRepository repository;
+
+   private final FineCalculator fineCalculator;
+
+   private final BankSlipIdValidator idValidator;
+
+   private final MeterRegistry registry;
+
+   /**
+    * Builds an instance of this class.
+    * @param repository Non-blocking bank slip repository.
+    * @param fineCalculator Fine calculator.
+    * @param idValidator Bank slip identifier validator.
+    * @param registry Meter registry (error tickets are counted).
+    */
+   ReactiveBankSlipController(ReactiveBankSlipRepository repository,
+                              FineCalculator fineCalculator,
+                              BankSlipIdValidator idValidator,
+                              MeterRegistry registry) {
+      this.repository = repository;
+      this.fineCalculator = fineCalculator;
+      this.idValidator = idValidator;
+      this.registry = registry;
+   }
+
+   /**
+    * Endpoint: POST http://address:port/rest/bankslips
+    * Creates a valid bank slip.
+    * Format:
+    * {
+    *    "due_date" : "2018-01-01" ,
+    *    "total_in_cents" : "100000" ,
+    *    "customer" : "ACME Company" ,
+    *    "status" : "PENDING"
+    * }
+    * @param newBankSlipDTO New bank slip to be created.
+    * @return See Swagger configuration bellow.
+    */
+   @ApiOperation(value = "Creates a valid bank slip.")
+   @ApiResponses(value = {
+      @ApiResponse(
+         code = 201,
+         message = BANKSLIP_CREATED,
+         response = String.class,
+         responseHeaders = @ResponseHeader(
+            name = LOCATION,
+            description = "/rest/bankslips/CREATED_BANK_SLIP_ID",
+            response = String.class)
+      ),
+      @ApiResponse(
+         code = 400,
+         message = "400 : Bankslip not provided in the request body",
+         response = String.class
+      ),
+      @ApiResponse(
+         code = 422,
+         message = INVALID_BANKSLIP_PROVIDED_CHECK_HEADERS_FOR_MORE_INFORMATION,
+         response = String.class
+      ),
+      @ApiResponse(
+         code = 500,
+         message = "Internal Server Error",
+         response = String.class,
+         responseHeaders = {
+            @ResponseHeader(
+               name = ISERROR,
+               description = "Could not create new bank slip: CAUSE_MESSAGE",
+               response = String.class)
+         }
+      )
+   })
+   @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE,
+                produces = MediaType.TEXT_PLAIN_VALUE)
+   @ResponseStatus(value = HttpStatus.CREATED)
+   Mono<ResponseEntity> create(
+      @ApiParam(value = "Valid bank slip data.", required = true)
+      @RequestBody
+      NewBankSlipDTO newBankSlipDTO){
+      if(LOGGER.isDebugEnabled()){
+         LOGGER.debug("New bank slip creation: dueDate={} totalInCents={} "
+            + "customer={}", newBankSlipDTO.getDueDate(),
+            newBankSlipDTO.getTotalInCents(),
+            BankSlipRequestLog.redact(newBankSlipDTO.getCustomer()));
+      }
+      return Mono.defer(() -> doCreate(newBankSlipDTO))
+         .onErrorResume(e -> processErrorResponse(e, CREATE_ISERROR_MESSAGE));
+   }
+
+   /**
+    * Creates a valid bank slip.
+    * @param newBankSlipDTO New bank slip to be created.
+    * @return Response entity.
+    */
+   private Mono<ResponseEntity> doCreate(NewBankSlipDTO newBankSlipDTO) {
+      Map<String, String> errorMap = newBankSlipDTO.validateMe();
+      if(!errorMap.isEmpty()){
+         LOGGER.debug("Response: UNPROCESSABLE_ENTITY");
+         ResponseEntityBuilder<String> builder = ResponseEntityBuilder.builder();
+         for (String key : errorMap.keySet()) {
+            builder.key(key).value(errorMap.get(key));
+         }
+         return Mono.just(builder
+            .body(INVALID_BANKSLIP_PROVIDED_CHECK_HEADERS_FOR_MORE_INFORMATION)
+            .UNPROCESSABLE_ENTITY()
+            .build());
+      }
+      return repository.create(newBankSlipDTO.toEntity())
+         .map(entity -> {
+            LOGGER.debug("Response: CREATED");
+            return ResponseEntityBuilder.<String>builder()
+               .key(LOCATION)
+               .value(REST_BANKSLIPS_PATH + entity.getId())
+               .body(BANKSLIP_CREATED)
+               .CREATED()
+               .build();
+         });
+   }
+
+   /**
+    * Endpoint: GET http://address:port/rest/bankslips
+    * Lists all available bank slips created. Bank slips are sent as soon as
+    * they are read from the database cursor when the client accepts
+    * application/stream+json (one JSON document per line), or as a JSON array
+    * otherwise.
+    * Just like BankSlipController, an empty collection is answered with 404.
+    * It's detected by counting bank slips (a count without filter is read
+    * from collection metadata) before streaming them: errors until then are
+    * answered with 500, while errors once streaming has started (status
+    * already sent) are only logged.
+    *
+    * @return See Swagger configuration bellow.
+    */
+   @SuppressWarnings("unchecked")
+   @ApiOperation(value = "Lists all available bank slips created.")
+   @ApiResponses(value = {
+      @ApiResponse(
+         code = 200,
+         message = "Ok",
+         response = SavedBankSlipDTO.class,
+         responseContainer = "List"
+      ),
+      @ApiResponse(
+         code = 404,
+         message = "No bank slip found",
+         response = String.class
+      ),
+      @ApiResponse(
+         code = 500,
+         message = "Internal Server Error",
+         response = String.class,
+         responseHeaders = {
+            @ResponseHeader(
+               name = ISERROR,
+               description = "Could not find all bank slips: CAUSE_MESSAGE",
+               response = String.class)
+         }
+      )
+   })
+   @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE,
+                           MediaType.APPLICATION_STREAM_JSON_VALUE})
+   Mono<ResponseEntity> findAll() {
+      LOGGER.debug("Find all bank slip requested");
+      return Mono.defer(this::doFindAll)
+         .onErrorResume(e -> processErrorResponse(e, FIND_ALL_ISERROR_MESSAGE));
+   }
+
+   /**
+    * Lists all available bank slips created (404 if there is none).
+    * @return Response entity.
+    */
+   @SuppressWarnings("unchecked")
+   private Mono<ResponseEntity> doFindAll() {
+      return repository.count()
+         .map(count -> {
+            if(0 == count){
+               LOGGER.debug("Response: NOT_FOUND");
+               return ResponseEntityBuilder.builder()
+                  .body(Collections.emptyList())
+                  .build();
+            }
+            LOGGER.debug("Response: OK");
+            Flux<SavedBankSlipDTO> dtos = repository.findAll()
+               .map(SavedBankSlipDTO::toDTO)
+               .doOnError(e -> LOGGER.error(FIND_ALL_ISERROR_MESSAGE
+                  + generateErrorTicket(e) + e.getMessage(), e));
+            return ResponseEntityBuilder.builder()
+               .body(dtos)
+               .build();
+         });
+   }
+
+   /**
+    * Endpoint: GET http://address:port/rest/bankslips/{id}
+    * Finds one bank slip defined by an ID and calculates fine in case of delays.
+    *
+    * @param id Bank slip identifier.
+    * @return See Swagger configuration bellow.
+    */
+   @ApiOperation(value = "Finds one bank slip defined by an ID and calculates fine in case of delays.")
+   @ApiResponses(value = {
+      @ApiResponse(
+         code = 200,
+         message = "Ok",
+         response = DetailedBankSlipDTO.class
+      ),
+      @ApiResponse(
+         code = 400,
+         message = INVALID_ID_PROVIDED_IT_MUST_BE_A_VALID_UUID,
+         response = String.class
+      ),
+      @ApiResponse(
+         code = 404,
+         message = BANKSLIP_NOT_FOUND_WITH_THE_SPECIFIED_ID,
+         response = String.class
+      ),
+      @ApiResponse(
+         code = 500,
+         message = "Internal Server Error",
+         response = String.class,
+         responseHeaders = {
+            @ResponseHeader(
+               name = ISERROR,
+               description = "Could not find this particular bank slip: CAUSE_MESSAGE",
+               response = String.class)
+         }
+      )
+   })
+   @GetMapping(path = "/{id}",
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.TEXT_PLAIN_VALUE})
+   Mono<ResponseEntity> findById(
+      @ApiParam(value = "Valid bank slip identifier.", required = true)
+      @PathVariable UUID id) {
+      LOGGER.debug("Detailed bank slip requested: {}", id);
+      return Mono.defer(() -> doFindById(id))
+         .onErrorResume(e -> processErrorResponse(e, FIND_ONE_ISERROR_MESSAGE));
+   }
+
+   /**
+    * Finds one bank slip defined by an ID and calculates fine in case of delays.
+    * @param id Bank slip identifier.
+    * @return Response entity.
+    */
+   @SuppressWarnings("unchecked")
+   private Mono<ResponseEntity> doFindById(UUID id) {
+      if(!idValidator.isValid(id)){
+         LOGGER.debug("Response: BAD_REQUEST");
+         return Mono.just(ResponseEntityBuilder.builder()
+            .body(INVALID_ID_PROVIDED_IT_MUST_BE_A_VALID_UUID)
+            .BAD_REQUEST()
+            .build());
+      }
+      return repository.findById(id)
+         .map(entity -> {
+            LOGGER.debug("Response: OK");
+            return ResponseEntityBuilder.builder()
+               .body(DetailedBankSlipDTO.toDTO(entity,
+                  fineCalculator.calculateFine(entity)))
+               .build();
+         })
+         .switchIfEmpty(Mono.fromSupplier(() -> {
+            LOGGER.debug("Response: NOT_FOUND");
+            return ResponseEntityBuilder.builder()
+               .body(BANKSLIP_NOT_FOUND_WITH_THE_SPECIFIED_ID)
+               .NOT_FOUND()
+               .build();
+         }));
+   }
+
+   /**
+    * Endpoint : PUT http://address:port/rest/bankslips/{id}
+    * Pays or Cancels a pending bank slip defined by an ID, with one atomic
+    * conditional update.
+    * Format:
+    * {
+    *    "status" : "PAID"
+    * }
+    * OR
+    * {
+    *    "status" : "CANCELED"
+    * }
+    *
+    * @param id Bank slip identifier.
+    * @param status Bank slip status.
+    * @return See Swagger configuration bellow.
+    */
+   @ApiOperation(value = "Pays or Cancels a bank slip defined by an ID.")
+   @ApiResponses(value = {
+      @ApiResponse(
+          code = 200,
+          message = "200 : Bankslip paid | Bankslip canceled",
+          response = String.class
+      ),
+      @ApiResponse(
+         code = 404,
+         message = BANKSLIP_NOT_FOUND_WITH_THE_SPECIFIED_ID,
+         response = String.class
+      ),
+      @ApiResponse(
+         code = 409,
+         message = BANKSLIP_ALREADY_SETTLED,
+         response = String.class
+      ),
+      @ApiResponse(
+         code = 422,
+         message = "422 : Invalid bankslip status provided (PENDING)",
+         response = String.class
+      ),
+      @ApiResponse(
+         code = 500,
+         message = "Internal Server Error",
+         response = String.class,
+         responseHeaders = {
+         @ResponseHeader(
+            name = ISERROR,
+            description = "Could not pay or cancel this particular bank slip: CAUSE_MESSAGE",
+            response = String.class)
+         }
+      )
+   })
+   @PutMapping(path = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.TEXT_PLAIN_VALUE)
+   Mono<ResponseEntity> payOrCancelOne(
+      @ApiParam(value = "Valid bank slip identifier.", required = true)
+      @PathVariable
+      UUID id,
+      @ApiParam(value = "Valid bank slip status type (PAID or CANCELED).",
+         required = true)
+      @RequestBody
+      UpdatedBankSlipStatusDTO status) {
+      LOGGER.debug("Pay or cancel bank slip requested: {}", id);
+      return Mono.defer(() -> doPayOrCancelOne(id, status))
+         .onErrorResume(e ->
+            processErrorResponse(e, PAY_OR_CANCEL_ISERROR_MESSAGE));
+   }
+
+   /**
+    * Pays or Cancels a bank slip defined by an ID.
+    * @param id Bank slip identifier.
+    * @param status Bank slip status.
+    * @return Response entity.
+    */
+   private Mono<ResponseEntity> doPayOrCancelOne(UUID id,
+                                                 UpdatedBankSlipStatusDTO status) {
+      if(BankSlipStatusEnum.PENDING.equals(status.getStatus())){
+         LOGGER.debug("Response: UNPROCESSABLE_ENTITY");
+         return Mono.just(ResponseEntityBuilder.<String>builder()
+            .body(INVALID_BANKSLIP_STATUS_PROVIDED)
+            .UNPROCESSABLE_ENTITY()
+            .build());
+      }
+      return repository.updateStatus(id, status.getStatus())
+         .map(this::toPayOrCancelResponse);
+   }
+
+   /**
+    * Converts the outcome of a status change into a response entity.
+    * @param outcome Outcome of the status change.
+    * @return Response entity.
+    */
+   private ResponseEntity toPayOrCancelResponse(
+      BankSlipTransitionEnum outcome) {
+      ResponseEntityBuilder<String> builder = ResponseEntityBuilder.builder();
+      if (BankSlipTransitionEnum.NOT_FOUND.equals(outcome)) {
+         LOGGER.debug("Response: NOT_FOUND");
+         builder.body(BANKSLIP_NOT_FOUND_WITH_THE_SPECIFIED_ID).NOT_FOUND();
+      } else if (BankSlipTransitionEnum.ALREADY_SETTLED.equals(outcome)) {
+         LOGGER.debug("Response: CONFLICT");
+         builder.body(BANKSLIP_ALREADY_SETTLED).CONFLICT();
+      } else if (BankSlipTransitionEnum.PAID.equals(outcome)) {
+         LOGGER.debug("Response: OK - PAID");
+         builder.body(BANKSLIP_PAID);
+      } else {
+         LOGGER.debug("Response: OK - CANCELED");
+         builder.body(BANKSLIP_CANCELED);
+      }
+      return builder.build();
+   }
+
+   /**
+    * Processes error responses.
+    * @param e Exception occurred during execution.
+    * @param errorMessage Error message to be sent to client.
+    * @return Response entity.
+    */
+   private Mono<ResponseEntity> processErrorResponse(Throwable e,
+                                                     String errorMessage) {
+      String ticket = generateErrorTicket(e);
+      String message = errorMessage + ticket + e.getMessage();
+      LOGGER.error(message, e);
+      return Mono.just(ResponseEntityBuilder.builder()
+         .key(ISERROR).value(message).INTERNAL_SERVER_ERROR()
+         .build());
+   }
+
+   /**
+    * Generates error ticket, counting it by exception.
+    * @param e Exception occurred during execution.
+    * @return Error ticket.
+    */
+   private String generateErrorTicket(Throwable e){
+      registry.counter(ERROR_TICKETS, EXCEPTION, e.getClass().getSimpleName())
+         .increment();
+      return String.format(TICKET_FORMAT, UUID.randomUUID().toString()) ;
+   }
+}
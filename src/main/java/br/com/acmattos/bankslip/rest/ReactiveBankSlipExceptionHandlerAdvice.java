@@ -0,0 +1,83 @@
+package br.com.acmattos.bankslip.rest;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.server.ServerWebInputException;
+
+/**
+ * Detects exceptional conditions of the reactive web application and
+ * prepare responses according to the case (the same responses prepared by
+ * {@link BankSlipExceptionHandlerAdvice}).
+ * @author acmattos
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+class ReactiveBankSlipExceptionHandlerAdvice {
+   private static final Logger LOGGER =
+      LoggerFactory.getLogger(ReactiveBankSlipExceptionHandlerAdvice.class);
+   private static final String INVALID_ID_PROVIDED_IT_MUST_BE_A_VALID_UUID =
+      "400 : Invalid id provided - it must be a valid UUID";
+   private static final String BANKSLIP_NOT_PROVIDED_IN_THE_REQUEST_BODY =
+      "400 : Bankslip not provided in the request body";
+   private static final String
+      INVALID_BANKSLIP_PROVIDED_CHECK_HEADERS_FOR_MORE_INFORMATION =
+      "422 : Invalid bankslip provided. Check HEADERS for more information!";
+   private static final String DATE_FORMAT_ACCEPTED_YYYY_MM_DD =
+      "Date format accepted: (yyyy-MM-dd)";
+   private static final String DUE_DATE = "dueDate";
+   private static final String NEW_BANK_SLIP_DTO_DUE_DATE =
+      "NewBankSlipDTO[\"dueDate\"]";
+   
+   /**
+    * Handle ServerWebInputException (invalid path variable or request body).
+    * @param ex ServerWebInputException
+    * @return BAD_REQUEST or UNPROCESSABLE_ENTITY.
+    */
+   @ExceptionHandler({ServerWebInputException.class})
+   public ResponseEntity handleServerWebInput(ServerWebInputException ex) {
+      ResponseEntityBuilder<String> builder = ResponseEntityBuilder.builder();
+      MethodParameter parameter = ex.getMethodParameter();
+      if(null != parameter
+         && parameter.hasParameterAnnotation(PathVariable.class)){
+         LOGGER.debug("Response: BAD_REQUEST");
+         builder.body(INVALID_ID_PROVIDED_IT_MUST_BE_A_VALID_UUID)
+            .BAD_REQUEST();
+      } else if(isInvalidDueDate(ex)){
+         LOGGER.debug("Response: UNPROCESSABLE_ENTITY");
+         builder.key(DUE_DATE).value(DATE_FORMAT_ACCEPTED_YYYY_MM_DD);
+         builder
+            .body(INVALID_BANKSLIP_PROVIDED_CHECK_HEADERS_FOR_MORE_INFORMATION)
+            .UNPROCESSABLE_ENTITY();
+      } else {
+         LOGGER.debug("Response: BAD_REQUEST");
+         builder
+            .body(BANKSLIP_NOT_PROVIDED_IN_THE_REQUEST_BODY)
+            .BAD_REQUEST();
+      }
+      return builder.build();
+   }
+   
+   /**
+    * Verifies if the request body could not be read because of an invalid
+    * due date.
+    * @param ex ServerWebInputException
+    * @return true if the due date is invalid, or false otherwise.
+    */
+   private boolean isInvalidDueDate(ServerWebInputException ex) {
+      for (Throwable cause = ex.getCause(); null != cause;
+           cause = cause.getCause()) {
+         if(cause instanceof JsonMappingException){
+            return cause.getMessage().contains(NEW_BANK_SLIP_DTO_DUE_DATE);
+         }
+      }
+      return false;
+   }
+}
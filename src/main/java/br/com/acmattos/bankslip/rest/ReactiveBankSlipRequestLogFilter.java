@@ -0,0 +1,49 @@
+package br.com.acmattos.bankslip.rest;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Logs every request served by {@link ReactiveBankSlipController} once it's
+ * completed (see {@link BankSlipRequestLog}).
+ * @author acmattos
+ */
+@Component
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+class ReactiveBankSlipRequestLogFilter implements WebFilter {
+   private static final String BANKSLIPS_PATH = "/rest/bankslips";
+   private static final String ID = "id";
+
+   @Override
+   public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+      if(!exchange.getRequest().getPath().value().startsWith(BANKSLIPS_PATH)){
+         return chain.filter(exchange);
+      }
+      long start = System.nanoTime();
+      return chain.filter(exchange).doFinally(signal -> log(exchange, start));
+   }
+
+   /**
+    * Logs a completed request.
+    * @param exchange Request and response.
+    * @param start Start of this request (System.nanoTime()).
+    */
+   private void log(ServerWebExchange exchange, long start) {
+      Map<String, String> variables = exchange
+         .getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+      HttpStatus status = exchange.getResponse().getStatusCode();
+      BankSlipRequestLog.log(exchange.getRequest().getMethodValue(),
+         exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE),
+         null == variables ? null : variables.get(ID),
+         null == status ? HttpStatus.OK.value() : status.value(), start);
+   }
+}
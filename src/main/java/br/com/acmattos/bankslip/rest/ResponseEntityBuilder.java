@@ -93,6 +93,15 @@ class ResponseEntityBuilder<T> {
       return this;
    }
 
+   /**
+    * HTTP Status 304.
+    * @return An instance of this builder.
+    */
+   public ResponseEntityBuilder<T> NOT_MODIFIED() {
+      this.httpStatus = HttpStatus.NOT_MODIFIED;
+      return this;
+   }
+
    /**
     * HTTP Status 400.
     * @return An instance of this builder.
@@ -111,6 +120,15 @@ class ResponseEntityBuilder<T> {
       return this;
    }
 
+   /**
+    * HTTP Status 409.
+    * @return An instance of this builder.
+    */
+   public ResponseEntityBuilder<T> CONFLICT() {
+      this.httpStatus = HttpStatus.CONFLICT;
+      return this;
+   }
+
    /**
     * HTTP Status 500.
     * @return An instance of this builder.
@@ -120,6 +138,15 @@ class ResponseEntityBuilder<T> {
       return this;
    }
 
+   /**
+    * HTTP Status 503.
+    * @return An instance of this builder.
+    */
+   public ResponseEntityBuilder<T> SERVICE_UNAVAILABLE() {
+      this.httpStatus = HttpStatus.SERVICE_UNAVAILABLE;
+      return this;
+   }
+
    /**
     * HTTP Status 422.
     * @return An instance of this builder.
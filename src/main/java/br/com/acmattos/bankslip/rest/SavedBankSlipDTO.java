@@ -64,7 +64,7 @@ class SavedBankSlipDTO extends AbstractBankSlipDTO {
     * @param entity Bank slip.
     * @return A DTO equivalent to the given entity.
     */
-   private static SavedBankSlipDTO toDTO(BankSlip entity){
+   static SavedBankSlipDTO toDTO(BankSlip entity){
       Assert.notNull(entity, "entity can't be null!");
 
       return SavedBankSlipDTO.builder()
@@ -0,0 +1,84 @@
+package br.com.acmattos.bankslip.data;
+
+import br.com.acmattos.bankslip.util.UnitTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+/**
+ * BankSlipCache Unit Tests.
+ * @author acmattos
+ */
+public class BankSlipCacheUTest extends UnitTest {
+   private BankSlipCache cache;
+   private BankSlip entity;
+   private AtomicInteger loads;
+   private Function<UUID, Optional<BankSlip>> loader;
+   
+   @Before
+   public void setUp() {
+      this.cache = new BankSlipCache(100, 60);
+      this.entity = BankSlip.builder()
+         .id(UUID.randomUUID())
+         .dueDate(new Date())
+         .totalInCents(new BigDecimal("100000"))
+         .customer("Customer")
+         .status(BankSlipStatusEnum.PENDING)
+         .build();
+      this.loads = new AtomicInteger();
+      this.loader = id -> {
+         this.loads.incrementAndGet();
+         return this.entity.getId().equals(id)
+            ? Optional.of(this.entity) : Optional.empty();
+      };
+   }
+   
+   @Test
+   public void findById_LoadsOnceThenHits() {
+      assertEquals(Optional.of(this.entity),
+         this.cache.findById(this.entity.getId(), this.loader));
+      assertEquals(Optional.of(this.entity),
+         this.cache.findById(this.entity.getId(), this.loader));
+      assertEquals("Loaded only once!", 1, this.loads.get());
+      assertEquals(1L, this.cache.getMissCount());
+      assertEquals(1L, this.cache.getHitCount());
+      assertEquals(1L, this.cache.getSize());
+   }
+   
+   @Test
+   public void findById_NotFoundIsNotCached() {
+      UUID id = UUID.randomUUID();
+      assertFalse(this.cache.findById(id, this.loader).isPresent());
+      assertFalse(this.cache.findById(id, this.loader).isPresent());
+      assertEquals("Loaded every time!", 2, this.loads.get());
+      assertEquals(0L, this.cache.getSize());
+   }
+   
+   @Test
+   public void invalidate_LoadsAgain() {
+      this.cache.findById(this.entity.getId(), this.loader);
+      this.cache.invalidate(this.entity.getId());
+      this.cache.findById(this.entity.getId(), this.loader);
+      this.cache.invalidateAll(Collections.singleton(this.entity.getId()));
+      this.cache.findById(this.entity.getId(), this.loader);
+      assertEquals("Loaded after each invalidation!", 3, this.loads.get());
+   }
+   
+   @Test
+   public void evictionCount_MaximumSize() {
+      BankSlipCache cache = new BankSlipCache(0, 60);
+      cache.findById(this.entity.getId(), this.loader);
+      cache.cleanUp();
+      assertEquals(0L, cache.getSize());
+      assertEquals(1L, cache.getEvictionCount());
+   }
+}
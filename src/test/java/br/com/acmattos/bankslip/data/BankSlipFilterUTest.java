@@ -0,0 +1,87 @@
+package br.com.acmattos.bankslip.data;
+
+import br.com.acmattos.bankslip.util.UnitTest;
+import org.bson.Document;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * BankSlipFilter Unit Tests.
+ * @author acmattos
+ */
+public class BankSlipFilterUTest extends UnitTest {
+   private static final Date FROM = new Date(1514764800000L); // 2018-01-01
+   private static final Date TO = new Date(1517356800000L);   // 2018-01-31
+
+   @Test
+   public void toQuery_Empty() {
+      BankSlipFilter filter = BankSlipFilter.builder().build();
+      Query query = filter.toQuery();
+
+      assertTrue(filter.isEmpty());
+      assertEquals(new Document(), query.getQueryObject());
+      assertEquals(new Document("dueDate", 1).append("id", 1),
+         query.getSortObject());
+   }
+
+   @Test
+   public void toQuery_StatusAndDueDateRange() {
+      BankSlipFilter filter = BankSlipFilter.builder()
+         .status(BankSlipStatusEnum.PENDING)
+         .dueDateFrom(FROM)
+         .dueDateTo(TO)
+         .build();
+
+      assertFalse(filter.isEmpty());
+      assertEquals(new Document("status", BankSlipStatusEnum.PENDING)
+            .append("dueDate", new Document("$gte", FROM).append("$lte", TO)),
+         filter.toQuery().getQueryObject());
+   }
+
+   @Test
+   public void toQuery_OpenDueDateRange() {
+      assertEquals(new Document("dueDate", new Document("$lte", TO)),
+         BankSlipFilter.builder().dueDateTo(TO).build()
+            .toQuery().getQueryObject());
+   }
+
+   @Test
+   public void toQuery_CustomerPrefix() {
+      Document query = BankSlipFilter.builder()
+         .customerPrefix("A.C+M (Co)")
+         .build().toQuery().getQueryObject();
+
+      Pattern regex = (Pattern) query.get("customer");
+      assertEquals("^A\\.C\\+M \\(Co\\)", regex.pattern());
+      assertTrue(regex.matcher("A.C+M (Co) Ltd").find());
+      assertFalse(regex.matcher("AXC+M (Co)").find());
+   }
+
+   @Test
+   public void toQuery_After() {
+      UUID id = UUID.randomUUID();
+      Document query = BankSlipFilter.builder()
+         .status(BankSlipStatusEnum.PAID)
+         .build().toQuery(FROM, id).getQueryObject();
+
+      assertEquals(BankSlipStatusEnum.PAID, query.get("status"));
+      assertEquals(Arrays.asList(
+            new Document("dueDate", new Document("$gt", FROM)),
+            new Document("dueDate", FROM).append("id", new Document("$gt", id))),
+         query.get("$or"));
+   }
+
+   @Test
+   public void toPrefixRegex() {
+      assertEquals("^ACME", BankSlipFilter.toPrefixRegex("ACME"));
+      assertEquals("^\\^\\$\\\\\\[\\]\\{\\}\\|\\?\\*",
+         BankSlipFilter.toPrefixRegex("^$\\[]{}|?*"));
+   }
+}
@@ -0,0 +1,173 @@
+package br.com.acmattos.bankslip.data;
+
+import br.com.acmattos.bankslip.util.UnitTest;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * BankSlipFineMaterializer Unit Tests.
+ * @author acmattos
+ */
+public class BankSlipFineMaterializerUTest extends UnitTest {
+   private static final Date FIRST = new Date(1514764800000L);  // 2018-01-01
+   private static final Date SECOND = new Date(1515628800000L); // 2018-01-11
+   private static final Date THIRD = new Date(1516492800000L);  // 2018-01-21
+   private static final BigDecimal HIGH = new BigDecimal("0.01");
+   private static final BigDecimal LOW = new BigDecimal("0.005");
+   
+   private MongoOperations operations;
+   private BulkOperations bulk;
+   private BankSlipFineMaterializer materializer;
+   
+   @Before
+   public void setUp() {
+      this.operations = mock(MongoOperations.class);
+      this.bulk = mock(BulkOperations.class);
+      when(this.operations.getCollectionName(BankSlip.class))
+         .thenReturn("bankslip");
+      when(this.operations.bulkOps(BulkOperations.BulkMode.UNORDERED,
+         BankSlip.class)).thenReturn(this.bulk);
+      when(this.bulk.execute()).thenAnswer(invocation ->
+         BulkWriteResult.acknowledged(0, 2, 0, 2, Collections.emptyList()));
+      when(this.operations.updateMulti(any(Query.class), any(Update.class),
+         eq(BankSlip.class))).thenReturn(UpdateResult.acknowledged(1L, 1L, null));
+      this.materializer = new BankSlipFineMaterializer(this.operations, 2);
+   }
+   
+   @Test
+   public void materialize_StoresFinesByChunk() {
+      when(this.operations.stream(any(Query.class),
+         eq(BankSlipProjection.class), eq("bankslip")))
+         .thenReturn(iterator(Collections.emptyList()))
+         .thenReturn(iterator(Arrays.asList(newProjection("100001"),
+            newProjection("100000"), newProjection("300"))));
+      
+      long updated = this.materializer.materialize(Arrays.asList(
+         new BankSlipFineRate(null, FIRST, HIGH),
+         new BankSlipFineRate(FIRST, SECOND, LOW)));
+      
+      assertEquals("2 chunks of 2 and 1 unfined range", 5L, updated);
+      ArgumentCaptor<Query> streamed = ArgumentCaptor.forClass(Query.class);
+      verify(this.operations, times(2)).stream(streamed.capture(),
+         eq(BankSlipProjection.class), eq("bankslip"));
+      Document first = streamed.getAllValues().get(0).getQueryObject();
+      assertEquals(new Document("$lt", FIRST), first.get("dueDate"));
+      assertEquals(new Document("$ne", new Decimal128(HIGH)),
+         first.get(BankSlipFineMaterializer.FINE_RATE));
+      assertEquals(new Document("$gte", FIRST).append("$lt", SECOND),
+         streamed.getAllValues().get(1).getQueryObject().get("dueDate"));
+      
+      ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+      verify(this.bulk, times(3)).updateOne(any(Query.class),
+         updates.capture());
+      verify(this.bulk, times(2)).execute();
+      assertEquals("Rounded HALF_EVEN", fine("500", LOW),
+         updates.getAllValues().get(0).getUpdateObject());
+      assertEquals(fine("500", LOW),
+         updates.getAllValues().get(1).getUpdateObject());
+      assertEquals(fine("2", LOW),
+         updates.getAllValues().get(2).getUpdateObject());
+      
+      ArgumentCaptor<Query> cleared = ArgumentCaptor.forClass(Query.class);
+      verify(this.operations, times(1)).updateMulti(cleared.capture(),
+         any(Update.class), eq(BankSlip.class));
+      assertEquals(new Document("$gte", SECOND),
+         cleared.getValue().getQueryObject().get("dueDate"));
+   }
+   
+   @Test
+   public void materialize_ClearsFinesOfRangesWithoutFine() {
+      when(this.operations.stream(any(Query.class),
+         eq(BankSlipProjection.class), eq("bankslip")))
+         .thenAnswer(invocation -> iterator(Collections.emptyList()));
+      
+      this.materializer.materialize(Arrays.asList(
+         new BankSlipFineRate(null, FIRST, HIGH),
+         new BankSlipFineRate(SECOND, THIRD, LOW)));
+      
+      ArgumentCaptor<Query> cleared = ArgumentCaptor.forClass(Query.class);
+      ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+      verify(this.operations, times(2)).updateMulti(cleared.capture(),
+         updates.capture(), eq(BankSlip.class));
+      assertEquals(new Document("$gte", FIRST).append("$lt", SECOND),
+         cleared.getAllValues().get(0).getQueryObject().get("dueDate"));
+      assertEquals(new Document("$gte", THIRD),
+         cleared.getAllValues().get(1).getQueryObject().get("dueDate"));
+      assertEquals(new Document("$unset",
+            new Document(BankSlipFineMaterializer.FINE, 1)
+               .append(BankSlipFineMaterializer.FINE_RATE, 1)),
+         updates.getValue().getUpdateObject());
+      verifyZeroInteractions(this.bulk);
+   }
+   
+   @Test
+   public void materialize_NoFines() {
+      this.materializer.materialize(Collections.emptyList());
+      
+      ArgumentCaptor<Query> cleared = ArgumentCaptor.forClass(Query.class);
+      verify(this.operations, times(1)).updateMulti(cleared.capture(),
+         any(Update.class), eq(BankSlip.class));
+      assertEquals(new Document("status", BankSlipStatusEnum.PENDING)
+            .append(BankSlipFineMaterializer.FINE_RATE,
+               new Document("$exists", true)),
+         cleared.getValue().getQueryObject());
+   }
+   
+   private BankSlipProjection newProjection(String totalInCents) {
+      BankSlipProjection projection = mock(BankSlipProjection.class);
+      when(projection.getId()).thenReturn(UUID.randomUUID());
+      when(projection.getTotalInCents())
+         .thenReturn(new BigDecimal(totalInCents));
+      return projection;
+   }
+   
+   private Document fine(String fine, BigDecimal rate) {
+      return new Document("$set", new Document()
+         .append(BankSlipFineMaterializer.FINE,
+            new Decimal128(new BigDecimal(fine)))
+         .append(BankSlipFineMaterializer.FINE_RATE, new Decimal128(rate)));
+   }
+   
+   private CloseableIterator<BankSlipProjection> iterator(
+      List<BankSlipProjection> projections) {
+      Iterator<BankSlipProjection> iterator = projections.iterator();
+      return new CloseableIterator<BankSlipProjection>() {
+         @Override
+         public boolean hasNext() {
+            return iterator.hasNext();
+         }
+         
+         @Override
+         public BankSlipProjection next() {
+            return iterator.next();
+         }
+         
+         @Override
+         public void close() {
+         }
+      };
+   }
+}
@@ -0,0 +1,172 @@
+package br.com.acmattos.bankslip.data;
+
+import br.com.acmattos.bankslip.util.UnitTest;
+import com.mongodb.MongoWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteError;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * BankSlipIdempotencyKeys Unit Tests.
+ * @author acmattos
+ */
+public class BankSlipIdempotencyKeysUTest extends UnitTest {
+   private static final String KEY = "retry-1";
+   private static final int DUPLICATE_KEY = 11000;
+
+   private MongoOperations operations;
+   private MongoCollection<Document> collection;
+   private BankSlipIdempotencyKeys keys;
+
+   @Before
+   @SuppressWarnings("unchecked")
+   public void setUp() {
+      this.operations = mock(MongoOperations.class);
+      this.collection = mock(MongoCollection.class);
+      when(this.operations.getCollection(BankSlipIdempotencyKeys.COLLECTION))
+         .thenReturn(this.collection);
+      this.keys = new BankSlipIdempotencyKeys(this.operations, 86400);
+   }
+
+   @Test
+   public void claim_NewKeyIsInsertedWithoutReads() {
+      BankSlip entity = newEntity("100000");
+
+      assertFalse(this.keys.claim(KEY, entity).isPresent());
+
+      ArgumentCaptor<Document> inserted =
+         ArgumentCaptor.forClass(Document.class);
+      verify(this.collection, times(1)).insertOne(inserted.capture());
+      verifyNoMoreInteractions(this.collection);
+      assertEquals(KEY, inserted.getValue().get("_id"));
+      assertEquals(entity.getId(), inserted.getValue().get("bank_slip_id"));
+      assertEquals("PENDING", inserted.getValue().get("state"));
+      assertEquals(BankSlipIdempotencyKeys.fingerprint(entity),
+         inserted.getValue().get("fingerprint"));
+      assertTrue("BSON date, as required by the TTL index",
+         inserted.getValue().get("created_at") instanceof Date);
+   }
+
+   @Test
+   public void claim_RepeatedKeyReturnsCreatedBankSlip() {
+      UUID created = UUID.randomUUID();
+      claimed(new Document("_id", KEY)
+         .append("bank_slip_id", created)
+         .append("fingerprint",
+            BankSlipIdempotencyKeys.fingerprint(newEntity("100000")))
+         .append("state", "COMMITTED"));
+
+      Optional<BankSlipCreation> claimed =
+         this.keys.claim(KEY, newEntity("100000.00"));
+
+      assertEquals(Optional.of(BankSlipCreation.builder()
+         .outcome(BankSlipCreationEnum.CREATED)
+         .id(created)
+         .build()), claimed);
+      verify(this.collection, times(1)).insertOne(any(Document.class));
+   }
+
+   @Test
+   public void claim_PendingKeyIsInProgress() {
+      claimed(new Document("_id", KEY)
+         .append("bank_slip_id", UUID.randomUUID())
+         .append("fingerprint",
+            BankSlipIdempotencyKeys.fingerprint(newEntity("100000")))
+         .append("state", "PENDING"));
+      when(this.operations.exists(any(Query.class), eq(BankSlip.class)))
+         .thenReturn(false);
+
+      assertEquals(BankSlipCreationEnum.IN_PROGRESS,
+         this.keys.claim(KEY, newEntity("100000")).get().getOutcome());
+   }
+
+   @Test
+   public void claim_PendingKeyOfExistingBankSlipIsCreated() {
+      UUID created = UUID.randomUUID();
+      claimed(new Document("_id", KEY)
+         .append("bank_slip_id", created)
+         .append("fingerprint",
+            BankSlipIdempotencyKeys.fingerprint(newEntity("100000")))
+         .append("state", "PENDING"));
+      when(this.operations.exists(any(Query.class), eq(BankSlip.class)))
+         .thenReturn(true);
+
+      Optional<BankSlipCreation> claimed =
+         this.keys.claim(KEY, newEntity("100000"));
+      assertEquals(BankSlipCreationEnum.CREATED, claimed.get().getOutcome());
+      assertEquals(created, claimed.get().getId());
+   }
+
+   @Test
+   public void claim_KeyOfDifferentBankSlipIsReused() {
+      claimed(new Document("_id", KEY)
+         .append("bank_slip_id", UUID.randomUUID())
+         .append("fingerprint",
+            BankSlipIdempotencyKeys.fingerprint(newEntity("100000")))
+         .append("state", "COMMITTED"));
+
+      Optional<BankSlipCreation> claimed =
+         this.keys.claim(KEY, newEntity("200000"));
+      assertEquals(BankSlipCreationEnum.KEY_REUSED,
+         claimed.get().getOutcome());
+      assertNull(claimed.get().getId());
+   }
+
+   @Test
+   public void commit_CommitsKey() {
+      this.keys.commit(KEY);
+
+      verify(this.collection, times(1))
+         .updateOne(any(Bson.class), any(Bson.class));
+   }
+
+   @Test
+   public void release_DeletesKey() {
+      this.keys.release(KEY);
+
+      verify(this.collection, times(1)).deleteOne(any(Bson.class));
+   }
+
+   /**
+    * Makes the key claimed before (insertion fails as a duplicate key).
+    * @param claimed Key claimed.
+    */
+   @SuppressWarnings("unchecked")
+   private void claimed(Document claimed) {
+      FindIterable<Document> found = mock(FindIterable.class);
+      doThrow(new MongoWriteException(new WriteError(DUPLICATE_KEY,
+         "duplicate key", new BsonDocument()), new ServerAddress()))
+         .when(this.collection).insertOne(any(Document.class));
+      when(this.collection.find(any(Bson.class))).thenReturn(found);
+      when(found.first()).thenReturn(claimed);
+   }
+
+   private BankSlip newEntity(String totalInCents) {
+      return BankSlip.builder()
+         .id(UUID.randomUUID())
+         .dueDate(new Date(0L))
+         .totalInCents(new BigDecimal(totalInCents))
+         .customer("Customer")
+         .status(BankSlipStatusEnum.PENDING)
+         .build();
+   }
+}
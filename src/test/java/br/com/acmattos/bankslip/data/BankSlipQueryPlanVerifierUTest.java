@@ -0,0 +1,178 @@
+package br.com.acmattos.bankslip.data;
+
+import br.com.acmattos.bankslip.util.UnitTest;
+import org.bson.Document;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.PermissionDeniedDataAccessException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.DbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * BankSlipQueryPlanVerifier Unit Tests.
+ * @author acmattos
+ */
+public class BankSlipQueryPlanVerifierUTest extends UnitTest {
+   private static final Document IXSCAN = new Document("stage", "IXSCAN");
+   private static final Document COLLSCAN = new Document("stage", "COLLSCAN");
+   
+   private MongoOperations operations;
+   private MappingMongoConverter converter;
+   private BankSlipQueryPlanVerifier verifier;
+   
+   @Before
+   public void setUp() {
+      MongoMappingContext context = new MongoMappingContext();
+      context.afterPropertiesSet();
+      this.converter =
+         new MappingMongoConverter(mock(DbRefResolver.class), context);
+      this.converter.afterPropertiesSet();
+      this.operations = mock(MongoOperations.class);
+      when(this.operations.getConverter()).thenReturn(this.converter);
+      when(this.operations.getCollectionName(BankSlip.class))
+         .thenReturn("bankslip");
+      this.verifier = new BankSlipQueryPlanVerifier(this.operations);
+   }
+   
+   @Test
+   public void findUnindexedPlans_IndexScans() {
+      when(this.operations.executeCommand(any(Document.class)))
+         .thenReturn(explained(new Document("stage", "FETCH")
+            .append("inputStage", IXSCAN)));
+      
+      assertTrue(this.verifier.findUnindexedPlans(false).isEmpty());
+   }
+   
+   @Test
+   public void findUnindexedPlans_CollectionScansAndSorts() {
+      when(this.operations.executeCommand(any(Document.class)))
+         .thenReturn(explained(new Document("stage", "SORT")
+            .append("inputStage", COLLSCAN)));
+      
+      List<String> scans = this.verifier.findUnindexedPlans(false);
+      assertEquals(this.verifier.getQueries().size(), scans.size());
+      assertTrue(scans.contains("findAllByOrderByDueDateAscIdAsc"));
+   }
+   
+   @Test
+   public void findUnindexedPlans_PlansNotAvailable() {
+      when(this.operations.executeCommand(any(Document.class)))
+         .thenReturn(new Document("ok", 1.0));
+      
+      assertTrue(this.verifier.findUnindexedPlans(false).isEmpty());
+   }
+   
+   @Test
+   public void findUnindexedPlans_ExplainFailuresAreOnlyLogged() {
+      when(this.operations.executeCommand(any(Document.class)))
+         .thenThrow(new PermissionDeniedDataAccessException("not authorized",
+            null));
+      
+      assertTrue(this.verifier.findUnindexedPlans(false).isEmpty());
+      verify(this.operations, times(this.verifier.getQueries().size()))
+         .executeCommand(any(Document.class));
+   }
+   
+   @Test(expected = PermissionDeniedDataAccessException.class)
+   public void findUnindexedPlans_ExplainFailuresFail() {
+      when(this.operations.executeCommand(any(Document.class)))
+         .thenThrow(new PermissionDeniedDataAccessException("not authorized",
+            null));
+      
+      this.verifier.findUnindexedPlans(true);
+   }
+   
+   @Test
+   public void getQueries_EveryRepositoryQueryMethod() {
+      for(Method method : BankSlipRepository.class.getDeclaredMethods()){
+         if(!method.isSynthetic() && !"streamAllBy".equals(method.getName())){
+            assertTrue(method.getName() + " isn't verified",
+               this.verifier.getQueries().containsKey(method.getName()));
+         }
+      }
+      assertFalse("whole collection read",
+         this.verifier.getQueries().containsKey("streamAllBy"));
+   }
+   
+   @Test
+   public void getQueries_DerivedFromRepositoryQueryMethods() {
+      Query query = this.verifier.getQueries().get(
+         "findByDueDateGreaterThanOrDueDateAndIdGreaterThanOrderByDueDateAscIdAsc");
+      MongoPersistentEntity<?> entity = this.converter.getMappingContext()
+         .getRequiredPersistentEntity(BankSlip.class);
+      QueryMapper mapper = new QueryMapper(this.converter);
+      
+      assertEquals(new Document("$or", Arrays.asList(
+         new Document("due_date", new Document("$gt", new Date(0L))),
+         new Document("due_date", new Date(0L))
+            .append("_id", new Document("$gt", new UUID(0L, 0L))))),
+         mapper.getMappedObject(query.getQueryObject(), entity));
+      assertEquals(new Document("due_date", 1).append("_id", 1),
+         mapper.getMappedSort(query.getSortObject(), entity));
+      assertEquals(20, query.getLimit());
+   }
+   
+   @Test
+   public void findUnindexedPlans_ExplainsMappedQueries() {
+      ArgumentCaptor<Document> commands =
+         ArgumentCaptor.forClass(Document.class);
+      when(this.operations.executeCommand(commands.capture()))
+         .thenReturn(explained(IXSCAN));
+      
+      this.verifier.findUnindexedPlans(false);
+      Document first = commands.getAllValues().get(1);
+      assertEquals("queryPlanner", first.get("verbosity"));
+      Document find = first.get("explain", Document.class);
+      assertEquals("bankslip", find.get("find"));
+      assertEquals(new Document("due_date", 1).append("_id", 1),
+         find.get("sort"));
+      assertEquals(20, find.get("limit"));
+   }
+   
+   @Test
+   public void isUnindexed() {
+      assertFalse(BankSlipQueryPlanVerifier.isUnindexed(null));
+      assertFalse(BankSlipQueryPlanVerifier.isUnindexed(IXSCAN));
+      assertTrue(BankSlipQueryPlanVerifier.isUnindexed(COLLSCAN));
+      assertTrue("$or branch", BankSlipQueryPlanVerifier.isUnindexed(
+         new Document("stage", "SUBPLAN").append("inputStage",
+            new Document("stage", "OR")
+               .append("inputStages", Arrays.asList(IXSCAN, COLLSCAN)))));
+      assertFalse(BankSlipQueryPlanVerifier.isUnindexed(
+         new Document("stage", "OR")
+            .append("inputStages", Collections.singletonList(IXSCAN))));
+      assertTrue("in-memory sort", BankSlipQueryPlanVerifier.isUnindexed(
+         new Document("stage", "SORT").append("inputStage",
+            new Document("stage", "FETCH").append("inputStage", IXSCAN))));
+      assertFalse("indexed sort", BankSlipQueryPlanVerifier.isUnindexed(
+         new Document("stage", "SORT_MERGE")
+            .append("inputStages", Arrays.asList(IXSCAN, IXSCAN))));
+   }
+   
+   /**
+    * Builds an explain result.
+    * @param winningPlan Winning plan.
+    * @return Explain result.
+    */
+   private Document explained(Document winningPlan) {
+      return new Document("queryPlanner",
+         new Document("winningPlan", winningPlan));
+   }
+}
@@ -0,0 +1,167 @@
+package br.com.acmattos.bankslip.data;
+
+import br.com.acmattos.bankslip.util.IntegrationTest;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * BankSlipRepositoryImpl Integration Tests.
+ * @author acmattos
+ */
+public class BankSlipRepositoryImplIT extends IntegrationTest {
+   @Autowired
+   private BankSlipRepository repository;
+   
+   @After
+   public void tearDown() throws Exception {
+      this.repository.deleteAll();
+   }
+   
+   @Test
+   public void insertAllUnordered() throws Exception {
+      List<BankSlip> entities = new ArrayList<>();
+      entities.add(newEntity());
+      entities.add(newEntity());
+      
+      Map<Integer, String> failures = repository.insertAllUnordered(entities);
+      assertTrue("All bank slips were inserted...", failures.isEmpty());
+      assertFalse("...each one got its id...", entities.get(0).isNew());
+      assertFalse("...before being inserted...", entities.get(1).isNew());
+      assertEquals("...and all of them are stored in database.",
+         2, repository.count());
+   }
+   
+   @Test
+   public void insertAllUnordered_reportsFailuresByPosition() throws Exception {
+      BankSlip stored = newEntity();
+      repository.save(stored);
+      List<BankSlip> entities = new ArrayList<>();
+      entities.add(newEntity());
+      entities.add(BankSlip.builder()
+         .id(stored.getId())
+         .dueDate(new Date())
+         .totalInCents(new BigDecimal("100000"))
+         .customer("Customer")
+         .status(BankSlipStatusEnum.PENDING)
+         .build());
+      entities.add(newEntity());
+      
+      Map<Integer, String> failures = repository.insertAllUnordered(entities);
+      assertEquals("Only the duplicated bank slip failed...",
+         1, failures.size());
+      assertTrue("...and it's reported by its position...",
+         failures.containsKey(1));
+      assertEquals("...while the others were inserted anyway.",
+         3, repository.count());
+   }
+   
+   @Test
+   public void updateStatus() throws Exception {
+      BankSlip pending = repository.save(newEntity());
+      
+      assertEquals("A pending bank slip can be paid...",
+         BankSlipTransitionEnum.PAID,
+         repository.updateStatus(pending.getId(), BankSlipStatusEnum.PAID));
+      assertEquals("...and the change is stored in database.",
+         BankSlipStatusEnum.PAID,
+         repository.findById(pending.getId()).get().getStatus());
+      assertEquals("Paying it again is harmless...",
+         BankSlipTransitionEnum.PAID,
+         repository.updateStatus(pending.getId(), BankSlipStatusEnum.PAID));
+      assertEquals("...but it can't be canceled anymore...",
+         BankSlipTransitionEnum.ALREADY_SETTLED,
+         repository.updateStatus(pending.getId(), BankSlipStatusEnum.CANCELED));
+      assertEquals("...so it's still paid.",
+         BankSlipStatusEnum.PAID,
+         repository.findById(pending.getId()).get().getStatus());
+      assertEquals("An unknown bank slip is not found.",
+         BankSlipTransitionEnum.NOT_FOUND,
+         repository.updateStatus(UUID.randomUUID(), BankSlipStatusEnum.PAID));
+   }
+   
+   @Test
+   public void updateAllStatusUnordered() throws Exception {
+      BankSlip pending = repository.save(newEntity());
+      BankSlip paid = newEntity();
+      paid.setStatus(BankSlipStatusEnum.PAID);
+      paid = repository.save(paid);
+      UUID missing = UUID.randomUUID();
+      Map<UUID, BankSlipStatusEnum> statuses = new LinkedHashMap<>();
+      statuses.put(pending.getId(), BankSlipStatusEnum.CANCELED);
+      statuses.put(paid.getId(), BankSlipStatusEnum.CANCELED);
+      statuses.put(missing, BankSlipStatusEnum.PAID);
+      
+      Map<UUID, BankSlipTransitionEnum> outcomes =
+         repository.updateAllStatusUnordered(statuses);
+      assertEquals("The pending bank slip was canceled...",
+         BankSlipTransitionEnum.CANCELED, outcomes.get(pending.getId()));
+      assertEquals("...the paid one was already settled...",
+         BankSlipTransitionEnum.ALREADY_SETTLED, outcomes.get(paid.getId()));
+      assertEquals("...and the last one doesn't exist.",
+         BankSlipTransitionEnum.NOT_FOUND, outcomes.get(missing));
+      assertEquals("The change is stored in database...",
+         BankSlipStatusEnum.CANCELED,
+         repository.findById(pending.getId()).get().getStatus());
+      assertEquals("...while the settled bank slip was left untouched.",
+         BankSlipStatusEnum.PAID,
+         repository.findById(paid.getId()).get().getStatus());
+      
+      outcomes = repository.updateAllStatusUnordered(
+         Collections.singletonMap(pending.getId(), BankSlipStatusEnum.CANCELED));
+      assertEquals("Repeating a status change is harmless.",
+         BankSlipTransitionEnum.CANCELED, outcomes.get(pending.getId()));
+   }
+   
+   @Test
+   public void aggregateTotals() throws Exception {
+      repository.save(newEntity());
+      repository.save(newEntity());
+      BankSlip paid = newEntity();
+      paid.setStatus(BankSlipStatusEnum.PAID);
+      repository.save(paid);
+      Date tomorrow = new Date(System.currentTimeMillis()
+         + TimeUnit.DAYS.toMillis(1));
+      
+      List<BankSlipTotals> totals = repository.aggregateTotals(
+         BankSlipFilter.builder().customer("Customer").build(),
+         Collections.singleton(BankSlipTotalsGroupEnum.STATUS),
+         Collections.singletonList(
+            new BankSlipFineRate(null, tomorrow, new BigDecimal("0.005"))));
+      assertEquals("Bank slips are grouped by status...", 2, totals.size());
+      assertEquals("...ordered by status...",
+         BankSlipStatusEnum.PAID, totals.get(0).getStatus());
+      assertEquals("...and counted...", 1, totals.get(0).getCount());
+      assertEquals("...totals in cents are summed...", 0,
+         new BigDecimal("100000").compareTo(totals.get(0).getTotalInCents()));
+      assertEquals("...settled bank slips are not fined...", 0,
+         BigDecimal.ZERO.compareTo(totals.get(0).getFine()));
+      assertEquals(BankSlipStatusEnum.PENDING, totals.get(1).getStatus());
+      assertEquals(2, totals.get(1).getCount());
+      assertEquals(0,
+         new BigDecimal("200000").compareTo(totals.get(1).getTotalInCents()));
+      assertEquals("...while pending ones are fined by their rate.", 0,
+         new BigDecimal("1000").compareTo(totals.get(1).getFine()));
+   }
+   
+   private BankSlip newEntity() {
+      return BankSlip.builder()
+         .dueDate(new Date())
+         .totalInCents(new BigDecimal("100000"))
+         .customer("Customer")
+         .status(BankSlipStatusEnum.PENDING)
+         .build();
+   }
+}
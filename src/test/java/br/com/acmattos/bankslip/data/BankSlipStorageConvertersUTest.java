@@ -0,0 +1,149 @@
+package br.com.acmattos.bankslip.data;
+
+import br.com.acmattos.bankslip.util.UnitTest;
+import org.bson.BsonBinarySubType;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.Decimal128;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.mongodb.core.convert.DbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * BankSlipStorageConverters Unit Tests (mapping of entities and queries).
+ * @author acmattos
+ */
+public class BankSlipStorageConvertersUTest extends UnitTest {
+   private static final UUID ID =
+      UUID.fromString("0164afd6-1400-7a3c-9e21-5b8d0f4c7a11");
+   private static final Date DUE_DATE = new Date(1530403200000L); // 2018-07-01
+
+   private MappingMongoConverter converter;
+   private BankSlip entity;
+
+   @Before
+   public void setUp() {
+      MongoCustomConversions conversions = new MongoCustomConversions(
+         BankSlipStorageConverters.getConvertersToRegister());
+      MongoMappingContext context = new MongoMappingContext();
+      context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+      context.afterPropertiesSet();
+      this.converter =
+         new MappingMongoConverter(mock(DbRefResolver.class), context);
+      this.converter.setCustomConversions(conversions);
+      this.converter.afterPropertiesSet();
+      this.entity = BankSlip.builder()
+         .id(ID)
+         .dueDate(DUE_DATE)
+         .totalInCents(new BigDecimal("100000"))
+         .customer("Customer")
+         .status(BankSlipStatusEnum.PENDING)
+         .build();
+   }
+
+   @Test
+   public void write_CompactFormat() {
+      Document document = new Document();
+      this.converter.write(this.entity, document);
+
+      Binary id = (Binary) document.get("_id");
+      assertEquals(BsonBinarySubType.UUID_STANDARD.getValue(), id.getType());
+      assertEquals((byte) 0x01, id.getData()[0]);
+      assertEquals((byte) 0x64, id.getData()[1]);
+      assertEquals(new Decimal128(100000L), document.get("total_in_cents"));
+      assertEquals(17713, document.get("due_date"));
+   }
+
+   @Test
+   public void read_CompactFormat() {
+      Document document = new Document("_id", ID)
+         .append("due_date", 17713)
+         .append("total_in_cents", new Decimal128(100000L))
+         .append("customer", "Customer")
+         .append("status", "PENDING");
+
+      BankSlip read = this.converter.read(BankSlip.class, document);
+      assertEquals(ID, read.getId());
+      assertEquals(DUE_DATE, read.getDueDate());
+      assertEquals(0, new BigDecimal("100000")
+         .compareTo(read.getTotalInCents()));
+   }
+
+   @Test
+   public void read_LegacyFormat() {
+      Document document = new Document("_id", ID)
+         .append("due_date", DUE_DATE)
+         .append("total_in_cents", "100000")
+         .append("customer", "Customer")
+         .append("status", "PENDING");
+
+      BankSlip read = this.converter.read(BankSlip.class, document);
+      assertEquals(ID, read.getId());
+      assertEquals(DUE_DATE, read.getDueDate());
+      assertEquals(new BigDecimal("100000"), read.getTotalInCents());
+   }
+
+   @Test
+   public void queries_CompactFormat() {
+      QueryMapper mapper = new QueryMapper(this.converter);
+      Query query = Query.query(Criteria.where("id").in(ID)
+         .and("dueDate").gte(DUE_DATE)
+         .and("totalInCents").lt(new BigDecimal("500")));
+
+      Document mapped = mapper.getMappedObject(query.getQueryObject(),
+         this.converter.getMappingContext()
+            .getRequiredPersistentEntity(BankSlip.class));
+
+      List<?> ids = (List<?>) ((Document) mapped.get("_id")).get("$in");
+      assertEquals(BsonBinarySubType.UUID_STANDARD.getValue(),
+         ((Binary) ids.get(0)).getType());
+      assertEquals(new Document("$gte", 17713), mapped.get("due_date"));
+      assertEquals(new Document("$lt", new Decimal128(500L)),
+         mapped.get("total_in_cents"));
+   }
+
+   @Test
+   public void read_Projection() {
+      QueryMapper mapper = new QueryMapper(this.converter);
+      Query query = new Query();
+      query.fields().include("totalInCents").exclude("_id");
+      Document fields = mapper.getMappedFields(query.getFieldsObject(),
+         this.converter.getMappingContext()
+            .getRequiredPersistentEntity(BankSlipProjection.class));
+      Document document =
+         new Document("total_in_cents", new Decimal128(100000L));
+
+      BankSlipProjection read =
+         this.converter.read(BankSlipProjection.class, document);
+      assertEquals(new Document("total_in_cents", 1).append("_id", 0), fields);
+      assertNull(read.getId());
+      assertNull(read.getDueDate());
+      assertEquals(0, new BigDecimal("100000")
+         .compareTo(read.getTotalInCents()));
+   }
+
+   @Test
+   public void toLegacyBinary() {
+      Binary legacy = BankSlipStorageConverters.toLegacyBinary(ID);
+      assertEquals(BsonBinarySubType.UUID_LEGACY.getValue(), legacy.getType());
+      byte[] data = legacy.getData();
+      assertEquals("First half is reversed", (byte) 0x3c, data[0]);
+      assertEquals((byte) 0x01, data[7]);
+      assertEquals("Second half is reversed", (byte) 0x11, data[8]);
+      assertEquals((byte) 0x9e, data[15]);
+   }
+}
@@ -0,0 +1,221 @@
+package br.com.acmattos.bankslip.data;
+
+import br.com.acmattos.bankslip.util.UnitTest;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * BankSlipSummaryCounters Unit Tests.
+ * @author acmattos
+ */
+public class BankSlipSummaryCountersUTest extends UnitTest {
+   private MongoOperations operations;
+   private BulkOperations bulk;
+   private BankSlipSummaryCounters counters;
+   
+   @Before
+   public void setUp() {
+      this.operations = mock(MongoOperations.class);
+      this.bulk = mock(BulkOperations.class);
+      when(this.operations.bulkOps(BulkOperations.BulkMode.UNORDERED,
+         BankSlipSummaryCounters.COLLECTION)).thenReturn(this.bulk);
+      this.counters = new BankSlipSummaryCounters(this.operations);
+   }
+   
+   @Test
+   public void created_MergesCountersOfSameCustomerAndStatus() {
+      this.counters.created(Arrays.asList(
+         newEntity("ACME", "100000", BankSlipStatusEnum.PENDING),
+         newEntity("ACME", "50000", BankSlipStatusEnum.PENDING),
+         newEntity("EMCA", "20000", BankSlipStatusEnum.PAID)));
+      
+      ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+      ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+      verify(this.bulk, times(2)).upsert(queries.capture(), updates.capture());
+      verify(this.bulk, times(1)).execute();
+      assertEquals(id("ACME", "PENDING"),
+         queries.getAllValues().get(0).getQueryObject());
+      assertEquals(inc(2L, "150000"),
+         updates.getAllValues().get(0).getUpdateObject());
+      assertEquals(id("EMCA", "PAID"),
+         queries.getAllValues().get(1).getQueryObject());
+      assertEquals(inc(1L, "20000"),
+         updates.getAllValues().get(1).getUpdateObject());
+   }
+   
+   @Test
+   public void transitioned_MovesCountersFromPending() {
+      UUID first = UUID.randomUUID();
+      UUID second = UUID.randomUUID();
+      BankSlipProjection firstPending = newProjection(first, "100000");
+      BankSlipProjection secondPending = newProjection(second, "50000");
+      
+      this.counters.transitioned(Arrays.asList(firstPending, secondPending),
+         new HashMap<UUID, BankSlipStatusEnum>() {{
+            put(first, BankSlipStatusEnum.PAID);
+            put(second, BankSlipStatusEnum.CANCELED);
+         }});
+      
+      ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+      ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+      verify(this.bulk, times(3)).upsert(queries.capture(), updates.capture());
+      assertEquals(id("ACME", "PENDING"),
+         queries.getAllValues().get(0).getQueryObject());
+      assertEquals(inc(-2L, "-150000"),
+         updates.getAllValues().get(0).getUpdateObject());
+      assertEquals(id("ACME", "PAID"),
+         queries.getAllValues().get(1).getQueryObject());
+      assertEquals(inc(1L, "100000"),
+         updates.getAllValues().get(1).getUpdateObject());
+      assertEquals(id("ACME", "CANCELED"),
+         queries.getAllValues().get(2).getQueryObject());
+      assertEquals(inc(1L, "50000"),
+         updates.getAllValues().get(2).getUpdateObject());
+   }
+   
+   @Test
+   public void settled_MovesCountersOfChangedBankSlips() {
+      when(this.operations.getCollectionName(BankSlip.class))
+         .thenReturn("bankslip");
+      when(this.operations.aggregate(any(TypedAggregation.class),
+         eq("bankslip"), eq(Document.class))).thenReturn(new AggregationResults<>(
+            Collections.singletonList(
+               new Document("_id", id("ACME", "PAID").get("_id"))
+                  .append("count", 2L)
+                  .append("total_in_cents",
+                     new Decimal128(new BigDecimal("150000")))),
+            new Document()));
+      
+      this.counters.settled(Arrays.asList(UUID.randomUUID(),
+         UUID.randomUUID(), UUID.randomUUID()), new ObjectId());
+      
+      ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+      ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+      verify(this.bulk, times(2)).upsert(queries.capture(), updates.capture());
+      assertEquals(id("ACME", "PENDING"),
+         queries.getAllValues().get(0).getQueryObject());
+      assertEquals(inc(-2L, "-150000"),
+         updates.getAllValues().get(0).getUpdateObject());
+      assertEquals(id("ACME", "PAID"),
+         queries.getAllValues().get(1).getQueryObject());
+      assertEquals(inc(2L, "150000"),
+         updates.getAllValues().get(1).getUpdateObject());
+      ArgumentCaptor<Update> untag = ArgumentCaptor.forClass(Update.class);
+      verify(this.operations, times(1)).updateMulti(any(Query.class),
+         untag.capture(), eq(BankSlip.class));
+      assertEquals(new Document("$unset", new Document("settlement", 1)),
+         untag.getValue().getUpdateObject());
+   }
+   
+   @Test
+   public void settled_FailureIsNotPropagated() {
+      when(this.operations.getCollectionName(BankSlip.class))
+         .thenReturn("bankslip");
+      when(this.operations.aggregate(any(TypedAggregation.class),
+         eq("bankslip"), eq(Document.class)))
+         .thenThrow(new DataAccessResourceFailureException("Timeout"));
+      
+      this.counters.settled(Collections.singletonList(UUID.randomUUID()),
+         new ObjectId());
+      verifyZeroInteractions(this.bulk);
+   }
+   
+   @Test
+   public void created_NothingToCount() {
+      this.counters.created(Collections.emptyList());
+      
+      verifyZeroInteractions(this.operations, this.bulk);
+   }
+   
+   @Test
+   public void created_FailureIsNotPropagated() {
+      when(this.bulk.execute())
+         .thenThrow(new DataAccessResourceFailureException("Timeout"));
+      
+      this.counters.created(Collections.singletonList(
+         newEntity("ACME", "100000", BankSlipStatusEnum.PENDING)));
+      verify(this.bulk, times(1)).execute();
+   }
+   
+   @Test
+   public void findAll_ByCustomer() {
+      when(this.operations.find(any(Query.class), eq(Document.class),
+         eq(BankSlipSummaryCounters.COLLECTION))).thenReturn(Arrays.asList(
+            new Document("_id", id("ACME", "PAID").get("_id"))
+               .append("count", 2L)
+               .append("total_in_cents", new Decimal128(new BigDecimal("300"))),
+            new Document("_id", id("ACME", "PENDING").get("_id"))
+               .append("count", 0)
+               .append("total_in_cents", new Decimal128(BigDecimal.ZERO))));
+      
+      List<BankSlipSummary> summaries = this.counters.findAll("ACME");
+      ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+      verify(this.operations).find(query.capture(), eq(Document.class),
+         eq(BankSlipSummaryCounters.COLLECTION));
+      List<?> ids = (List<?>) query.getValue().getQueryObject()
+         .get("_id", Document.class).get("$in");
+      assertEquals("Looked up by id, one per status",
+         BankSlipStatusEnum.values().length, ids.size());
+      assertEquals("Empty counters are left out", 1, summaries.size());
+      assertEquals(BankSlipSummary.builder()
+         .customer("ACME")
+         .status(BankSlipStatusEnum.PAID)
+         .count(2L)
+         .totalInCents(new BigDecimal("300"))
+         .build(), summaries.get(0));
+   }
+   
+   private BankSlip newEntity(String customer, String totalInCents,
+                              BankSlipStatusEnum status) {
+      return BankSlip.builder()
+         .id(UUID.randomUUID())
+         .dueDate(new Date())
+         .totalInCents(new BigDecimal(totalInCents))
+         .customer(customer)
+         .status(status)
+         .build();
+   }
+   
+   private BankSlipProjection newProjection(UUID id, String totalInCents) {
+      BankSlipProjection projection = mock(BankSlipProjection.class);
+      when(projection.getId()).thenReturn(id);
+      when(projection.getCustomer()).thenReturn("ACME");
+      when(projection.getTotalInCents())
+         .thenReturn(new BigDecimal(totalInCents));
+      return projection;
+   }
+   
+   private Document id(String customer, String status) {
+      return new Document("_id",
+         new Document("customer", customer).append("status", status));
+   }
+   
+   private Document inc(long count, String totalInCents) {
+      return new Document("$inc", new Document("count", count)
+         .append("total_in_cents", new Decimal128(new BigDecimal(totalInCents))));
+   }
+}
@@ -0,0 +1,109 @@
+package br.com.acmattos.bankslip.data;
+
+import br.com.acmattos.bankslip.util.UnitTest;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * BankSlipTotalsPipeline Unit Tests.
+ * @author acmattos
+ */
+public class BankSlipTotalsPipelineUTest extends UnitTest {
+   private static final Date FIRST = new Date(1514764800000L);  // 2018-01-01
+   private static final Date SECOND = new Date(1515628800000L); // 2018-01-11
+   private static final List<BankSlipFineRate> RATES = Arrays.asList(
+      new BankSlipFineRate(null, FIRST, new BigDecimal("0.01")),
+      new BankSlipFineRate(FIRST, SECOND, new BigDecimal("0.005")));
+
+   @Test
+   public void build_GrandTotals() {
+      List<Document> pipeline = BankSlipTotalsPipeline.build(new Document(),
+         Collections.emptySet(), Collections.emptyList());
+
+      assertEquals("No $match without a filter", 4, pipeline.size());
+      assertTrue(pipeline.get(0).containsKey("$project"));
+      Document group = pipeline.get(2).get("$group", Document.class);
+      assertTrue(group.containsKey("_id"));
+      assertNull(group.get("_id"));
+      assertEquals(new Document("$sum", 1), group.get("count"));
+      assertEquals(new Document("$sum", "$total"), group.get("totalInCents"));
+      assertEquals(new Document("$sum", "$fine"), group.get("fine"));
+   }
+
+   @Test
+   public void build_GroupedAndFiltered() {
+      Document match = new Document("status", "PENDING");
+      List<Document> pipeline = BankSlipTotalsPipeline.build(match,
+         EnumSet.of(BankSlipTotalsGroupEnum.DUE_MONTH,
+            BankSlipTotalsGroupEnum.CUSTOMER), RATES);
+
+      assertEquals(new Document("$match", match), pipeline.get(0));
+      Document project = pipeline.get(1).get("$project", Document.class);
+      assertEquals(new Document("$toDecimal", "$total_in_cents"),
+         project.get("total"));
+      Document id = pipeline.get(3).get("$group", Document.class)
+         .get("_id", Document.class);
+      assertEquals(Arrays.asList("customer", "dueMonth"),
+         Arrays.asList(id.keySet().toArray()));
+      assertEquals(new Document("$dateToString",
+            new Document("format", "%Y-%m").append("date", "$dueDate")),
+         id.get("dueMonth"));
+      assertEquals(new Document("$sort", new Document("_id", 1)),
+         pipeline.get(4));
+   }
+
+   @Test
+   public void build_FineRatesByDueDate() {
+      List<Document> pipeline = BankSlipTotalsPipeline.build(new Document(),
+         Collections.emptySet(), RATES);
+      String fine = pipeline.get(1).get("$project", Document.class)
+         .get("fine", Document.class).toJson();
+
+      assertTrue(fine.contains("PENDING"));
+      assertTrue(fine.contains("$switch"));
+      assertTrue(fine.contains("$floor"));
+      assertTrue("Unbounded range has no $gte",
+         fine.indexOf("$gte") == fine.lastIndexOf("$gte"));
+   }
+
+   @Test
+   public void toTotals() {
+      BankSlipTotals totals = BankSlipTotalsPipeline.toTotals(
+         new Document("_id", new Document("status", "PENDING")
+               .append("dueMonth", "2018-01"))
+            .append("count", 2)
+            .append("totalInCents", new Decimal128(new BigDecimal("300000")))
+            .append("fine", new Decimal128(new BigDecimal("2500"))));
+
+      assertEquals(BankSlipStatusEnum.PENDING, totals.getStatus());
+      assertNull(totals.getCustomer());
+      assertEquals("2018-01", totals.getDueMonth());
+      assertEquals(2L, totals.getCount());
+      assertEquals(new BigDecimal("300000"), totals.getTotalInCents());
+      assertEquals(new BigDecimal("2500"), totals.getFine());
+   }
+
+   @Test
+   public void toTotals_GrandTotals() {
+      BankSlipTotals totals = BankSlipTotalsPipeline.toTotals(
+         new Document("_id", null)
+            .append("count", 1L)
+            .append("totalInCents", new Decimal128(BigDecimal.TEN))
+            .append("fine", 0));
+
+      assertNull(totals.getStatus());
+      assertNull(totals.getDueMonth());
+      assertEquals(1L, totals.getCount());
+      assertEquals(BigDecimal.ZERO, totals.getFine());
+   }
+}
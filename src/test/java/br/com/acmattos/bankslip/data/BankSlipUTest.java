@@ -68,7 +68,8 @@ public class BankSlipUTest extends UnitTest {
             Date.from(moreThanTenDays.atStartOfDay(ZoneId.systemDefault()).toInstant()),
             new BigDecimal("100000"),
             "Customer",
-            BankSlipStatusEnum.PENDING);
+            BankSlipStatusEnum.PENDING,
+            null);
 
       } catch (NullPointerException e){
          fail("NullPointerException must not be thrown!");
@@ -85,7 +86,8 @@ public class BankSlipUTest extends UnitTest {
             null,
             new BigDecimal("100000"),
             "Customer",
-            BankSlipStatusEnum.PENDING);
+            BankSlipStatusEnum.PENDING,
+            null);
          fail("NullPointerException must be thrown!");
       } catch (NullPointerException e){
          assertEquals("dueDate is marked @NonNull but is null",
@@ -103,7 +105,8 @@ public class BankSlipUTest extends UnitTest {
             Date.from(moreThanTenDays.atStartOfDay(ZoneId.systemDefault()).toInstant()),
             null,
             "Customer",
-            BankSlipStatusEnum.PENDING);
+            BankSlipStatusEnum.PENDING,
+            null);
          fail("NullPointerException must be thrown!");
       } catch (NullPointerException e){
          assertEquals("totalInCents is marked @NonNull but is null",
@@ -121,7 +124,8 @@ public class BankSlipUTest extends UnitTest {
             Date.from(moreThanTenDays.atStartOfDay(ZoneId.systemDefault()).toInstant()),
             new BigDecimal("100000"),
             null,
-            BankSlipStatusEnum.PENDING);
+            BankSlipStatusEnum.PENDING,
+            null);
          fail("NullPointerException must be thrown!");
       } catch (NullPointerException e){
          assertEquals("customer is marked @NonNull but is null",
@@ -139,6 +143,7 @@ public class BankSlipUTest extends UnitTest {
             Date.from(moreThanTenDays.atStartOfDay(ZoneId.systemDefault()).toInstant()),
             new BigDecimal("100000"),
             "Customer",
+            null,
             null);
          fail("NullPointerException must be thrown!");
       } catch (NullPointerException e){
@@ -148,86 +153,6 @@ public class BankSlipUTest extends UnitTest {
       }
    }
 
-   @Test
-   public void calculateFine_NoFineExpectedForPendingStatus() {
-      LocalDate today = getLocalDateBeforeToday(0);
-      BankSlip entity = getBankSlip(today, BankSlipStatusEnum.PENDING);
-
-      assertEquals("Must be ZERO: no fine is expected",
-         BigDecimal.ZERO, entity.calculateFine());
-   }
-
-   @Test
-   public void calculateFine_500OfFineExpectedOn1stDayForPendingStatus() {
-      LocalDate oneDay = getLocalDateBeforeToday(1);
-      BankSlip entity = getBankSlip(oneDay, BankSlipStatusEnum.PENDING);
-
-      assertEquals("Must be 100000",
-         new BigDecimal("100000"), entity.getTotalInCents());
-      assertEquals("Must be 500: must charge 0.5% of fine (between 1 - 10)",
-         new BigDecimal("500"), entity.calculateFine());
-      assertEquals("Must be 100000",
-         new BigDecimal("100000"), entity.getTotalInCents());
-   }
-
-   @Test
-   public void calculateFine_500OfFineExpectedOn10thDayForPendingStatus() {
-      LocalDate tenDays = getLocalDateBeforeToday(10);
-      BankSlip entity = getBankSlip(tenDays, BankSlipStatusEnum.PENDING);
-
-      assertEquals("Must be 500: must charge 0.5% of fine (between 1 - 10)",
-         new BigDecimal("500"), entity.calculateFine());
-   }
-
-   @Test
-   public void calculateFine_1000OfFineExpectedOn11thPlusDayForPendingStatus() {
-      LocalDate moreThanTenDays = getLocalDateBeforeToday(11);
-      BankSlip entity = getBankSlip(moreThanTenDays, BankSlipStatusEnum.PENDING);
-
-      assertEquals("Must be 100000",
-         new BigDecimal("100000"), entity.getTotalInCents());
-      assertEquals("Must be 1000: must charge 1% of fine (11 - ...)",
-         new BigDecimal("1000"), entity.calculateFine());
-      assertEquals("Must be 100000",
-         new BigDecimal("100000"), entity.getTotalInCents());
-   }
-
-   @Test
-   public void calculateFine_NoFineExpectedForPaidStatus() {
-      LocalDate today = getLocalDateBeforeToday(0);
-      BankSlip entity = getBankSlip(today, BankSlipStatusEnum.PAID);
-
-      assertEquals("Must be ZERO: no fine is expected",
-         BigDecimal.ZERO, entity.calculateFine());
-   }
-
-   @Test
-   public void calculateFine_noFineExpectedOn1stDayForPaidStatus() {
-      LocalDate oneDay = getLocalDateBeforeToday(1);
-      BankSlip entity = getBankSlip(oneDay, BankSlipStatusEnum.PAID);
-
-      assertEquals("Must be ZERO: no fine is expected",
-         BigDecimal.ZERO, entity.calculateFine());
-   }
-
-   @Test
-   public void calculateFine_NoFineExpectedForCanceledStatus() {
-      LocalDate today = getLocalDateBeforeToday(0);
-      BankSlip entity = getBankSlip(today, BankSlipStatusEnum.CANCELED);
-
-      assertEquals("Must be ZERO: no fine is expected",
-         BigDecimal.ZERO, entity.calculateFine());
-   }
-
-   @Test
-   public void calculateFine_NoFineExpectedOn11thPlusDayForCanceledStatus() {
-      LocalDate moreThanTenDays = getLocalDateBeforeToday(11);
-      BankSlip entity = getBankSlip(moreThanTenDays, BankSlipStatusEnum.CANCELED);
-
-      assertEquals("Must be ZERO: no fine is expected",
-         BigDecimal.ZERO, entity.calculateFine());
-   }
-
    @Test
    public void toStringTest() {
       LocalDate today = getLocalDateBeforeToday(0);
@@ -235,7 +160,7 @@ public class BankSlipUTest extends UnitTest {
 
       assertEquals("BankSlip(id=" + this.uuid.toString() + ", dueDate="
             + Date.from(today.atStartOfDay(ZoneId.systemDefault()).toInstant()).toString()
-            + ", totalInCents=100000, customer=Customer, status=PAID)",
+            + ", totalInCents=100000, customer=Customer, status=PAID, version=null)",
          entity.toString());
    }
 
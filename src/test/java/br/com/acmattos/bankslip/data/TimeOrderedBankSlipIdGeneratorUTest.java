@@ -0,0 +1,52 @@
+package br.com.acmattos.bankslip.data;
+
+import br.com.acmattos.bankslip.util.UnitTest;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * TimeOrderedBankSlipIdGenerator Unit Tests.
+ * @author acmattos
+ */
+public class TimeOrderedBankSlipIdGeneratorUTest extends UnitTest {
+   private final TimeOrderedBankSlipIdGenerator generator =
+      new TimeOrderedBankSlipIdGenerator();
+   
+   @Test
+   public void generate_Version7AndRfc4122Variant() {
+      UUID id = this.generator.generate();
+      assertEquals(7, id.version());
+      assertEquals(2, id.variant());
+   }
+   
+   @Test
+   public void generate_TimestampIsTheFirst48Bits() {
+      long epochMillis = 1531958400000L; // 2018-07-19T00:00:00Z
+      UUID id = this.generator.generate(epochMillis);
+      assertEquals(epochMillis, id.getMostSignificantBits() >>> 16);
+      assertTrue(id.toString().startsWith("0164afd6-1400-7"));
+   }
+   
+   @Test
+   public void generate_OrderedByTime() {
+      UUID earlier = this.generator.generate(1531958400000L);
+      UUID later = this.generator.generate(1531958400001L);
+      assertTrue("Compared as unsigned big endian bytes (BSON binary)",
+         Long.compareUnsigned(earlier.getMostSignificantBits(),
+            later.getMostSignificantBits()) < 0);
+      assertTrue(earlier.toString().compareTo(later.toString()) < 0);
+   }
+   
+   @Test
+   public void generate_Unique() {
+      Set<UUID> ids = new HashSet<>();
+      for (int i = 0; i < 10000; i++) {
+         assertTrue(ids.add(this.generator.generate(1531958400000L)));
+      }
+   }
+}
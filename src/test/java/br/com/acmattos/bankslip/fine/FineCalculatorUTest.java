@@ -0,0 +1,204 @@
+package br.com.acmattos.bankslip.fine;
+
+import br.com.acmattos.bankslip.data.BankSlip;
+import br.com.acmattos.bankslip.data.BankSlipFineRate;
+import br.com.acmattos.bankslip.data.BankSlipStatusEnum;
+import br.com.acmattos.bankslip.util.UnitTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * FineCalculator Unit Tests.
+ * @author acmattos
+ */
+public class FineCalculatorUTest extends UnitTest {
+   private static final String[] TOTALS = {"1", "50", "100", "150", "199",
+      "200", "250", "300", "350", "1000", "100000", "123456789",
+      "99999999999999999", "100000000000000000000", "100.50", "0.5", "1E+3"};
+   private static final int[] DAYS_OVERDUE = {-1, 0, 1, 2, 10, 11, 365};
+   
+   private FineCalculator calculator;
+   
+   @Before
+   public void setUp() {
+      this.calculator = new FineCalculator(
+         new TieredFinePolicy(new FinePolicyProperties().getTiers()));
+   }
+   
+   @Test(expected = IllegalArgumentException.class)
+   public void calculateFine_NullEntity() {
+      try {
+         this.calculator.calculateFine(null);
+         fail("IllegalArgumentException  must be thrown!");
+      } catch (IllegalArgumentException e){
+         assertEquals("entity can't be null!", e.getMessage());
+         throw e;
+      }
+   }
+   
+   @Test
+   public void calculateFine_NoFineExpectedForSettledStatus() {
+      for (int days : new int[]{0, 1, 11}) {
+         assertEquals(BigDecimal.ZERO, this.calculator.calculateFine(
+            getBankSlip("100000", days, BankSlipStatusEnum.PAID)));
+         assertEquals(BigDecimal.ZERO, this.calculator.calculateFine(
+            getBankSlip("100000", days, BankSlipStatusEnum.CANCELED)));
+      }
+   }
+   
+   @Test
+   public void calculateFine_FineExpectedByDaysOverdue() {
+      assertEquals(BigDecimal.ZERO, this.calculator.calculateFine(
+         getBankSlip("100000", 0, BankSlipStatusEnum.PENDING)));
+      assertEquals(new BigDecimal("500"), this.calculator.calculateFine(
+         getBankSlip("100000", 1, BankSlipStatusEnum.PENDING)));
+      assertEquals(new BigDecimal("500"), this.calculator.calculateFine(
+         getBankSlip("100000", 10, BankSlipStatusEnum.PENDING)));
+      assertEquals(new BigDecimal("1000"), this.calculator.calculateFine(
+         getBankSlip("100000", 11, BankSlipStatusEnum.PENDING)));
+   }
+   
+   @Test
+   public void calculateFine_SameResultAsDefaultRule() {
+      for (String total : TOTALS) {
+         for (int days : DAYS_OVERDUE) {
+            BankSlip entity =
+               getBankSlip(total, days, BankSlipStatusEnum.PENDING);
+            assertEquals("Total: " + total + " / Days: " + days,
+               getDefaultRuleFine(total, days),
+               this.calculator.calculateFine(entity));
+         }
+      }
+   }
+   
+   @Test
+   public void calculateFine_ConfiguredPolicy() {
+      FineCalculator calculator = new FineCalculator(new TieredFinePolicy(
+         Collections.singletonList(new FinePolicyProperties.Tier(
+            0, null, new BigDecimal("0.0125")))));
+      assertEquals(new BigDecimal("1250"), calculator.calculateFine(
+         getBankSlip("100000", 0, BankSlipStatusEnum.PENDING)));
+      assertEquals(new BigDecimal("2"), calculator.calculateFine(
+         getBankSlip("200", 30, BankSlipStatusEnum.PENDING)));
+      assertEquals(new BigDecimal("125000000000000000000"),
+         calculator.calculateFine(getBankSlip("10000000000000000000000", 30,
+            BankSlipStatusEnum.PENDING)));
+   }
+   
+   @Test
+   public void divideHalfEven() {
+      assertEquals(0L, FineCalculator.divideHalfEven(500L, 1000L));
+      assertEquals(2L, FineCalculator.divideHalfEven(1500L, 1000L));
+      assertEquals(1L, FineCalculator.divideHalfEven(995L, 1000L));
+      assertEquals(1L, FineCalculator.divideHalfEven(1499L, 1000L));
+      assertEquals(2L, FineCalculator.divideHalfEven(150L, 100L));
+      assertEquals(-2L, FineCalculator.divideHalfEven(-1500L, 1000L));
+      assertEquals(-1L, FineCalculator.divideHalfEven(-995L, 1000L));
+      assertEquals(7L, FineCalculator.divideHalfEven(7L, 1L));
+   }
+   
+   @Test
+   public void getFineRatesByDueDate() {
+      List<BankSlipFineRate> rates = this.calculator.getFineRatesByDueDate();
+      
+      assertEquals(2, rates.size());
+      assertNull("Most overdue first", rates.get(0).getDueDateFrom());
+      assertEquals(new BigDecimal("0.01"), rates.get(0).getRate());
+      assertEquals(rates.get(0).getDueDateTo(), rates.get(1).getDueDateFrom());
+      assertEquals(new BigDecimal("0.005"), rates.get(1).getRate());
+      for (int days = -2; days <= 40; days++) {
+         Date dueDate = getUtcMidnight(days);
+         BigDecimal rate = rates.stream()
+            .filter(range -> dueDate.before(range.getDueDateTo()))
+            .filter(range -> null == range.getDueDateFrom()
+               || !dueDate.before(range.getDueDateFrom()))
+            .map(BankSlipFineRate::getRate)
+            .findFirst()
+            .orElse(BigDecimal.ZERO);
+         BankSlip entity = BankSlip.builder()
+            .id(UUID.randomUUID())
+            .dueDate(dueDate)
+            .totalInCents(new BigDecimal("100000"))
+            .customer("Customer")
+            .status(BankSlipStatusEnum.PENDING)
+            .build();
+         assertEquals("Same rate as calculateFine (days: " + days + ")",
+            this.calculator.calculateFine(entity),
+            new BigDecimal("100000").multiply(rate)
+               .setScale(0, BigDecimal.ROUND_HALF_EVEN));
+      }
+   }
+   
+   @Test
+   public void getFineRatesByDueDate_ConfiguredPolicy() {
+      FineCalculator calculator = new FineCalculator(new TieredFinePolicy(
+         Arrays.asList(
+            new FinePolicyProperties.Tier(0, 4, new BigDecimal("0.01")),
+            new FinePolicyProperties.Tier(5, 9, BigDecimal.ZERO),
+            new FinePolicyProperties.Tier(10, 19, new BigDecimal("0.01")))));
+      List<BankSlipFineRate> rates = calculator.getFineRatesByDueDate();
+      
+      assertEquals("Zero rates are left out", 2, rates.size());
+      assertNotNull("Last tier is bounded", rates.get(0).getDueDateFrom());
+      assertEquals(TimeUnit.DAYS.toMillis(10),
+         rates.get(0).getDueDateTo().getTime()
+            - rates.get(0).getDueDateFrom().getTime());
+      assertEquals(TimeUnit.DAYS.toMillis(5),
+         rates.get(1).getDueDateTo().getTime()
+            - rates.get(1).getDueDateFrom().getTime());
+   }
+   
+   @Test
+   public void refreshBusinessDate() {
+      BankSlip entity = getBankSlip("100000", 1, BankSlipStatusEnum.PENDING);
+      this.calculator.refreshBusinessDate();
+      assertEquals("Refreshing keeps the same business date today!",
+         new BigDecimal("500"), this.calculator.calculateFine(entity));
+   }
+   
+   /**
+    * Calculates a fine by the default rule, with BigDecimal arithmetic: 0.5%
+    * from 1 to 10 days overdue and 1% after that.
+    */
+   private BigDecimal getDefaultRuleFine(String total, int daysOverdue) {
+      BigDecimal rate = BigDecimal.ZERO;
+      if(daysOverdue >= 1 && daysOverdue <= 10){
+         rate = new BigDecimal("0.005");
+      } else if(daysOverdue > 10){
+         rate = new BigDecimal("0.01");
+      }
+      return new BigDecimal(total).multiply(rate)
+         .setScale(0, BigDecimal.ROUND_HALF_EVEN);
+   }
+   
+   private Date getUtcMidnight(int daysOverdue) {
+      return Date.from(LocalDate.now().minusDays(daysOverdue)
+         .atStartOfDay(ZoneOffset.UTC).toInstant());
+   }
+   
+   private BankSlip getBankSlip(String total, int daysOverdue,
+                                BankSlipStatusEnum status) {
+      LocalDate dueDate = LocalDate.now().minusDays(daysOverdue);
+      return BankSlip.builder()
+         .id(UUID.randomUUID())
+         .dueDate(Date.from(
+            dueDate.atStartOfDay(ZoneId.systemDefault()).toInstant()))
+         .totalInCents(new BigDecimal(total))
+         .customer("Customer")
+         .status(status)
+         .build();
+   }
+}
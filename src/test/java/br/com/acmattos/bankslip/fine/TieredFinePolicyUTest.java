@@ -0,0 +1,62 @@
+package br.com.acmattos.bankslip.fine;
+
+import br.com.acmattos.bankslip.util.UnitTest;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * TieredFinePolicy Unit Tests.
+ * @author acmattos
+ */
+public class TieredFinePolicyUTest extends UnitTest {
+   
+   @Test
+   public void getRate_DefaultTiers() {
+      TieredFinePolicy policy =
+         new TieredFinePolicy(new FinePolicyProperties().getTiers());
+      assertSame(FineRate.ZERO, policy.getRate(-1));
+      assertSame(FineRate.ZERO, policy.getRate(0));
+      assertEquals(new BigDecimal("0.005"), policy.getRate(1).getValue());
+      assertEquals(new BigDecimal("0.005"), policy.getRate(10).getValue());
+      assertEquals(new BigDecimal("0.01"), policy.getRate(11).getValue());
+      assertEquals(new BigDecimal("0.01"), policy.getRate(100000).getValue());
+      assertSame("Rates are shared, not created per call!",
+         policy.getRate(1), policy.getRate(2));
+   }
+   
+   @Test
+   public void getRate_GapsAndBoundedTiers() {
+      TieredFinePolicy policy = new TieredFinePolicy(Arrays.asList(
+         new FinePolicyProperties.Tier(3, 5, new BigDecimal("0.02")),
+         new FinePolicyProperties.Tier(8, 9, new BigDecimal("0.03"))));
+      assertSame(FineRate.ZERO, policy.getRate(2));
+      assertEquals(new BigDecimal("0.02"), policy.getRate(3).getValue());
+      assertSame(FineRate.ZERO, policy.getRate(6));
+      assertEquals(new BigDecimal("0.03"), policy.getRate(9).getValue());
+      assertSame(FineRate.ZERO, policy.getRate(10));
+   }
+   
+   @Test(expected = IllegalArgumentException.class)
+   public void constructor_OverlappingTiers() {
+      new TieredFinePolicy(Arrays.asList(
+         new FinePolicyProperties.Tier(1, 10, new BigDecimal("0.005")),
+         new FinePolicyProperties.Tier(5, null, new BigDecimal("0.01"))));
+   }
+   
+   @Test(expected = IllegalArgumentException.class)
+   public void constructor_TwoUnboundedTiers() {
+      new TieredFinePolicy(Arrays.asList(
+         new FinePolicyProperties.Tier(1, null, new BigDecimal("0.005")),
+         new FinePolicyProperties.Tier(11, null, new BigDecimal("0.01"))));
+   }
+   
+   @Test(expected = IllegalArgumentException.class)
+   public void constructor_NegativeRate() {
+      new TieredFinePolicy(Arrays.asList(
+         new FinePolicyProperties.Tier(1, 10, new BigDecimal("-0.005"))));
+   }
+}
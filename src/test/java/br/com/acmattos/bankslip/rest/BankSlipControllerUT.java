@@ -1,16 +1,36 @@
 package br.com.acmattos.bankslip.rest;
 
 import br.com.acmattos.bankslip.data.BankSlip;
+import br.com.acmattos.bankslip.data.BankSlipCache;
+import br.com.acmattos.bankslip.data.BankSlipCreation;
+import br.com.acmattos.bankslip.data.BankSlipCreationEnum;
+import br.com.acmattos.bankslip.data.BankSlipFilter;
+import br.com.acmattos.bankslip.data.BankSlipProjection;
 import br.com.acmattos.bankslip.data.BankSlipRepository;
 import br.com.acmattos.bankslip.data.BankSlipStatusEnum;
+import br.com.acmattos.bankslip.data.BankSlipSummary;
+import br.com.acmattos.bankslip.data.BankSlipSummaryCounters;
+import br.com.acmattos.bankslip.data.BankSlipTotals;
+import br.com.acmattos.bankslip.data.BankSlipTotalsGroupEnum;
+import br.com.acmattos.bankslip.data.BankSlipTransitionEnum;
+import br.com.acmattos.bankslip.fine.FineCalculator;
+import br.com.acmattos.bankslip.fine.FinePolicyProperties;
+import br.com.acmattos.bankslip.fine.TieredFinePolicy;
 import br.com.acmattos.bankslip.util.UnitTest;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.stubbing.Answer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultMatcher;
@@ -18,13 +38,25 @@ import org.springframework.test.web.servlet.result.HeaderResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.*;
@@ -51,6 +83,25 @@ public class BankSlipControllerUT extends UnitTest{
    @Mock
    private BankSlipRepository repository;
 
+   @Mock
+   private BankSlipSummaryCounters summary;
+
+   @Spy
+   private MeterRegistry registry = new SimpleMeterRegistry();
+
+   @Spy
+   private ObjectMapper mapper = new ObjectMapper();
+
+   @Spy
+   private BankSlipCache cache = new BankSlipCache(100, 60);
+
+   @Spy
+   private BankSlipIdValidator idValidator = new BankSlipIdValidator();
+
+   @Spy
+   private FineCalculator fineCalculator = new FineCalculator(
+      new TieredFinePolicy(new FinePolicyProperties().getTiers()));
+
    private MockMvc mvc;
 
    private BankSlip entity;
@@ -149,7 +200,7 @@ public class BankSlipControllerUT extends UnitTest{
    public void create_causes500Response() throws Exception {
       String content = objectMapper.writeValueAsString(this.newDto);
 
-      when(repository.save(any(BankSlip.class)))
+      when(repository.create(any(BankSlip.class)))
           .thenThrow(EXCEPTION);
       this.mvc.perform(
          post(RESOURCE_URL)
@@ -166,7 +217,7 @@ public class BankSlipControllerUT extends UnitTest{
       ;
       
       verify(repository, times(1))
-          .save(any(BankSlip.class));
+          .create(any(BankSlip.class));
       verifyNoMoreInteractions(repository);
    }
    
@@ -174,7 +225,7 @@ public class BankSlipControllerUT extends UnitTest{
    public void create_causes201Response() throws Exception {
       String content = objectMapper.writeValueAsString(this.newDto);
 
-      when(repository.save(any(BankSlip.class)))
+      when(repository.create(any(BankSlip.class)))
          .thenReturn(this.entity);
       MvcResult result = this.mvc.perform(
          post(RESOURCE_URL)
@@ -195,7 +246,201 @@ public class BankSlipControllerUT extends UnitTest{
       assertEquals("201 : Bankslip created", body);
 
       verify(repository, times(1))
-           .save(any(BankSlip.class));
+           .create(any(BankSlip.class));
+      verify(cache, times(1))
+         .invalidate(this.uuid);
+      verifyNoMoreInteractions(repository);
+   }
+   
+   @Test
+   public void create_causes201ResponseWithIdempotencyKey() throws Exception {
+      String content = objectMapper.writeValueAsString(this.newDto);
+
+      when(repository.create(any(BankSlip.class), eq("retry-1")))
+         .thenReturn(BankSlipCreation.builder()
+            .outcome(BankSlipCreationEnum.CREATED)
+            .id(this.uuid)
+            .build());
+      for (int i = 0; i < 2; i++) {
+         this.mvc.perform(
+            post(RESOURCE_URL)
+            .contentType(MediaType.APPLICATION_JSON_UTF8)
+            .header("Idempotency-Key", "retry-1")
+            .content(content)
+         )
+         .andExpect(status().isCreated())
+         .andExpect(header().string("Location",
+            "/rest" + RESOURCE_URL + "/" + this.uuid))
+         .andExpect(content().string("201 : Bankslip created"))
+         ;
+      }
+
+      verify(repository, times(2))
+         .create(any(BankSlip.class), eq("retry-1"));
+      verifyNoMoreInteractions(repository);
+   }
+   
+   @Test
+   public void create_causes409ResponseWhileIdempotencyKeyIsPending()
+      throws Exception {
+      String content = objectMapper.writeValueAsString(this.newDto);
+
+      when(repository.create(any(BankSlip.class), eq("retry-1")))
+         .thenReturn(BankSlipCreation.builder()
+            .outcome(BankSlipCreationEnum.IN_PROGRESS)
+            .build());
+      this.mvc.perform(
+         post(RESOURCE_URL)
+         .contentType(MediaType.APPLICATION_JSON_UTF8)
+         .header("Idempotency-Key", "retry-1")
+         .content(content)
+      )
+      .andExpect(status().isConflict())
+      .andExpect(header().doesNotExist("Location"))
+      .andExpect(content().string(
+         "409 : Bankslip creation with this Idempotency-Key is in progress - "
+            + "retry later"))
+      ;
+
+      verify(cache, never()).invalidate(any(UUID.class));
+   }
+   
+   @Test
+   public void create_causes422ResponseForReusedIdempotencyKey()
+      throws Exception {
+      String content = objectMapper.writeValueAsString(this.newDto);
+
+      when(repository.create(any(BankSlip.class), eq("retry-1")))
+         .thenReturn(BankSlipCreation.builder()
+            .outcome(BankSlipCreationEnum.KEY_REUSED)
+            .build());
+      this.mvc.perform(
+         post(RESOURCE_URL)
+         .contentType(MediaType.APPLICATION_JSON_UTF8)
+         .header("Idempotency-Key", "retry-1")
+         .content(content)
+      )
+      .andExpect(status().isUnprocessableEntity())
+      .andExpect(header().doesNotExist("Location"))
+      .andExpect(content().string(
+         "422 : Idempotency-Key already used for a different bankslip"))
+      ;
+
+      verify(cache, never()).invalidate(any(UUID.class));
+   }
+   
+   @Test
+   public void create_causes400ResponseForInvalidIdempotencyKey()
+      throws Exception {
+      String content = objectMapper.writeValueAsString(this.newDto);
+
+      this.mvc.perform(
+         post(RESOURCE_URL)
+         .contentType(MediaType.APPLICATION_JSON_UTF8)
+         .header("Idempotency-Key", " ")
+         .content(content)
+      )
+      .andExpect(status().isBadRequest())
+      .andExpect(content().string(
+         containsString("Invalid Idempotency-Key provided")))
+      ;
+
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void createAll_causes400Response() throws Exception {
+      MvcResult result = this.mvc.perform(
+         post(RESOURCE_URL + "/bulk")
+         .contentType(MediaType.APPLICATION_JSON_UTF8)
+         .content("[]")
+      )
+      .andExpect(status().isBadRequest())
+      .andReturn()
+      ;
+      String content = result.getResponse().getContentAsString();
+      assertEquals("400 : Bankslips not provided in the request body", content);
+      verifyZeroInteractions(repository);
+   }
+
+   @Test
+   public void createAll_causes500Response() throws Exception {
+      when(repository.insertAllUnordered(anyListOf(BankSlip.class)))
+         .thenThrow(EXCEPTION);
+      this.mvc.perform(
+         post(RESOURCE_URL + "/bulk")
+         .contentType(MediaType.APPLICATION_JSON_UTF8)
+         .content("[" + objectMapper.writeValueAsString(this.newDto) + "]")
+      )
+      .andExpect(status().isInternalServerError())
+      .andExpect(getISErrorHeaderResultMatchers().string("ISError",
+         "Could not create new bank slips: [Ticket-c97456c5-3d32-45bb-b0f1-ec7352465788] - Exception Occurred!"))
+      ;
+
+      verify(repository, times(1))
+         .insertAllUnordered(anyListOf(BankSlip.class));
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void createAll_causes200ResponseForJsonArray() throws Exception {
+      String valid = objectMapper.writeValueAsString(this.newDto);
+      String invalidDueDate = "{\"dueDate\":\"invalid!\",\"totalInCents\":1,"
+         + "\"customer\":\"Customer\",\"status\":\"PENDING\"}";
+      String json = "[" + valid + "," + invalidDueDate + ","
+         + objectMapper.writeValueAsString(new NewBankSlipDTO()) + ","
+         + valid + "]";
+      ReflectionTestUtils.setField(controller, "bulkChunkSize", 1);
+      when(repository.insertAllUnordered(anyListOf(BankSlip.class)))
+         .thenAnswer(assignIds(Collections.emptyMap()));
+      this.mvc.perform(
+         post(RESOURCE_URL + "/bulk")
+         .contentType(MediaType.APPLICATION_JSON_UTF8)
+         .content(json)
+      )
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$", hasSize(4)))
+      .andExpect(jsonPath("$[0].index", is(0)))
+      .andExpect(jsonPath("$[0].id", is(this.uuid.toString())))
+      .andExpect(jsonPath("$[0].errors").doesNotExist())
+      .andExpect(jsonPath("$[1].index", is(1)))
+      .andExpect(jsonPath("$[1].id").doesNotExist())
+      .andExpect(jsonPath("$[1].errors.dueDate",
+         is("Date format accepted: (yyyy-MM-dd)")))
+      .andExpect(jsonPath("$[2].index", is(2)))
+      .andExpect(jsonPath("$[2].errors.dueDate", is("Can't be null!")))
+      .andExpect(jsonPath("$[2].errors.totalInCents",
+         is("Can't be null or below zero!")))
+      .andExpect(jsonPath("$[2].errors.customer", is("Can't be null or empty!")))
+      .andExpect(jsonPath("$[2].errors.status", is("Can't be null!")))
+      .andExpect(jsonPath("$[3].index", is(3)))
+      .andExpect(jsonPath("$[3].id", is(this.uuid.toString())))
+      ;
+
+      verify(repository, times(2))
+         .insertAllUnordered(anyListOf(BankSlip.class));
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void createAll_causes200ResponseForNdjson() throws Exception {
+      String valid = objectMapper.writeValueAsString(this.newDto);
+      when(repository.insertAllUnordered(anyListOf(BankSlip.class)))
+         .thenAnswer(assignIds(Collections.singletonMap(1, "E11000")));
+      this.mvc.perform(
+         post(RESOURCE_URL + "/bulk")
+         .contentType(MediaType.parseMediaType("application/x-ndjson"))
+         .content(valid + "\n" + valid + "\n" + "{\"dueDate\":")
+      )
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$", hasSize(3)))
+      .andExpect(jsonPath("$[1].errors.iserror", is("E11000")))
+      .andExpect(jsonPath("$[2].index", is(2)))
+      .andExpect(jsonPath("$[2].errors.body").exists())
+      ;
+
+      verify(repository, times(1))
+         .insertAllUnordered(argThat((List<BankSlip> list) -> list.size() == 2));
       verifyNoMoreInteractions(repository);
    }
 
@@ -229,29 +474,604 @@ public class BankSlipControllerUT extends UnitTest{
       "Could not find all bank slips: Exception Occurred!"))
       ;
 
+      assertEquals(1.0, registry.counter("bankslip.error.tickets",
+         "exception", "RuntimeException").count(), 0.0);
+      verify(repository, times(1))
+         .findAll();
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findAll_causes200Response() throws Exception {
+      when(repository.findAll())
+         .thenReturn(new ArrayList<BankSlip>(){{add(entity);}});
+      this.mvc.perform(
+         get(RESOURCE_URL)
+      )
+      .andExpect(status().isOk())
+      .andExpect(header().doesNotExist("ISError"))
+      .andExpect(jsonPath("$", hasSize(1)))
+      .andExpect(jsonPath("$[0].id", is(this.uuid.toString())))
+      .andExpect(jsonPath("$[0].dueDate", is(getLocalDateBeforeToday(10).toString())))
+      .andExpect(jsonPath("$[0].totalInCents", is(100000)))
+      .andExpect(jsonPath("$[0].customer", is("Customer")))
+      ;
+
+      verify(repository, times(1))
+         .findAll();
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findAll_causes304ResponseForMatchingETag() throws Exception {
+      when(repository.findAll())
+         .thenReturn(Collections.singletonList(entity));
+      String etag = this.mvc.perform(
+         get(RESOURCE_URL)
+      )
+      .andExpect(status().isOk())
+      .andReturn().getResponse().getHeader("ETag")
+      ;
+      this.mvc.perform(
+         get(RESOURCE_URL)
+            .header("If-None-Match", etag)
+      )
+      .andExpect(status().isNotModified())
+      .andExpect(header().string("ETag", etag))
+      .andExpect(content().string(""))
+      ;
+      
+      assertNotNull("Whole bank slips are sent with an ETag", etag);
+      verify(repository, times(2))
+         .findAll();
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findAll_causes200Response_FilteredByStatusAndDueDate()
+      throws Exception {
+      when(repository.findAllFiltered(any(BankSlipFilter.class)))
+         .thenReturn(Collections.singletonList(entity));
+      this.mvc.perform(
+         get(RESOURCE_URL)
+            .param("status", "PENDING")
+            .param("dueDateFrom", "2018-01-01")
+            .param("dueDateTo", "2018-01-31")
+      )
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$", hasSize(1)))
+      .andExpect(jsonPath("$[0].id", is(this.uuid.toString())))
+      ;
+
+      verify(repository, times(1)).findAllFiltered(BankSlipFilter.builder()
+         .status(BankSlipStatusEnum.PENDING)
+         .dueDateFrom(Date.from(Instant.parse("2018-01-01T00:00:00Z")))
+         .dueDateTo(Date.from(Instant.parse("2018-01-31T00:00:00Z")))
+         .build());
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findAll_causes404Response_FilteredByCustomer() throws Exception {
+      when(repository.findAllFiltered(any(BankSlipFilter.class)))
+         .thenReturn(new ArrayList<>());
+      this.mvc.perform(
+         get(RESOURCE_URL).param("customer", "Customer")
+      )
+      .andExpect(status().isNotFound())
+      .andExpect(jsonPath("$", hasSize(0)))
+      ;
+
+      verify(repository, times(1)).findAllFiltered(
+         BankSlipFilter.builder().customer("Customer").build());
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findAll_causes200Response_FilteredByCustomerPrefix()
+      throws Exception {
+      when(repository.findAllFiltered(any(BankSlipFilter.class)))
+         .thenReturn(Collections.singletonList(entity));
+      this.mvc.perform(
+         get(RESOURCE_URL).param("customerPrefix", "A.C+M")
+      )
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$", hasSize(1)))
+      ;
+
+      verify(repository, times(1)).findAllFiltered(
+         BankSlipFilter.builder().customerPrefix("A.C+M").build());
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findAll_causes200Response_SelectedFields() throws Exception {
+      BankSlipProjection projection = mock(BankSlipProjection.class);
+      when(projection.getId()).thenReturn(this.uuid);
+      when(projection.getTotalInCents()).thenReturn(new BigDecimal("100000"));
+      when(repository.findAllProjected(any(BankSlipFilter.class), any()))
+         .thenReturn(Collections.singletonList(projection));
+      this.mvc.perform(
+         get(RESOURCE_URL)
+            .param("status", "PAID")
+            .param("fields", "totalInCents, id")
+      )
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$", hasSize(1)))
+      .andExpect(jsonPath("$[0].id", is(this.uuid.toString())))
+      .andExpect(jsonPath("$[0].totalInCents", is(100000)))
+      .andExpect(jsonPath("$[0].dueDate").doesNotExist())
+      .andExpect(jsonPath("$[0].customer").doesNotExist())
+      ;
+
+      verify(repository, times(1)).findAllProjected(
+         BankSlipFilter.builder().status(BankSlipStatusEnum.PAID).build(),
+         new LinkedHashSet<>(Arrays.asList("id", "totalInCents")));
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findAll_causes400Response_InvalidFields() throws Exception {
+      this.mvc.perform(
+         get(RESOURCE_URL).param("fields", "id,status")
+      )
+      .andExpect(status().isBadRequest())
+      .andExpect(content().string(containsString("Invalid fields provided")))
+      ;
+
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findAll_causes400Response_InvalidFilter() throws Exception {
+      this.mvc.perform(
+         get(RESOURCE_URL)
+            .param("customer", "Customer")
+            .param("customerPrefix", "Cust")
+      )
+      .andExpect(status().isBadRequest())
+      .andExpect(content().string(containsString("Invalid filter provided")))
+      ;
+      this.mvc.perform(
+         get(RESOURCE_URL)
+            .param("dueDateFrom", "2018-02-01")
+            .param("dueDateTo", "2018-01-01")
+      )
+      .andExpect(status().isBadRequest())
+      ;
+
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findAll_causes400Response_InvalidFilterValue() throws Exception {
+      this.mvc.perform(
+         get(RESOURCE_URL).param("dueDateFrom", "01/01/2018")
+      )
+      .andExpect(status().isBadRequest())
+      .andExpect(content().string(
+         "400 : Invalid value provided for parameter: dueDateFrom"))
+      ;
+      this.mvc.perform(
+         get(RESOURCE_URL).param("status", "OVERDUE")
+      )
+      .andExpect(status().isBadRequest())
+      .andExpect(content().string(
+         "400 : Invalid value provided for parameter: status"))
+      ;
+
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void aggregateTotals_causes200Response() throws Exception {
+      BankSlipTotals totals = BankSlipTotals.builder()
+         .customer("Customer")
+         .dueMonth("2018-01")
+         .count(2)
+         .totalInCents(new BigDecimal("300000"))
+         .fine(new BigDecimal("2500"))
+         .build();
+      when(repository.aggregateTotals(any(BankSlipFilter.class), any(), any()))
+         .thenReturn(Collections.singletonList(totals));
+      this.mvc.perform(
+         get(RESOURCE_URL + "/totals")
+            .param("groupBy", "dueMonth, customer")
+            .param("status", "PENDING")
+      )
+      .andExpect(status().isOk())
+      .andExpect(header().doesNotExist("ISError"))
+      .andExpect(jsonPath("$", hasSize(1)))
+      .andExpect(jsonPath("$[0].status").doesNotExist())
+      .andExpect(jsonPath("$[0].customer", is("Customer")))
+      .andExpect(jsonPath("$[0].dueMonth", is("2018-01")))
+      .andExpect(jsonPath("$[0].count", is(2)))
+      .andExpect(jsonPath("$[0].totalInCents", is(300000)))
+      .andExpect(jsonPath("$[0].fine", is(2500)))
+      ;
+
+      verify(repository, times(1)).aggregateTotals(
+         BankSlipFilter.builder().status(BankSlipStatusEnum.PENDING).build(),
+         EnumSet.of(BankSlipTotalsGroupEnum.CUSTOMER,
+            BankSlipTotalsGroupEnum.DUE_MONTH),
+         fineCalculator.getFineRatesByDueDate());
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void aggregateTotals_causes404Response() throws Exception {
+      when(repository.aggregateTotals(any(BankSlipFilter.class), any(), any()))
+         .thenReturn(new ArrayList<>());
+      this.mvc.perform(
+         get(RESOURCE_URL + "/totals").param("customer", "Customer")
+      )
+      .andExpect(status().isNotFound())
+      .andExpect(jsonPath("$", hasSize(0)))
+      ;
+
+      verify(repository, times(1)).aggregateTotals(
+         BankSlipFilter.builder().customer("Customer").build(),
+         EnumSet.noneOf(BankSlipTotalsGroupEnum.class),
+         fineCalculator.getFineRatesByDueDate());
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void aggregateTotals_causes400Response() throws Exception {
+      this.mvc.perform(
+         get(RESOURCE_URL + "/totals").param("groupBy", "status,month")
+      )
+      .andExpect(status().isBadRequest())
+      .andExpect(content().string(
+         "400 : Invalid groupBy provided - it must be some of: "
+            + "[status, customer, dueMonth]"))
+      ;
+      this.mvc.perform(
+         get(RESOURCE_URL + "/totals")
+            .param("dueDateFrom", "2018-02-01")
+            .param("dueDateTo", "2018-01-01")
+      )
+      .andExpect(status().isBadRequest())
+      .andExpect(content().string(containsString("Invalid filter provided")))
+      ;
+
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findSummary_causes200Response() throws Exception {
+      when(summary.findAll("Customer"))
+         .thenReturn(Collections.singletonList(BankSlipSummary.builder()
+            .customer("Customer")
+            .status(BankSlipStatusEnum.PENDING)
+            .count(2)
+            .totalInCents(new BigDecimal("300000"))
+            .build()));
+      this.mvc.perform(
+         get(RESOURCE_URL + "/summary").param("customer", "Customer")
+      )
+      .andExpect(status().isOk())
+      .andExpect(header().doesNotExist("ISError"))
+      .andExpect(jsonPath("$", hasSize(1)))
+      .andExpect(jsonPath("$[0].customer", is("Customer")))
+      .andExpect(jsonPath("$[0].status", is("PENDING")))
+      .andExpect(jsonPath("$[0].count", is(2)))
+      .andExpect(jsonPath("$[0].totalInCents", is(300000)))
+      ;
+
+      verify(summary, times(1)).findAll("Customer");
+      verifyNoMoreInteractions(summary, repository);
+   }
+
+   @Test
+   public void findSummary_causes404Response() throws Exception {
+      when(summary.findAll(null))
+         .thenReturn(new ArrayList<>());
+      this.mvc.perform(
+         get(RESOURCE_URL + "/summary")
+      )
+      .andExpect(status().isNotFound())
+      .andExpect(jsonPath("$", hasSize(0)))
+      ;
+
+      verify(summary, times(1)).findAll(null);
+      verifyNoMoreInteractions(summary, repository);
+   }
+
+   @Test
+   public void findSummary_causes500Response() throws Exception {
+      when(summary.findAll(null))
+         .thenThrow(EXCEPTION);
+      this.mvc.perform(
+         get(RESOURCE_URL + "/summary")
+      )
+      .andExpect(status().isInternalServerError())
+      .andExpect(getISErrorHeaderResultMatchers().string("ISError",
+      "Could not find bank slip summary: Exception Occurred!"))
+      ;
+   }
+
+   @Test
+   public void aggregateTotals_causes500Response() throws Exception {
+      when(repository.aggregateTotals(any(BankSlipFilter.class), any(), any()))
+         .thenThrow(EXCEPTION);
+      this.mvc.perform(
+         get(RESOURCE_URL + "/totals")
+      )
+      .andExpect(status().isInternalServerError())
+      .andExpect(getISErrorHeaderResultMatchers().string("ISError",
+      "Could not aggregate bank slip totals: Exception Occurred!"))
+      ;
+   }
+
+   @Test
+   public void streamAll_causes404Response() throws Exception {
+      when(repository.streamAllBy())
+         .thenReturn(Stream.empty());
+      MvcResult result = this.mvc.perform(
+         get(RESOURCE_URL).param("stream", "true")
+      )
+      .andExpect(request().asyncStarted())
+      .andReturn()
+      ;
+      this.mvc.perform(asyncDispatch(result))
+      .andExpect(status().isNotFound())
+      .andExpect(header().doesNotExist("ISError"))
+      .andExpect(jsonPath("$", hasSize(0)))
+      ;
+
+      verify(repository, times(1))
+         .streamAllBy();
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void streamAll_causes500Response() throws Exception {
+      when(repository.streamAllBy())
+         .thenThrow(EXCEPTION);
+      this.mvc.perform(
+         get(RESOURCE_URL).param("stream", "true")
+      )
+      .andExpect(status().isInternalServerError())
+      .andExpect(getISErrorHeaderResultMatchers().string("ISError",
+      "Could not find all bank slips: Exception Occurred!"))
+      ;
+
+      verify(repository, times(1))
+         .streamAllBy();
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void streamAll_causes200Response() throws Exception {
+      boolean[] closed = {false};
+      when(repository.streamAllBy())
+         .thenReturn(Stream.of(entity, entity).onClose(() -> closed[0] = true));
+      MvcResult result = this.mvc.perform(
+         get(RESOURCE_URL).param("stream", "true")
+      )
+      .andExpect(request().asyncStarted())
+      .andReturn()
+      ;
+      this.mvc.perform(asyncDispatch(result))
+      .andExpect(status().isOk())
+      .andExpect(header().doesNotExist("ISError"))
+      .andExpect(jsonPath("$", hasSize(2)))
+      .andExpect(jsonPath("$[0].id", is(this.uuid.toString())))
+      .andExpect(jsonPath("$[0].dueDate", is(getLocalDateBeforeToday(10).toString())))
+      .andExpect(jsonPath("$[0].totalInCents", is(100000)))
+      .andExpect(jsonPath("$[0].customer", is("Customer")))
+      ;
+      assertTrue("Database cursor must be closed!", closed[0]);
+
+      verify(repository, times(1))
+         .streamAllBy();
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void streamAll_causes200ResponseFiltered() throws Exception {
+      when(repository.streamAllFiltered(any(BankSlipFilter.class)))
+         .thenReturn(Stream.of(entity));
+      MvcResult result = this.mvc.perform(
+         get(RESOURCE_URL).param("stream", "true")
+            .param("customer", "Customer")
+      )
+      .andExpect(request().asyncStarted())
+      .andReturn()
+      ;
+      this.mvc.perform(asyncDispatch(result))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$", hasSize(1)))
+      ;
+
+      verify(repository, times(1))
+         .streamAllFiltered(BankSlipFilter.builder().customer("Customer").build());
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void streamAll_causes400ResponseForFields() throws Exception {
+      MvcResult result = this.mvc.perform(
+         get(RESOURCE_URL).param("stream", "true").param("fields", "id")
+      )
+      .andExpect(request().asyncStarted())
+      .andReturn()
+      ;
+      this.mvc.perform(asyncDispatch(result))
+      .andExpect(status().isBadRequest())
+      ;
+
+      String content = result.getResponse().getContentAsString();
+      assertEquals("400 : Invalid fields provided - they can't be selected "
+         + "with stream or limit", content);
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findPage_causes400ResponseForInvalidLimit() throws Exception {
+      MvcResult result = this.mvc.perform(
+         get(RESOURCE_URL).param("limit", "0")
+      )
+      .andExpect(status().isBadRequest())
+      .andExpect(header().doesNotExist("Next-Cursor"))
+      .andReturn()
+      ;
+
+      String content = result.getResponse().getContentAsString();
+      assertEquals(
+         "400 : Invalid page limit provided - it must be between 1 and 1000",
+         content);
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findPage_causes400ResponseForNonNumericLimit() throws Exception {
+      MvcResult result = this.mvc.perform(
+         get(RESOURCE_URL).param("limit", "ten")
+      )
+      .andExpect(status().isBadRequest())
+      .andReturn()
+      ;
+
+      String content = result.getResponse().getContentAsString();
+      assertEquals("400 : Invalid value provided for parameter: limit", content);
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findPage_causes400ResponseForInvalidCursor() throws Exception {
+      MvcResult result = this.mvc.perform(
+         get(RESOURCE_URL).param("limit", "10").param("after", "invalid!")
+      )
+      .andExpect(status().isBadRequest())
+      .andReturn()
+      ;
+
+      String content = result.getResponse().getContentAsString();
+      assertEquals("400 : Invalid page cursor provided", content);
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findPage_causes404Response() throws Exception {
+      when(repository.findAllByOrderByDueDateAscIdAsc(any(Pageable.class)))
+         .thenReturn(Collections.emptyList());
+      this.mvc.perform(
+         get(RESOURCE_URL).param("limit", "10")
+      )
+      .andExpect(status().isNotFound())
+      .andExpect(header().doesNotExist("Next-Cursor"))
+      .andExpect(jsonPath("$", hasSize(0)))
+      ;
+
+      verify(repository, times(1))
+         .findAllByOrderByDueDateAscIdAsc(any(Pageable.class));
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findPage_causes500Response() throws Exception {
+      when(repository.findAllByOrderByDueDateAscIdAsc(any(Pageable.class)))
+         .thenThrow(EXCEPTION);
+      this.mvc.perform(
+         get(RESOURCE_URL).param("limit", "10")
+      )
+      .andExpect(status().isInternalServerError())
+      .andExpect(getISErrorHeaderResultMatchers().string("ISError",
+      "Could not find this page of bank slips: Exception Occurred!"))
+      ;
+
+      verify(repository, times(1))
+         .findAllByOrderByDueDateAscIdAsc(any(Pageable.class));
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findPage_causes200ResponseWithNextCursor() throws Exception {
+      BankSlip last = BankSlip.builder()
+         .id(UUID.randomUUID())
+         .dueDate(getDateBeforeToday(5))
+         .totalInCents(new BigDecimal("100000"))
+         .customer("Customer")
+         .status(BankSlipStatusEnum.PENDING)
+         .build();
+      when(repository.findAllByOrderByDueDateAscIdAsc(any(Pageable.class)))
+         .thenReturn(new ArrayList<BankSlip>(){{add(entity); add(last);}});
+      MvcResult result = this.mvc.perform(
+         get(RESOURCE_URL).param("limit", "1")
+      )
+      .andExpect(status().isOk())
+      .andExpect(header().exists("Next-Cursor"))
+      .andExpect(jsonPath("$", hasSize(1)))
+      .andExpect(jsonPath("$[0].id", is(this.uuid.toString())))
+      .andReturn()
+      ;
+
+      BankSlipPageCursor cursor = BankSlipPageCursor.decode(
+         result.getResponse().getHeader("Next-Cursor"));
+      assertEquals("Cursor points to the last returned bank slip!",
+         BankSlipPageCursor.of(this.entity), cursor);
+      verify(repository, times(1))
+         .findAllByOrderByDueDateAscIdAsc(any(Pageable.class));
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findPage_causes200ResponseForLastPage() throws Exception {
+      String after = BankSlipPageCursor.of(this.entity).encode();
+      when(repository
+         .findByDueDateGreaterThanOrDueDateAndIdGreaterThanOrderByDueDateAscIdAsc(
+            any(Date.class), any(Date.class), any(UUID.class), any(Pageable.class)))
+         .thenReturn(new ArrayList<BankSlip>(){{add(entity);}});
+      this.mvc.perform(
+         get(RESOURCE_URL).param("limit", "1").param("after", after)
+      )
+      .andExpect(status().isOk())
+      .andExpect(header().doesNotExist("Next-Cursor"))
+      .andExpect(jsonPath("$", hasSize(1)))
+      ;
+
       verify(repository, times(1))
-         .findAll();
+         .findByDueDateGreaterThanOrDueDateAndIdGreaterThanOrderByDueDateAscIdAsc(
+            eq(this.entity.getDueDate()), eq(this.entity.getDueDate()),
+            eq(this.uuid), any(Pageable.class));
       verifyNoMoreInteractions(repository);
    }
 
    @Test
-   public void findAll_causes200Response() throws Exception {
-      when(repository.findAll())
+   public void findPage_causes200ResponseFiltered() throws Exception {
+      String after = BankSlipPageCursor.of(this.entity).encode();
+      when(repository.findPageFiltered(any(BankSlipFilter.class),
+         any(Date.class), any(UUID.class), anyInt()))
          .thenReturn(new ArrayList<BankSlip>(){{add(entity);}});
       this.mvc.perform(
-         get(RESOURCE_URL)
+         get(RESOURCE_URL).param("limit", "1").param("after", after)
+            .param("status", "PAID")
       )
       .andExpect(status().isOk())
-      .andExpect(header().doesNotExist("ISError"))
+      .andExpect(header().doesNotExist("Next-Cursor"))
       .andExpect(jsonPath("$", hasSize(1)))
-      .andExpect(jsonPath("$[0].id", is(this.uuid.toString())))
-      .andExpect(jsonPath("$[0].dueDate", is(getLocalDateBeforeToday(10).toString())))
-      .andExpect(jsonPath("$[0].totalInCents", is(100000)))
-      .andExpect(jsonPath("$[0].customer", is("Customer")))
       ;
 
-      verify(repository, times(1))
-         .findAll();
+      verify(repository, times(1)).findPageFiltered(
+         BankSlipFilter.builder().status(BankSlipStatusEnum.PAID).build(),
+         this.entity.getDueDate(), this.uuid, 2);
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findPage_causes400ResponseForInvalidFilter() throws Exception {
+      MvcResult result = this.mvc.perform(
+         get(RESOURCE_URL).param("limit", "10")
+            .param("customer", "A").param("customerPrefix", "A")
+      )
+      .andExpect(status().isBadRequest())
+      .andReturn()
+      ;
+
+      String content = result.getResponse().getContentAsString();
+      assertTrue(content.startsWith("400 : Invalid filter provided"));
       verifyNoMoreInteractions(repository);
    }
 
@@ -351,19 +1171,175 @@ public class BankSlipControllerUT extends UnitTest{
       .andExpect(jsonPath("$.status", is("PENDING")))
       ;
 
+      verify(fineCalculator, times(1))
+         .calculateFine(this.entity);
+      verify(repository, times(1))
+         .findById(any(UUID.class));
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findById_causes200ResponseWithSelectedFields() throws Exception {
+      when(repository.findById(any(UUID.class)))
+         .thenReturn(Optional.of(this.entity));
+      MvcResult result = this.mvc.perform(
+         get(RESOURCE_URL + "/3A4DD880-5FA5-350D-5BE5-FDF1C252F793")
+            .param("fields", "status,fine,dueDate")
+      )
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.fine", is(500)))
+      .andExpect(jsonPath("$.status", is("PENDING")))
+      .andExpect(jsonPath("$.id").doesNotExist())
+      .andExpect(jsonPath("$.customer").doesNotExist())
+      .andReturn()
+      ;
+      String full = this.mvc.perform(
+         get(RESOURCE_URL + "/3A4DD880-5FA5-350D-5BE5-FDF1C252F793")
+      ).andReturn().getResponse().getContentAsString();
+
+      assertEquals("Same format as DetailedBankSlipDTO",
+         this.objectMapper.readTree(full).get("dueDate"),
+         this.objectMapper.readTree(result.getResponse().getContentAsString())
+            .get("dueDate"));
+      assertTrue("Ordered as DetailedBankSlipDTO", result.getResponse()
+         .getContentAsString().startsWith("{\"dueDate\""));
+   }
+
+   @Test
+   public void findById_causes400ResponseForInvalidFields() throws Exception {
+      this.mvc.perform(
+         get(RESOURCE_URL + "/3A4DD880-5FA5-350D-5BE5-FDF1C252F793")
+            .param("fields", "id,unknown")
+      )
+      .andExpect(status().isBadRequest())
+      .andExpect(content().string(containsString("Invalid fields provided")))
+      ;
+
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findById_causes200ResponseForTimeOrderedId() throws Exception {
+      when(repository.findById(any(UUID.class)))
+         .thenReturn(Optional.of(this.entity));
+      this.mvc.perform(
+         get(RESOURCE_URL + "/0164afd6-1400-7a3c-9e21-5b8d0f4c7a11")
+      )
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.id", is(this.uuid.toString())))
+      ;
+
+      verify(repository, times(1))
+         .findById(UUID.fromString("0164afd6-1400-7a3c-9e21-5b8d0f4c7a11"));
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findById_causes200ResponseFromCache() throws Exception {
+      when(repository.findById(this.uuid))
+         .thenReturn(Optional.of(this.entity));
+      for (int i = 0; i < 2; i++) {
+         this.mvc.perform(
+            get(RESOURCE_URL + "/" + this.uuid)
+         )
+         .andExpect(status().isOk())
+         .andExpect(jsonPath("$.id", is(this.uuid.toString())))
+         .andExpect(jsonPath("$.fine", is(500)))
+         ;
+      }
+
+      assertEquals("Second request is a hit!", 1L, cache.getHitCount());
+      verify(fineCalculator, times(2))
+         .calculateFine(this.entity);
+      verify(repository, times(1))
+         .findById(this.uuid);
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findById_causes200ResponseWithETag() throws Exception {
+      when(repository.findById(this.uuid))
+         .thenReturn(Optional.of(this.entity));
+      this.mvc.perform(
+         get(RESOURCE_URL + "/" + this.uuid)
+            .header("If-None-Match", "\"1-0.005\"")
+      )
+      .andExpect(status().isOk())
+      .andExpect(header().string("ETag", "\"0-0.005\""))
+      .andExpect(jsonPath("$.fine", is(500)))
+      ;
+   }
+
+   @Test
+   public void findById_causes304ResponseForMatchingETag() throws Exception {
+      when(repository.findById(this.uuid))
+         .thenReturn(Optional.of(this.entity));
+      this.mvc.perform(
+         get(RESOURCE_URL + "/" + this.uuid)
+            .header("If-None-Match", "W/\"0-0.005\"")
+      )
+      .andExpect(status().isNotModified())
+      .andExpect(header().string("ETag", "\"0-0.005\""))
+      .andExpect(content().string(""))
+      ;
+
+      verify(fineCalculator, never())
+         .calculateFine(any(BankSlip.class));
+   }
+
+   @Test
+   public void findById_causes200ResponseOnRequestExecutor() throws Exception {
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      ReflectionTestUtils.setField(controller, "executor", executor);
+      when(repository.findById(any(UUID.class)))
+         .thenReturn(Optional.of(this.entity));
+      try {
+         MvcResult result = this.mvc.perform(
+            get(RESOURCE_URL + "/3A4DD880-5FA5-350D-5BE5-FDF1C252F793")
+         )
+         .andExpect(request().asyncStarted())
+         .andReturn()
+         ;
+         this.mvc.perform(asyncDispatch(result))
+         .andExpect(status().isOk())
+         .andExpect(jsonPath("$.id", is(this.uuid.toString())))
+         .andExpect(jsonPath("$.fine", is(500)))
+         ;
+      } finally {
+         executor.shutdown();
+      }
+
       verify(repository, times(1))
          .findById(any(UUID.class));
       verifyNoMoreInteractions(repository);
    }
 
+   @Test
+   public void findById_causes503ResponseWhenExecutorIsSaturated()
+      throws Exception {
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      executor.shutdown(); // Rejects every request.
+      ReflectionTestUtils.setField(controller, "executor", executor);
+      this.mvc.perform(
+         get(RESOURCE_URL + "/3A4DD880-5FA5-350D-5BE5-FDF1C252F793")
+      )
+      .andExpect(request().asyncNotStarted())
+      .andExpect(status().isServiceUnavailable())
+      .andExpect(content().string(containsString("Too many bank slip requests")))
+      ;
+
+      verifyNoMoreInteractions(repository);
+   }
+
    @Test
    public void payOne_causes404Response() throws Exception {
       String content = objectMapper.writeValueAsString(
          UpdatedBankSlipStatusDTO.builder()
             .status(BankSlipStatusEnum.PAID).build());
 
-      when(repository.findById(any(UUID.class)))
-         .thenReturn(Optional.empty());
+      when(repository.updateStatus(any(UUID.class),
+         any(BankSlipStatusEnum.class)))
+         .thenReturn(BankSlipTransitionEnum.NOT_FOUND);
       assertEquals("BankSlipStatusEnum.PENDING",
          BankSlipStatusEnum.PENDING,this.entity.getStatus());
 
@@ -385,12 +1361,40 @@ public class BankSlipControllerUT extends UnitTest{
          BankSlipStatusEnum.PENDING, this.entity.getStatus());
 
       verify(repository, times(1))
-         .findById(any(UUID.class));
+         .updateStatus(any(UUID.class), any(BankSlipStatusEnum.class));
       verify(repository, times(0))
          .save(any(BankSlip.class));
       verifyNoMoreInteractions(repository);
    }
 
+   @Test
+   public void payOne_causes409Response() throws Exception {
+      String content = objectMapper.writeValueAsString(
+         UpdatedBankSlipStatusDTO.builder()
+            .status(BankSlipStatusEnum.PAID).build());
+
+      when(repository.updateStatus(this.uuid, BankSlipStatusEnum.PAID))
+         .thenReturn(BankSlipTransitionEnum.ALREADY_SETTLED);
+
+      MvcResult result = this.mvc.perform(
+         put(RESOURCE_URL + "/" + this.entity.getId())
+         .contentType(MediaType.APPLICATION_JSON_UTF8)
+         .content(content)
+      )
+      .andExpect(status().isConflict())
+      .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN_VALUE))
+      .andReturn()
+      ;
+
+      String body = result.getResponse().getContentAsString();
+      assertEquals("409 : Bankslip already settled with a different status",
+         body);
+
+      verify(repository, times(1))
+         .updateStatus(this.uuid, BankSlipStatusEnum.PAID);
+      verifyNoMoreInteractions(repository);
+   }
+
    @Test
    public void payOne_causes422Response() throws Exception {
       String content = objectMapper.writeValueAsString(
@@ -418,7 +1422,7 @@ public class BankSlipControllerUT extends UnitTest{
          BankSlipStatusEnum.PENDING, this.entity.getStatus());
 
       verify(repository, times(0))
-         .findById(any(UUID.class));
+         .updateStatus(any(UUID.class), any(BankSlipStatusEnum.class));
       verify(repository, times(0))
          .save(any(BankSlip.class));
       verifyNoMoreInteractions(repository);
@@ -430,7 +1434,8 @@ public class BankSlipControllerUT extends UnitTest{
          UpdatedBankSlipStatusDTO.builder()
             .status(BankSlipStatusEnum.PAID).build());
 
-      when(repository.findById(any(UUID.class)))
+      when(repository.updateStatus(any(UUID.class),
+         any(BankSlipStatusEnum.class)))
          .thenThrow(EXCEPTION);
       assertEquals("BankSlipStatusEnum.PENDING",
          BankSlipStatusEnum.PENDING,this.entity.getStatus());
@@ -450,7 +1455,7 @@ public class BankSlipControllerUT extends UnitTest{
          BankSlipStatusEnum.PENDING, this.entity.getStatus());
 
       verify(repository, times(1))
-         .findById(any(UUID.class));
+         .updateStatus(any(UUID.class), any(BankSlipStatusEnum.class));
       verify(repository, times(0))
          .save(any(BankSlip.class));
       verifyNoMoreInteractions(repository);
@@ -462,9 +1467,8 @@ public class BankSlipControllerUT extends UnitTest{
          UpdatedBankSlipStatusDTO.builder()
             .status(BankSlipStatusEnum.PAID).build());
 
-      when(repository.findById(any(UUID.class)))
-         .thenReturn(Optional.of(this.entity));
-      when(repository.save(any(BankSlip.class))).thenReturn(this.entity);
+      when(repository.updateStatus(this.uuid, BankSlipStatusEnum.PAID))
+         .thenReturn(BankSlipTransitionEnum.PAID);
       assertEquals("BankSlipStatusEnum.PENDING",
          BankSlipStatusEnum.PENDING,this.entity.getStatus());
 
@@ -481,24 +1485,106 @@ public class BankSlipControllerUT extends UnitTest{
 
       String body = result.getResponse().getContentAsString();
       assertEquals("200 : Bankslip paid", body);
-      assertEquals("BankSlipStatusEnum.PAID",
-         BankSlipStatusEnum.PAID, this.entity.getStatus());
 
       verify(repository, times(1))
-         .findById(any(UUID.class));
-      verify(repository, times(1))
+         .updateStatus(any(UUID.class), any(BankSlipStatusEnum.class));
+      verify(repository, times(0))
          .save(any(BankSlip.class));
+      verify(cache, times(1))
+         .invalidate(this.uuid);
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void payOne_causes200ResponseForMatchingIfMatch() throws Exception {
+      String content = objectMapper.writeValueAsString(
+         UpdatedBankSlipStatusDTO.builder()
+            .status(BankSlipStatusEnum.PAID).build());
+
+      when(repository.updateStatus(this.uuid, BankSlipStatusEnum.PAID, 3L))
+         .thenReturn(BankSlipTransitionEnum.PAID);
+
+      MvcResult result = this.mvc.perform(
+         put(RESOURCE_URL + "/" + this.entity.getId())
+         .contentType(MediaType.APPLICATION_JSON_UTF8)
+         .header("If-Match", "\"3-0.005\"")
+         .content(content)
+      )
+      .andExpect(status().isOk())
+      .andReturn()
+      ;
+
+      String body = result.getResponse().getContentAsString();
+      assertEquals("200 : Bankslip paid", body);
+
+      verify(repository, times(1))
+         .updateStatus(this.uuid, BankSlipStatusEnum.PAID, 3L);
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void payOne_causes409ResponseForStaleIfMatch() throws Exception {
+      String content = objectMapper.writeValueAsString(
+         UpdatedBankSlipStatusDTO.builder()
+            .status(BankSlipStatusEnum.PAID).build());
+
+      when(repository.updateStatus(this.uuid, BankSlipStatusEnum.PAID, 3L))
+         .thenThrow(new OptimisticLockingFailureException("Stale version"));
+
+      MvcResult result = this.mvc.perform(
+         put(RESOURCE_URL + "/" + this.entity.getId())
+         .contentType(MediaType.APPLICATION_JSON_UTF8)
+         .header("If-Match", "\"3-0.005\"")
+         .content(content)
+      )
+      .andExpect(status().isConflict())
+      .andExpect(header().doesNotExist("ISError"))
+      .andReturn()
+      ;
+
+      String body = result.getResponse().getContentAsString();
+      assertEquals("409 : Bankslip changed since it was read - get it again "
+         + "and retry", body);
+      assertEquals(0, registry.find("bankslip.error.tickets").counters()
+         .size());
+
+      verify(repository, times(1))
+         .updateStatus(this.uuid, BankSlipStatusEnum.PAID, 3L);
       verifyNoMoreInteractions(repository);
    }
 
+   @Test
+   public void payOne_causes400ResponseForInvalidIfMatch() throws Exception {
+      String content = objectMapper.writeValueAsString(
+         UpdatedBankSlipStatusDTO.builder()
+            .status(BankSlipStatusEnum.PAID).build());
+
+      MvcResult result = this.mvc.perform(
+         put(RESOURCE_URL + "/" + this.entity.getId())
+         .contentType(MediaType.APPLICATION_JSON_UTF8)
+         .header("If-Match", "W/\"3-0.005\"")
+         .content(content)
+      )
+      .andExpect(status().isBadRequest())
+      .andReturn()
+      ;
+
+      String body = result.getResponse().getContentAsString();
+      assertEquals("400 : Invalid If-Match provided - it must be * or a "
+         + "single bankslip ETag", body);
+
+      verifyZeroInteractions(repository);
+   }
+
    @Test
    public void cancelOne_causes404Response() throws Exception {
       String content = objectMapper.writeValueAsString(
          UpdatedBankSlipStatusDTO.builder()
             .status(BankSlipStatusEnum.CANCELED).build());
 
-      when(repository.findById(any(UUID.class)))
-         .thenReturn(Optional.empty());
+      when(repository.updateStatus(any(UUID.class),
+         any(BankSlipStatusEnum.class)))
+         .thenReturn(BankSlipTransitionEnum.NOT_FOUND);
       assertEquals("BankSlipStatusEnum.PENDING",
          BankSlipStatusEnum.PENDING,this.entity.getStatus());
 
@@ -520,7 +1606,7 @@ public class BankSlipControllerUT extends UnitTest{
          BankSlipStatusEnum.PENDING, this.entity.getStatus());
 
       verify(repository, times(1))
-         .findById(any(UUID.class));
+         .updateStatus(any(UUID.class), any(BankSlipStatusEnum.class));
       verify(repository, times(0))
          .save(any(BankSlip.class));
       verifyNoMoreInteractions(repository);
@@ -553,7 +1639,7 @@ public class BankSlipControllerUT extends UnitTest{
          BankSlipStatusEnum.PENDING,this.entity.getStatus());
 
       verify(repository, times(0))
-         .findById(any(UUID.class));
+         .updateStatus(any(UUID.class), any(BankSlipStatusEnum.class));
       verify(repository, times(0))
          .save(any(BankSlip.class));
       verifyNoMoreInteractions(repository);
@@ -565,7 +1651,8 @@ public class BankSlipControllerUT extends UnitTest{
          UpdatedBankSlipStatusDTO.builder()
             .status(BankSlipStatusEnum.CANCELED).build());
 
-      when(repository.findById(any(UUID.class)))
+      when(repository.updateStatus(any(UUID.class),
+         any(BankSlipStatusEnum.class)))
          .thenThrow(new RuntimeException("Exception Occurred!"));
       assertEquals("BankSlipStatusEnum.PENDING",
          BankSlipStatusEnum.PENDING,this.entity.getStatus());
@@ -585,7 +1672,7 @@ public class BankSlipControllerUT extends UnitTest{
          BankSlipStatusEnum.PENDING, this.entity.getStatus());
 
       verify(repository, times(1))
-         .findById(any(UUID.class));
+         .updateStatus(any(UUID.class), any(BankSlipStatusEnum.class));
       verify(repository, times(0))
          .save(any(BankSlip.class));
       verifyNoMoreInteractions(repository);
@@ -597,8 +1684,8 @@ public class BankSlipControllerUT extends UnitTest{
          UpdatedBankSlipStatusDTO.builder()
             .status(BankSlipStatusEnum.CANCELED).build());
 
-      when(repository.findById(any(UUID.class))).thenReturn(Optional.of(this.entity));
-      when(repository.save(any(BankSlip.class))).thenReturn(this.entity);
+      when(repository.updateStatus(this.uuid, BankSlipStatusEnum.CANCELED))
+         .thenReturn(BankSlipTransitionEnum.CANCELED);
       assertEquals("BankSlipStatusEnum.PENDING",
          BankSlipStatusEnum.PENDING,this.entity.getStatus());
 
@@ -616,16 +1703,113 @@ public class BankSlipControllerUT extends UnitTest{
       String body = result.getResponse().getContentAsString();
       assertEquals("200 : Bankslip canceled", body);
 
-      assertEquals("BankSlipStatusEnum.CANCELED",
-         BankSlipStatusEnum.CANCELED,this.entity.getStatus());
-
-      verify(repository, times(1))
-         .findById(any(UUID.class));
       verify(repository, times(1))
+         .updateStatus(any(UUID.class), any(BankSlipStatusEnum.class));
+      verify(repository, times(0))
          .save(any(BankSlip.class));
       verifyNoMoreInteractions(repository);
    }
    
+   @Test
+   public void payOrCancelAll_causes400Response() throws Exception {
+      MvcResult result = this.mvc.perform(
+         put(RESOURCE_URL + "/bulk")
+         .contentType(MediaType.APPLICATION_JSON_UTF8)
+         .content("[]")
+      )
+      .andExpect(status().isBadRequest())
+      .andReturn()
+      ;
+      String body = result.getResponse().getContentAsString();
+      assertEquals("400 : Bankslip statuses not provided in the request body",
+         body);
+      verifyZeroInteractions(repository);
+   }
+   
+   @Test
+   public void payOrCancelAll_causes422Response() throws Exception {
+      String content = objectMapper.writeValueAsString(Arrays.asList(
+         new BulkUpdatedBankSlipStatusDTO(this.uuid, BankSlipStatusEnum.PAID),
+         new BulkUpdatedBankSlipStatusDTO(UUID.randomUUID(),
+            BankSlipStatusEnum.PENDING)));
+      MvcResult result = this.mvc.perform(
+         put(RESOURCE_URL + "/bulk")
+         .contentType(MediaType.APPLICATION_JSON_UTF8)
+         .content(content)
+      )
+      .andExpect(status().isUnprocessableEntity())
+      .andReturn()
+      ;
+      String body = result.getResponse().getContentAsString();
+      assertEquals(
+         "422 : Invalid bankslip statuses provided (id and PAID or CANCELED required)",
+         body);
+      verifyZeroInteractions(repository);
+   }
+   
+   @Test
+   public void payOrCancelAll_causes500Response() throws Exception {
+      String content = objectMapper.writeValueAsString(Collections.singletonList(
+         new BulkUpdatedBankSlipStatusDTO(this.uuid, BankSlipStatusEnum.PAID)));
+      when(repository.updateAllStatusUnordered(anyMapOf(UUID.class,
+         BankSlipStatusEnum.class)))
+         .thenThrow(EXCEPTION);
+      this.mvc.perform(
+         put(RESOURCE_URL + "/bulk")
+         .contentType(MediaType.APPLICATION_JSON_UTF8)
+         .content(content)
+      )
+      .andExpect(status().isInternalServerError())
+      .andExpect(getISErrorHeaderResultMatchers().string("ISError",
+         "Could not pay or cancel these bank slips: [Ticket-c97456c5-3d32-45bb-b0f1-ec7352465788] - Exception Occurred!"))
+      ;
+      
+      verify(repository, times(1))
+         .updateAllStatusUnordered(anyMapOf(UUID.class,
+            BankSlipStatusEnum.class));
+      verify(cache, times(1))
+         .invalidateAll(Collections.singleton(this.uuid));
+      verifyNoMoreInteractions(repository);
+   }
+   
+   @Test
+   public void payOrCancelAll_causes200Response() throws Exception {
+      UUID canceled = UUID.randomUUID();
+      UUID missing = UUID.randomUUID();
+      String content = objectMapper.writeValueAsString(Arrays.asList(
+         new BulkUpdatedBankSlipStatusDTO(this.uuid, BankSlipStatusEnum.PAID),
+         new BulkUpdatedBankSlipStatusDTO(canceled, BankSlipStatusEnum.CANCELED),
+         new BulkUpdatedBankSlipStatusDTO(missing, BankSlipStatusEnum.PAID)));
+      Map<UUID, BankSlipTransitionEnum> outcomes = new LinkedHashMap<>();
+      outcomes.put(this.uuid, BankSlipTransitionEnum.PAID);
+      outcomes.put(canceled, BankSlipTransitionEnum.ALREADY_SETTLED);
+      outcomes.put(missing, BankSlipTransitionEnum.NOT_FOUND);
+      when(repository.updateAllStatusUnordered(anyMapOf(UUID.class,
+         BankSlipStatusEnum.class)))
+         .thenReturn(outcomes);
+      this.mvc.perform(
+         put(RESOURCE_URL + "/bulk")
+         .contentType(MediaType.APPLICATION_JSON_UTF8)
+         .content(content)
+      )
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$", hasSize(3)))
+      .andExpect(jsonPath("$[0].id", is(this.uuid.toString())))
+      .andExpect(jsonPath("$[0].outcome", is("PAID")))
+      .andExpect(jsonPath("$[1].outcome", is("ALREADY_SETTLED")))
+      .andExpect(jsonPath("$[2].outcome", is("NOT_FOUND")))
+      ;
+      
+      Map<UUID, BankSlipStatusEnum> expected = new LinkedHashMap<>();
+      expected.put(this.uuid, BankSlipStatusEnum.PAID);
+      expected.put(canceled, BankSlipStatusEnum.CANCELED);
+      expected.put(missing, BankSlipStatusEnum.PAID);
+      verify(repository, times(1)).updateAllStatusUnordered(expected);
+      verify(cache, times(1))
+         .invalidateAll(expected.keySet());
+      verifyNoMoreInteractions(repository);
+   }
+   
    private LocalDate getLocalDateBeforeToday(int numberOfDaysBefore) {
       LocalDate today = LocalDate.now();
       return LocalDate.of(
@@ -638,6 +1822,15 @@ public class BankSlipControllerUT extends UnitTest{
          .atStartOfDay(ZoneId.systemDefault()).toInstant());
    }
    
+   private Answer<Map<Integer, String>> assignIds(
+      Map<Integer, String> failures) {
+      return invocation -> {
+         List<BankSlip> entities = invocation.getArgument(0);
+         entities.forEach(e -> ReflectionTestUtils.setField(e, "id", uuid));
+         return failures;
+      };
+   }
+   
    private HeaderResultMatchers getISErrorHeaderResultMatchers(){
       return new HeaderResultMatchers(){
          public ResultMatcher string(final String name, final String value) {
@@ -0,0 +1,78 @@
+package br.com.acmattos.bankslip.rest;
+
+import br.com.acmattos.bankslip.data.BankSlip;
+import br.com.acmattos.bankslip.data.BankSlipStatusEnum;
+import br.com.acmattos.bankslip.fine.FineRate;
+import br.com.acmattos.bankslip.util.UnitTest;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * BankSlipETags Unit Tests.
+ * @author acmattos
+ */
+public class BankSlipETagsUT extends UnitTest {
+   private static final String ETAG = "\"3-0.01\"";
+
+   @Test
+   public void of_VersionAndFineRate() {
+      assertEquals(ETAG, BankSlipETags.of(newEntity(UUID.randomUUID(), 3L),
+         FineRate.of(new BigDecimal("0.01"))));
+      assertEquals("\"0-0\"", BankSlipETags.of(
+         newEntity(UUID.randomUUID(), null), FineRate.ZERO));
+   }
+
+   @Test
+   public void of_ListChangesWithVersionsAndOrder() {
+      UUID first = UUID.randomUUID();
+      UUID second = UUID.randomUUID();
+      String etag = BankSlipETags.of(Arrays.asList(
+         newEntity(first, null), newEntity(second, 1L)));
+
+      assertEquals(etag, BankSlipETags.of(Arrays.asList(
+         newEntity(first, 0L), newEntity(second, 1L))));
+      assertNotEquals(etag, BankSlipETags.of(Arrays.asList(
+         newEntity(first, 1L), newEntity(second, 1L))));
+      assertNotEquals(etag, BankSlipETags.of(Arrays.asList(
+         newEntity(second, 1L), newEntity(first, null))));
+      assertNotEquals(etag, BankSlipETags.of(Collections.emptyList()));
+   }
+
+   @Test
+   public void matches() {
+      assertTrue(BankSlipETags.matches(ETAG, ETAG));
+      assertTrue(BankSlipETags.matches("\"1-0\", W/" + ETAG, ETAG));
+      assertTrue(BankSlipETags.matches("*", ETAG));
+      assertFalse(BankSlipETags.matches("\"3-0.005\"", ETAG));
+      assertFalse(BankSlipETags.matches(null, ETAG));
+   }
+
+   @Test
+   public void versionOf_IfMatch() {
+      assertEquals(Long.valueOf(3L), BankSlipETags.versionOf(ETAG));
+      assertNull(BankSlipETags.versionOf("*"));
+      assertNull(BankSlipETags.versionOf(null));
+      assertTrue(BankSlipETags.isValidIfMatch(ETAG));
+      assertFalse(BankSlipETags.isValidIfMatch("W/" + ETAG));
+      assertFalse(BankSlipETags.isValidIfMatch(ETAG + ", \"1-0\""));
+      assertFalse(BankSlipETags.isValidIfMatch("\"x-0\""));
+   }
+
+   private BankSlip newEntity(UUID id, Long version) {
+      return BankSlip.builder()
+         .id(id)
+         .dueDate(new Date())
+         .totalInCents(BigDecimal.TEN)
+         .customer("Customer")
+         .status(BankSlipStatusEnum.PENDING)
+         .version(version)
+         .build();
+   }
+}
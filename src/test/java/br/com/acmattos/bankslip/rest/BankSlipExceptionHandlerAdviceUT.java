@@ -75,4 +75,18 @@ public class BankSlipExceptionHandlerAdviceUT extends UnitTest {
          "400 : Invalid id provided - it must be a valid UUID", responseEntity.getBody());
    }
    
-}
\ No newline at end of file
+   @Test
+   public void handleMethodArgumentTypeMismatchException_nonIdParameter() throws Exception {
+      @SuppressWarnings("ConstantConditions")
+      MethodArgumentTypeMismatchException e =
+         new MethodArgumentTypeMismatchException(null, null, "limit", null, null);
+   
+      ResponseEntity responseEntity =
+         this.advice.handleMethodArgumentTypeMismatchException(e);
+   
+      assertNotNull("responseEntity can't be null", responseEntity);
+      assertEquals("Must be 400", HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+      assertEquals("Must have body",
+         "400 : Invalid value provided for parameter: limit", responseEntity.getBody());
+   }
+}
@@ -0,0 +1,55 @@
+package br.com.acmattos.bankslip.rest;
+
+import br.com.acmattos.bankslip.util.UnitTest;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * BankSlipIdValidator Unit Tests.
+ * @author acmattos
+ */
+public class BankSlipIdValidatorUT extends UnitTest {
+   private final BankSlipIdValidator validator = new BankSlipIdValidator();
+   
+   @Test
+   public void isValid_ValidVersions() {
+      assertTrue(validator.isValid(
+         UUID.fromString("c232ab00-9414-11ec-b3c8-9e6bdeced846")));
+      assertTrue(validator.isValid(
+         UUID.fromString("000003e8-a1b2-21ec-8a00-0242ac120002")));
+      assertTrue(validator.isValid(
+         UUID.fromString("3A4DD880-5FA5-350D-5BE5-FDF1C252F793")));
+      assertTrue(validator.isValid(UUID.randomUUID()));
+      assertTrue(validator.isValid(
+         UUID.fromString("a6edc906-2f9f-5fb2-a373-efac406f0ef2")));
+      assertTrue(validator.isValid(
+         UUID.fromString("0164afd6-1400-7a3c-9e21-5b8d0f4c7a11")));
+   }
+   
+   @Test
+   public void isValid_InvalidVersions() {
+      assertFalse(validator.isValid(UUID.fromString("1-1-1-1-1")));
+      assertFalse(validator.isValid(
+         UUID.fromString("1ec9414c-232a-6b00-b3c8-9e6bdeced846")));
+      assertFalse(validator.isValid(
+         UUID.fromString("84e8adbf-1a14-803b-ad73-d78ae19b59bf")));
+      assertFalse(validator.isValid(
+         UUID.fromString("84e8adbf-1a14-f03b-ad73-d78ae19b59bf")));
+   }
+   
+   @Test
+   public void isValid_ReservedVariant() {
+      assertFalse(validator.isValid(
+         UUID.fromString("84e8adbf-1a14-403b-ed73-d78ae19b59bf")));
+      assertTrue(validator.isValid(
+         UUID.fromString("84e8adbf-1a14-403b-cd73-d78ae19b59bf")));
+   }
+   
+   @Test
+   public void isValid_Null() {
+      assertFalse(validator.isValid(null));
+   }
+}
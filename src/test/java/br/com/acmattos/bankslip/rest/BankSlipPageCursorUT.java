@@ -0,0 +1,70 @@
+package br.com.acmattos.bankslip.rest;
+
+import br.com.acmattos.bankslip.data.BankSlip;
+import br.com.acmattos.bankslip.data.BankSlipStatusEnum;
+import br.com.acmattos.bankslip.util.UnitTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * BankSlipPageCursor Unit Tests.
+ * @author acmattos
+ */
+public class BankSlipPageCursorUT extends UnitTest {
+   private BankSlip entity;
+   
+   @Before
+   public void setUp() throws Exception {
+      this.entity = BankSlip.builder()
+         .id(UUID.randomUUID())
+         .dueDate(new Date())
+         .totalInCents(BigDecimal.TEN)
+         .customer("Customer")
+         .status(BankSlipStatusEnum.PENDING)
+         .build();
+   }
+   
+   @Test(expected = IllegalArgumentException.class)
+   public void of_nullEntity() {
+      try {
+         BankSlipPageCursor.of(null);
+         fail("IllegalArgumentException must be thrown!");
+      } catch (IllegalArgumentException e){
+         assertEquals("entity can't be null!", e.getMessage());
+         throw e;
+      }
+   }
+   
+   @Test
+   public void encodeAndDecode() {
+      BankSlipPageCursor cursor = BankSlipPageCursor.of(this.entity);
+      String token = cursor.encode();
+      assertTrue("Token must be URL safe!", token.matches("[A-Za-z0-9_-]+"));
+   
+      BankSlipPageCursor decoded = BankSlipPageCursor.decode(token);
+      assertEquals("Must be equal!", cursor, decoded);
+      assertEquals("Same due date!", this.entity.getDueDate(), decoded.getDueDate());
+      assertEquals("Same id!", this.entity.getId(), decoded.getId());
+   }
+   
+   @Test(expected = IllegalArgumentException.class)
+   public void decode_emptyToken() {
+      BankSlipPageCursor.decode("");
+   }
+   
+   @Test(expected = IllegalArgumentException.class)
+   public void decode_invalidBase64Token() {
+      BankSlipPageCursor.decode("not a cursor!");
+   }
+   
+   @Test(expected = IllegalArgumentException.class)
+   public void decode_invalidLengthToken() {
+      BankSlipPageCursor.decode("AAAA");
+   }
+}
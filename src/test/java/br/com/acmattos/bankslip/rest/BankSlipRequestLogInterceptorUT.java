@@ -0,0 +1,76 @@
+package br.com.acmattos.bankslip.rest;
+
+import br.com.acmattos.bankslip.util.UnitTest;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * BankSlipRequestLogInterceptor Unit Tests.
+ * @author acmattos
+ */
+public class BankSlipRequestLogInterceptorUT extends UnitTest {
+   private static final String ID = "0164afd6-1400-7a3c-9e21-5b8d0f4c7a11";
+
+   private final BankSlipRequestLogInterceptor interceptor =
+      new BankSlipRequestLogInterceptor();
+   private final Logger logger =
+      (Logger) LoggerFactory.getLogger(BankSlipRequestLog.class);
+   private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+   private MockHttpServletRequest request;
+   private MockHttpServletResponse response;
+
+   @Before
+   public void setUp() {
+      appender.start();
+      logger.addAppender(appender);
+      request = new MockHttpServletRequest("GET", "/rest/bankslips/" + ID);
+      response = new MockHttpServletResponse();
+   }
+
+   @After
+   public void tearDown() {
+      logger.detachAppender(appender);
+   }
+
+   @Test
+   public void afterCompletion_logsEndpointIdOutcomeAndLatency() {
+      interceptor.preHandle(request, response, null);
+      request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+         "/bankslips/{id}");
+      request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE,
+         Collections.singletonMap("id", ID));
+      response.setStatus(404);
+      interceptor.afterCompletion(request, response, null, null);
+
+      assertEquals(1, appender.list.size());
+      String message = appender.list.get(0).getFormattedMessage();
+      assertTrue(message, message.startsWith("endpoint=GET /bankslips/{id} id="
+         + ID + " outcome=404 latencyMicros="));
+   }
+
+   @Test
+   public void afterCompletion_withoutPreHandle_logsNothing() {
+      interceptor.afterCompletion(request, response, null, null);
+
+      assertTrue(appender.list.isEmpty());
+   }
+
+   @Test
+   public void redact() {
+      assertEquals("C***", BankSlipRequestLog.redact("Customer"));
+      assertEquals("", BankSlipRequestLog.redact(""));
+      assertNull(BankSlipRequestLog.redact(null));
+   }
+}
@@ -37,7 +37,7 @@ public class DetailedBankSlipDTOUT extends UnitTest {
    
    @Test
    public void toDTO_nullEntity() {
-      assertNull("Must be null!", DetailedBankSlipDTO.toDTO(null));
+      assertNull("Must be null!", DetailedBankSlipDTO.toDTO(null, BigDecimal.ZERO));
    }
    
    @Test
@@ -49,7 +49,7 @@ public class DetailedBankSlipDTOUT extends UnitTest {
          .customer("Customer")
          .status(BankSlipStatusEnum.PENDING)
          .build();
-      DetailedBankSlipDTO dto = DetailedBankSlipDTO.toDTO(entity);
+      DetailedBankSlipDTO dto = DetailedBankSlipDTO.toDTO(entity, BigDecimal.ZERO);
       
       assertNotNull("Can't be null!", dto);
       assertEquals(this.uuid, entity.getId());
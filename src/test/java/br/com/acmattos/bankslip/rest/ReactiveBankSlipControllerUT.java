@@ -0,0 +1,401 @@
+package br.com.acmattos.bankslip.rest;
+
+import br.com.acmattos.bankslip.data.BankSlip;
+import br.com.acmattos.bankslip.data.BankSlipStatusEnum;
+import br.com.acmattos.bankslip.data.BankSlipTransitionEnum;
+import br.com.acmattos.bankslip.data.ReactiveBankSlipRepository;
+import br.com.acmattos.bankslip.fine.FineCalculator;
+import br.com.acmattos.bankslip.fine.FinePolicyProperties;
+import br.com.acmattos.bankslip.fine.TieredFinePolicy;
+import br.com.acmattos.bankslip.util.UnitTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * ReactiveBankSlipController Unit Tests.
+ * @author acmattos
+ */
+public class ReactiveBankSlipControllerUT extends UnitTest {
+   private static final String RESOURCE_URL = "/rest/bankslips";
+   private static final RuntimeException EXCEPTION =
+      new RuntimeException("Exception Occurred!");
+   private static final String STATUS_PAID = "{\"status\":\"PAID\"}";
+
+   @InjectMocks
+   private ReactiveBankSlipController controller;
+
+   @Mock
+   private ReactiveBankSlipRepository repository;
+
+   @Spy
+   private FineCalculator fineCalculator = new FineCalculator(
+      new TieredFinePolicy(new FinePolicyProperties().getTiers()));
+
+   @Spy
+   private BankSlipIdValidator idValidator = new BankSlipIdValidator();
+
+   @Spy
+   private MeterRegistry registry = new SimpleMeterRegistry();
+
+   private WebTestClient client;
+
+   private BankSlip entity;
+   private UUID uuid;
+
+   @Before
+   public void setUp() {
+      this.client = WebTestClient.bindToController(controller)
+         .controllerAdvice(new ReactiveBankSlipExceptionHandlerAdvice())
+         .build();
+      this.uuid = UUID.randomUUID();
+      this.entity = BankSlip.builder()
+         .id(this.uuid)
+         .dueDate(getDateBeforeToday(10))
+         .totalInCents(new BigDecimal("100000"))
+         .customer("Customer")
+         .status(BankSlipStatusEnum.PENDING)
+         .build();
+   }
+
+   @Test
+   public void create_causes400Response() {
+      this.client.post().uri(RESOURCE_URL)
+         .contentType(MediaType.APPLICATION_JSON_UTF8)
+         .exchange()
+         .expectStatus().isBadRequest()
+         .expectHeader().doesNotExist("dueDate")
+         .expectBody(String.class)
+         .isEqualTo("400 : Bankslip not provided in the request body");
+
+      verifyZeroInteractions(repository);
+   }
+
+   @Test
+   public void create_causes422Response_OnlyDueDateIsInvalid() {
+      String json = new StringBuilder("{")
+         .append("\"dueDate\":").append("\"invalid!\",")
+         .append("\"totalInCents\":").append("100000,")
+         .append("\"customer\":").append("\"Customer\",")
+         .append("\"status\":").append("\"PENDING\"")
+         .append("}").toString();
+
+      this.client.post().uri(RESOURCE_URL)
+         .contentType(MediaType.APPLICATION_JSON_UTF8)
+         .syncBody(json)
+         .exchange()
+         .expectStatus().isEqualTo(422)
+         .expectHeader().valueEquals("dueDate",
+            "Date format accepted: (yyyy-MM-dd)")
+         .expectBody(String.class).isEqualTo(
+            "422 : Invalid bankslip provided. Check HEADERS for more information!");
+
+      verifyZeroInteractions(repository);
+   }
+
+   @Test
+   public void create_causes422Response_AllAttributesAreInvalid() {
+      this.client.post().uri(RESOURCE_URL)
+         .contentType(MediaType.APPLICATION_JSON_UTF8)
+         .syncBody("{}")
+         .exchange()
+         .expectStatus().isEqualTo(422)
+         .expectHeader().valueEquals("dueDate", "Can't be null!")
+         .expectHeader().valueEquals("totalInCents",
+            "Can't be null or below zero!")
+         .expectBody(String.class).isEqualTo(
+            "422 : Invalid bankslip provided. Check HEADERS for more information!");
+
+      verifyZeroInteractions(repository);
+   }
+
+   @Test
+   public void create_causes500Response() {
+      when(repository.create(any(BankSlip.class)))
+         .thenReturn(Mono.error(EXCEPTION));
+
+      this.client.post().uri(RESOURCE_URL)
+         .contentType(MediaType.APPLICATION_JSON_UTF8)
+         .syncBody(newBankSlipJson())
+         .exchange()
+         .expectStatus().is5xxServerError()
+         .expectHeader().valueMatches("ISError",
+            "Could not create new bank slip: \\[Ticket-.*");
+
+      assertEquals(1.0, registry.counter("bankslip.error.tickets",
+         "exception", "RuntimeException").count(), 0.0);
+      verify(repository, times(1)).create(any(BankSlip.class));
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void create_causes201Response() {
+      when(repository.create(any(BankSlip.class)))
+         .thenReturn(Mono.just(this.entity));
+
+      this.client.post().uri(RESOURCE_URL)
+         .contentType(MediaType.APPLICATION_JSON_UTF8)
+         .syncBody(newBankSlipJson())
+         .exchange()
+         .expectStatus().isCreated()
+         .expectHeader().valueEquals("Location",
+            "/rest/bankslips/" + this.uuid)
+         .expectBody(String.class).isEqualTo("201 : Bankslip created");
+
+      verify(repository, times(1)).create(any(BankSlip.class));
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findAll_causes200Response() {
+      when(repository.count()).thenReturn(Mono.just(1L));
+      when(repository.findAll()).thenReturn(Flux.just(this.entity));
+
+      this.client.get().uri(RESOURCE_URL)
+         .accept(MediaType.APPLICATION_JSON)
+         .exchange()
+         .expectStatus().isOk()
+         .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+         .expectBody()
+         .jsonPath("$.length()").isEqualTo(1)
+         .jsonPath("$[0].id").isEqualTo(this.uuid.toString())
+         .jsonPath("$[0].customer").isEqualTo("Customer");
+
+      verify(repository, times(1)).count();
+      verify(repository, times(1)).findAll();
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findAll_causes200ResponseForStreamJson() {
+      when(repository.count()).thenReturn(Mono.just(2L));
+      when(repository.findAll()).thenReturn(Flux.just(this.entity, this.entity));
+
+      this.client.get().uri(RESOURCE_URL)
+         .accept(MediaType.APPLICATION_STREAM_JSON)
+         .exchange()
+         .expectStatus().isOk()
+         .expectHeader()
+            .contentTypeCompatibleWith(MediaType.APPLICATION_STREAM_JSON)
+         .expectBodyList(Map.class).hasSize(2);
+
+      verify(repository, times(1)).count();
+      verify(repository, times(1)).findAll();
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findAll_causes404Response() {
+      when(repository.count()).thenReturn(Mono.just(0L));
+
+      this.client.get().uri(RESOURCE_URL)
+         .accept(MediaType.APPLICATION_JSON)
+         .exchange()
+         .expectStatus().isNotFound()
+         .expectHeader().doesNotExist("ISError")
+         .expectBody()
+         .jsonPath("$.length()").isEqualTo(0);
+
+      verify(repository, times(1)).count();
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findAll_causes500Response() {
+      when(repository.count()).thenReturn(Mono.error(EXCEPTION));
+
+      this.client.get().uri(RESOURCE_URL)
+         .accept(MediaType.APPLICATION_JSON)
+         .exchange()
+         .expectStatus().is5xxServerError()
+         .expectHeader().valueMatches("ISError",
+            "Could not find all bank slips: \\[Ticket-.*");
+
+      assertEquals(1.0, registry.counter("bankslip.error.tickets",
+         "exception", "RuntimeException").count(), 0.0);
+      verify(repository, times(1)).count();
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findById_causes400Response() {
+      this.client.get().uri(RESOURCE_URL + "/5b034b81595d896db05a38e8a")
+         .exchange()
+         .expectStatus().isBadRequest()
+         .expectHeader().doesNotExist("ISError")
+         .expectBody(String.class)
+         .isEqualTo("400 : Invalid id provided - it must be a valid UUID");
+
+      verifyZeroInteractions(repository);
+   }
+
+   @Test
+   public void findById_causes400ResponseForInvalidUUID() {
+      this.client.get().uri(RESOURCE_URL + "/1-1-1-1-1")
+         .exchange()
+         .expectStatus().isBadRequest()
+         .expectBody(String.class)
+         .isEqualTo("400 : Invalid id provided - it must be a valid UUID");
+
+      verifyZeroInteractions(repository);
+   }
+
+   @Test
+   public void findById_causes404Response() {
+      when(repository.findById(any(UUID.class))).thenReturn(Mono.empty());
+
+      this.client.get().uri(RESOURCE_URL + "/84e8adbf-1a14-403b-ad73-d78ae19b59bf")
+         .exchange()
+         .expectStatus().isNotFound()
+         .expectBody(String.class)
+         .isEqualTo("404 : Bankslip not found with the specified id");
+
+      verify(repository, times(1)).findById(any(UUID.class));
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findById_causes500Response() {
+      when(repository.findById(any(UUID.class)))
+         .thenReturn(Mono.error(EXCEPTION));
+
+      this.client.get().uri(RESOURCE_URL + "/c2dbd236-3fa5-4ccc-9c12-bd0ae1d6dd89")
+         .exchange()
+         .expectStatus().is5xxServerError()
+         .expectHeader().valueMatches("ISError",
+            "Could not find this particular bank slip: \\[Ticket-.*");
+
+      verify(repository, times(1)).findById(any(UUID.class));
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void findById_causes200Response() {
+      when(repository.findById(any(UUID.class)))
+         .thenReturn(Mono.just(this.entity));
+
+      this.client.get().uri(RESOURCE_URL + "/3A4DD880-5FA5-350D-5BE5-FDF1C252F793")
+         .exchange()
+         .expectStatus().isOk()
+         .expectBody()
+         .jsonPath("$.id").isEqualTo(this.uuid.toString())
+         .jsonPath("$.dueDate").isEqualTo(getLocalDateBeforeToday(10).toString())
+         .jsonPath("$.totalInCents").isEqualTo(100000)
+         .jsonPath("$.fine").isEqualTo(500)
+         .jsonPath("$.status").isEqualTo("PENDING");
+
+      verify(fineCalculator, times(1)).calculateFine(this.entity);
+      verify(repository, times(1)).findById(any(UUID.class));
+      verifyNoMoreInteractions(repository);
+   }
+
+   @Test
+   public void payOne_causes404Response() {
+      payOne(BankSlipTransitionEnum.NOT_FOUND)
+         .expectStatus().isNotFound()
+         .expectBody(String.class)
+         .isEqualTo("404 : Bankslip not found with the specified id");
+   }
+
+   @Test
+   public void payOne_causes409Response() {
+      payOne(BankSlipTransitionEnum.ALREADY_SETTLED)
+         .expectStatus().isEqualTo(409)
+         .expectBody(String.class)
+         .isEqualTo("409 : Bankslip already settled with a different status");
+   }
+
+   @Test
+   public void payOne_causes200Response() {
+      payOne(BankSlipTransitionEnum.PAID)
+         .expectStatus().isOk()
+         .expectBody(String.class).isEqualTo("200 : Bankslip paid");
+   }
+
+   @Test
+   public void payOne_causes500Response() {
+      when(repository.updateStatus(any(UUID.class),
+         any(BankSlipStatusEnum.class)))
+         .thenReturn(Mono.error(EXCEPTION));
+
+      this.client.put().uri(RESOURCE_URL + "/" + this.uuid)
+         .contentType(MediaType.APPLICATION_JSON_UTF8)
+         .syncBody(STATUS_PAID)
+         .exchange()
+         .expectStatus().is5xxServerError()
+         .expectHeader().valueMatches("ISError",
+            "Could not pay or cancel this particular bank slip: \\[Ticket-.*");
+   }
+
+   @Test
+   public void payOrCancelOne_causes422Response() {
+      this.client.put().uri(RESOURCE_URL + "/" + this.uuid)
+         .contentType(MediaType.APPLICATION_JSON_UTF8)
+         .syncBody("{\"status\":\"PENDING\"}")
+         .exchange()
+         .expectStatus().isEqualTo(422)
+         .expectBody(String.class)
+         .isEqualTo("422 : Invalid bankslip status provided (PENDING)");
+
+      verifyZeroInteractions(repository);
+   }
+
+   @Test
+   public void cancelOne_causes200Response() {
+      when(repository.updateStatus(this.uuid, BankSlipStatusEnum.CANCELED))
+         .thenReturn(Mono.just(BankSlipTransitionEnum.CANCELED));
+
+      this.client.put().uri(RESOURCE_URL + "/" + this.uuid)
+         .contentType(MediaType.APPLICATION_JSON_UTF8)
+         .syncBody("{\"status\":\"CANCELED\"}")
+         .exchange()
+         .expectStatus().isOk()
+         .expectBody(String.class).isEqualTo("200 : Bankslip canceled");
+
+      verify(repository, times(1))
+         .updateStatus(this.uuid, BankSlipStatusEnum.CANCELED);
+      verifyNoMoreInteractions(repository);
+   }
+
+   private WebTestClient.ResponseSpec payOne(BankSlipTransitionEnum outcome) {
+      when(repository.updateStatus(this.uuid, BankSlipStatusEnum.PAID))
+         .thenReturn(Mono.just(outcome));
+      return this.client.put().uri(RESOURCE_URL + "/" + this.uuid)
+         .contentType(MediaType.APPLICATION_JSON_UTF8)
+         .syncBody(STATUS_PAID)
+         .exchange();
+   }
+
+   private String newBankSlipJson() {
+      return "{\"dueDate\":\"2018-01-01\",\"totalInCents\":100000,"
+         + "\"customer\":\"Customer\",\"status\":\"PENDING\"}";
+   }
+
+   private LocalDate getLocalDateBeforeToday(int numberOfDaysBefore) {
+      return LocalDate.now().minusDays(numberOfDaysBefore);
+   }
+
+   private Date getDateBeforeToday(int numberOfDaysBefore) {
+      return Date.from(getLocalDateBeforeToday(numberOfDaysBefore)
+         .atStartOfDay(ZoneId.systemDefault()).toInstant());
+   }
+}
@@ -154,6 +154,17 @@ public class ResponseEntityBuilderUT extends UnitTest {
          HttpStatus.BAD_REQUEST.value(), responseEntity.getStatusCode().value());
    }
 
+   @Test
+   public void build_StatusNOT_MODIFIED() {
+      ResponseEntityBuilder builder = ResponseEntityBuilder.builder();
+      ResponseEntity responseEntity = builder.NOT_MODIFIED().build();
+      assertNotNull("Can't be null!", responseEntity);
+      assertTrue("Must be empty!", responseEntity.getHeaders().isEmpty());
+      assertNull("Must be null!", responseEntity.getBody());
+      assertEquals("Status must be NOT_MODIFIED",
+         HttpStatus.NOT_MODIFIED.value(), responseEntity.getStatusCode().value());
+   }
+
    @Test
    public void build_StatusNOT_FOUND() {
       ResponseEntityBuilder builder = ResponseEntityBuilder.builder();
@@ -165,6 +176,17 @@ public class ResponseEntityBuilderUT extends UnitTest {
          HttpStatus.NOT_FOUND.value(), responseEntity.getStatusCode().value());
    }
 
+   @Test
+   public void build_StatusCONFLICT() {
+      ResponseEntityBuilder builder = ResponseEntityBuilder.builder();
+      ResponseEntity responseEntity = builder.CONFLICT().build();
+      assertNotNull("Can't be null!", responseEntity);
+      assertTrue("Must be empty!", responseEntity.getHeaders().isEmpty());
+      assertNull("Must be null!", responseEntity.getBody());
+      assertEquals("Status must be CONFLICT",
+         HttpStatus.CONFLICT.value(), responseEntity.getStatusCode().value());
+   }
+
    @Test
    public void build_StatusINTERNAL_SERVER_ERROR() {
       ResponseEntityBuilder builder = ResponseEntityBuilder.builder();
@@ -176,6 +198,18 @@ public class ResponseEntityBuilderUT extends UnitTest {
           HttpStatus.INTERNAL_SERVER_ERROR.value(), responseEntity.getStatusCode().value());
    }
 
+   @Test
+   public void build_StatusSERVICE_UNAVAILABLE() {
+      ResponseEntityBuilder builder = ResponseEntityBuilder.builder();
+      ResponseEntity responseEntity = builder.SERVICE_UNAVAILABLE().build();
+      assertNotNull("Can't be null!", responseEntity);
+      assertTrue("Must be empty!", responseEntity.getHeaders().isEmpty());
+      assertNull("Must be null!", responseEntity.getBody());
+      assertEquals("Status must be SERVICE_UNAVAILABLE",
+         HttpStatus.SERVICE_UNAVAILABLE.value(),
+         responseEntity.getStatusCode().value());
+   }
+
    @Test
    public void build_bodyNullEntity() {
       ResponseEntityBuilder builder = ResponseEntityBuilder.builder();